@@ -0,0 +1,215 @@
+package com.pictech.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pictech.client.ImageTranslationApiClient;
+import com.pictech.client.PicTechMetrics;
+import com.pictech.client.PicTechPollProperties;
+import com.pictech.controller.TranslationController;
+import com.pictech.dto.IopaintRequest;
+import com.pictech.dto.UploadedImageRequest;
+import com.pictech.service.AssetStorage;
+import com.pictech.service.AssetStorageProperties;
+import com.pictech.service.TranslationService;
+import com.pictech.service.UpstreamRequestExecutor;
+import com.pictech.client.transport.PicTechHttpProperties;
+import com.pictech.client.transport.PicTechTransport;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.DelegatingServletInputStream;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import javax.servlet.ServletInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * 直接调用 {@link TranslationController} 中处理整张图片的接口，imageBytes 为图片的原始字节数:
+ * - uploadExportedImage / uploadIoInpaintImage: 流式解析 JSON 请求体，Base64 边解码边写入文件；*Binary 为二进制请求体直接写入文件；
+ * - performInpainting: 经本地桩服务修复 (桩服务返回 imageBytes 大小的图片)、写入文件、读回并重新编码为 Base64 的完整往返；
+ *   performInpaintingMultipart 的原图和蒙版以 multipart 二进制上传。
+ * 文件经 {@link AssetStorage} 写入临时目录，每轮迭代结束后等待后台写盘完成再清空。
+ *
+ * 运行: mvn -Pjmh test-compile exec:exec -Djmh.args="ControllerImageBenchmark -prof gc"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ControllerImageBenchmark {
+
+    private static final String BOUNDARY = "pictech-bench-boundary";
+
+    @Param({"102400", "1048576", "5242880"})
+    public int imageBytes;
+
+    private Path uploadDir;
+    private StubPicTechServer server;
+    private PicTechTransport transport;
+    private UpstreamRequestExecutor upstreamExecutor;
+    private TranslationService service;
+    private AssetStorage assetStorage;
+    private TranslationController controller;
+
+    private byte[] exportedImage;
+    private byte[] inpaintImage;
+    private IopaintRequest iopaintRequest;
+    private byte[] image;
+    private byte[] inpaintingMultipart;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Logger.getLogger(ImageTranslationApiClient.class.getName()).setLevel(java.util.logging.Level.WARNING);
+        image = new byte[imageBytes];
+        new Random(42).nextBytes(image);
+        String base64 = Base64.getEncoder().encodeToString(image);
+
+        uploadDir = Files.createTempDirectory("pictech-bench");
+        server = new StubPicTechServer(0);
+        server.setInpaintImage(image);
+        transport = PicTechTransport.create(new PicTechHttpProperties());
+        ImageTranslationApiClient client = new ImageTranslationApiClient(server.baseUrl(), "bench-account",
+                "bench-secret", transport, new PicTechPollProperties());
+        // 中文备注：iopaint 只用到 apiClient，异步客户端、轮询器、查询缓存和提交去重在这里用不到；
+        // 修复结果只比较接口本身的开销，不保存
+        service = new TranslationService(client, null, null, null, null, null, null, false);
+        upstreamExecutor = new UpstreamRequestExecutor(new SimpleMeterRegistry(), 4, 16, 4, 16, Duration.ofSeconds(10));
+
+        UploadedImageRequest exported = new UploadedImageRequest();
+        exported.setImageBase64(base64);
+        exported.setFilename("exported.png");
+        ObjectMapper mapper = new ObjectMapper();
+        exportedImage = mapper.writeValueAsBytes(exported);
+        inpaintImage = mapper.writeValueAsBytes(Collections.singletonMap("imageData", base64));
+        iopaintRequest = new IopaintRequest();
+        iopaintRequest.setImage("data:image/png;base64," + base64);
+        iopaintRequest.setMask("data:image/png;base64," + base64);
+        inpaintingMultipart = multipart(image, image);
+    }
+
+    @Setup(Level.Iteration)
+    public void setUpStorage() {
+        // 中文备注：每轮迭代使用新的后台写入，迭代结束时关闭并等待写盘完成，清空目录时不会与写入线程互相干扰
+        assetStorage = new AssetStorage(new AssetStorageProperties(), new SimpleMeterRegistry(), uploadDir.toString());
+        controller = new TranslationController(service, null, null, upstreamExecutor, assetStorage,
+                new PicTechMetrics(new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(controller, "maxFileSize", DataSize.ofMegabytes(64));
+        ReflectionTestUtils.setField(controller, "maxRequestSize", DataSize.ofMegabytes(128));
+    }
+
+    @TearDown(Level.Iteration)
+    public void cleanUp() throws IOException, InterruptedException {
+        assetStorage.close();
+        deleteContents(uploadDir);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        upstreamExecutor.close();
+        transport.close();
+        server.close();
+        deleteContents(uploadDir);
+        Files.deleteIfExists(uploadDir);
+    }
+
+    @Benchmark
+    public ResponseEntity<Object> uploadExportedImage() {
+        return controller.uploadExportedImage(binaryRequest(MediaType.APPLICATION_JSON_VALUE, exportedImage));
+    }
+
+    @Benchmark
+    public ResponseEntity<Object> uploadIoInpaintImage() {
+        return controller.uploadIoInpaintImage(binaryRequest(MediaType.APPLICATION_JSON_VALUE, inpaintImage));
+    }
+
+    @Benchmark
+    public ResponseEntity<Object> uploadExportedImageBinary() {
+        return controller.uploadExportedImageBinary(binaryRequest(MediaType.APPLICATION_OCTET_STREAM_VALUE, image));
+    }
+
+    @Benchmark
+    public ResponseEntity<Object> uploadIoInpaintImageBinary() {
+        return controller.uploadIoInpaintImageBinary(binaryRequest(MediaType.IMAGE_PNG_VALUE, image));
+    }
+
+    @Benchmark
+    public ResponseEntity<Object> performInpainting() {
+        return controller.performInpainting(iopaintRequest).join();
+    }
+
+    @Benchmark
+    public ResponseEntity<Object> performInpaintingMultipart() {
+        return controller.performInpaintingMultipart(
+                binaryRequest(MediaType.MULTIPART_FORM_DATA_VALUE + "; boundary=" + BOUNDARY, inpaintingMultipart)).join();
+    }
+
+    /**
+     * MockHttpServletRequest 的输入流只实现了逐字节的 read()，这里换成按块读取的输入流，与 Tomcat 的行为一致
+     */
+    private static MockHttpServletRequest binaryRequest(String contentType, byte[] body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/translate") {
+            @Override
+            public ServletInputStream getInputStream() {
+                ByteArrayInputStream in = new ByteArrayInputStream(body);
+                return new DelegatingServletInputStream(in) {
+                    @Override
+                    public int read(byte[] buffer, int offset, int length) {
+                        return in.read(buffer, offset, length);
+                    }
+                };
+            }
+        };
+        request.setContentType(contentType);
+        request.setContent(body);
+        return request;
+    }
+
+    private static byte[] multipart(byte[] image, byte[] mask) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        for (String field : new String[]{"image", "mask"}) {
+            body.write(("--" + BOUNDARY + "\r\nContent-Disposition: form-data; name=\"" + field + "\"; filename=\"" + field
+                    + ".png\"\r\nContent-Type: image/png\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+            body.write("image".equals(field) ? image : mask);
+            body.write("\r\n".getBytes(StandardCharsets.US_ASCII));
+        }
+        body.write(("--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.US_ASCII));
+        return body.toByteArray();
+    }
+
+    private static void deleteContents(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder())
+                    .filter(path -> !path.equals(dir))
+                    .forEach(path -> path.toFile().delete());
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.pictech.benchmark;
+
+import com.pictech.client.ImageTranslationApiClient;
+import com.pictech.client.PicTechPollProperties;
+import com.pictech.client.hedge.PicTechHedgeProperties;
+import com.pictech.client.limit.PicTechLimitProperties;
+import com.pictech.client.transport.PicTechHttpProperties;
+import com.pictech.client.transport.PicTechTransport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * 对比开启和关闭对冲请求时 /inpaint_image_sync 的延迟分布。
+ * 桩服务正常处理 10ms，按 slowRatio 的比例注入 200ms 的慢请求；SampleTime 模式输出 p50 / p99 等分位数，
+ * TearDown 时打印对冲统计 (对冲次数、胜出次数、因预算放弃的次数)。
+ *
+ * 运行: mvn -Pjmh test-compile exec:exec -Djmh.args="HedgingBenchmark"
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class HedgingBenchmark {
+
+    private static final String IMAGE = "data:image/png;base64,iVBORw0KGgo=";
+
+    @Param({"false", "true"})
+    public boolean hedging;
+
+    /** 慢请求的比例 */
+    @Param({"0.03"})
+    public double slowRatio;
+
+    private StubPicTechServer server;
+    private PicTechTransport picTechTransport;
+    private ImageTranslationApiClient client;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        // 中文备注：客户端每次修复都会输出 INFO 日志，基准测试中关掉
+        Logger.getLogger(ImageTranslationApiClient.class.getName()).setLevel(java.util.logging.Level.WARNING);
+        server = new StubPicTechServer(10, slowRatio, 200);
+        picTechTransport = PicTechTransport.create(new PicTechHttpProperties());
+        PicTechHedgeProperties hedge = new PicTechHedgeProperties();
+        hedge.setEnabled(hedging);
+        hedge.setPercentile(0.9);
+        hedge.setMinDelay(Duration.ofMillis(15));
+        client = new ImageTranslationApiClient(server.baseUrl(), "bench-account", "bench-secret",
+                picTechTransport, new PicTechPollProperties(), new PicTechLimitProperties(), hedge);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (client.getInpaintHedging() != null) {
+            System.out.println("\n对冲统计: " + client.getInpaintHedging().getStats());
+        }
+        client.close();
+        picTechTransport.close();
+        server.close();
+    }
+
+    @Benchmark
+    public byte[] inpaint() throws Exception {
+        return client.inpaintImageSync(IMAGE, IMAGE);
+    }
+}
@@ -0,0 +1,354 @@
+package com.pictech.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import okhttp3.ConnectionPool;
+import okhttp3.MediaType;
+import okhttp3.MultipartBody;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Okio;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 端到端压测驱动：按配置的比例向应用的 /api/translate/* 接口并发发送请求，结束后输出每种操作的
+ * 吞吐量、延迟分位数，以及从 /actuator/prometheus 采样的应用堆内存占用。
+ * 通常与 {@link PicTechApiSimulator} 配合使用，应用的 pictech.api.base-url 指向模拟服务。
+ *
+ * 操作 (--mix 中的名称):
+ * - url / base64 / upload / uploadStream: 通过 URL、Base64、文件上传和流式文件上传提交翻译任务，返回的 RequestId 供 result 使用；
+ * - result: 查询最近提交的任务结果；
+ * - iopaint: 同步图像修复；
+ * - uploadIoInpaintImage: 上传修复后的图片。
+ *
+ * 运行: mvn -Pjmh test-compile exec:exec -Djmh.main=com.pictech.benchmark.LoadDriver \
+ *        -Djmh.args="--target http://localhost:8080 --concurrency 32 --duration 60 --mix upload=2,result=4,iopaint=1"
+ */
+public class LoadDriver {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final MediaType JSON = MediaType.get("application/json; charset=utf-8");
+    private static final MediaType PNG = MediaType.get("image/png");
+    private static final String DEFAULT_MIX = "url=2,base64=1,upload=2,result=4,iopaint=1,uploadIoInpaintImage=1";
+    private static final int RECENT_IDS = 1024;
+
+    private final String target;
+    private final String imageUrl;
+    private final String sourceLanguage;
+    private final String targetLanguage;
+    private final OkHttpClient http;
+    private final String[] weightedOps;
+    private final Map<String, LatencyRecorder> recorders = new LinkedHashMap<>();
+
+    private final byte[] image;
+    private final byte[] base64Payload;
+    private final byte[] iopaintPayload;
+    private final byte[] inpaintUploadPayload;
+
+    private final AtomicReferenceArray<String> recentIds = new AtomicReferenceArray<>(RECENT_IDS);
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+
+    private final AtomicLong heapSamples = new AtomicLong();
+    private final AtomicLong heapSum = new AtomicLong();
+    private final AtomicLong heapMax = new AtomicLong();
+
+    LoadDriver(CommandLineOptions options) throws IOException {
+        this.target = stripTrailingSlash(options.get("target", "http://localhost:8080"));
+        this.imageUrl = options.get("image-url", "https://example.com/sample.png");
+        this.sourceLanguage = options.get("source-language", "zh");
+        this.targetLanguage = options.get("target-language", "en");
+        int concurrency = options.getInt("concurrency", 16);
+        this.http = new OkHttpClient.Builder()
+                .connectionPool(new ConnectionPool(concurrency, 5, TimeUnit.MINUTES))
+                .connectTimeout(10, TimeUnit.SECONDS)
+                .readTimeout(options.getLong("timeout-s", 120), TimeUnit.SECONDS)
+                .writeTimeout(options.getLong("timeout-s", 120), TimeUnit.SECONDS)
+                .build();
+        this.weightedOps = parseMix(options.get("mix", DEFAULT_MIX));
+        for (String op : weightedOps) {
+            recorders.putIfAbsent(op, new LatencyRecorder());
+        }
+
+        this.image = new byte[options.getInt("image-bytes", 256 * 1024)];
+        new Random(42).nextBytes(image);
+        String base64 = Base64.getEncoder().encodeToString(image);
+        String dataUrl = "data:image/png;base64," + base64;
+
+        Map<String, String> body = new LinkedHashMap<>();
+        body.put("imageBase64", dataUrl);
+        body.put("sourceLanguage", sourceLanguage);
+        body.put("targetLanguage", targetLanguage);
+        this.base64Payload = MAPPER.writeValueAsBytes(body);
+        body.clear();
+        body.put("image", dataUrl);
+        body.put("mask", dataUrl);
+        this.iopaintPayload = MAPPER.writeValueAsBytes(body);
+        body.clear();
+        body.put("imageData", base64);
+        this.inpaintUploadPayload = MAPPER.writeValueAsBytes(body);
+    }
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions options = new CommandLineOptions(args);
+        LoadDriver driver = new LoadDriver(options);
+        driver.run(options.getInt("concurrency", 16), options.getLong("duration", 30),
+                options.getLong("heap-sample-ms", 1000));
+    }
+
+    void run(int concurrency, long durationSeconds, long heapSampleMillis) throws InterruptedException {
+        System.out.println("压测目标: " + target + "，并发 " + concurrency + "，持续 " + durationSeconds
+                + " 秒，图片 " + image.length + " 字节，操作比例 " + describeMix());
+
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        if (heapSampleMillis > 0) {
+            sampler.scheduleAtFixedRate(this::sampleHeap, 0, heapSampleMillis, TimeUnit.MILLISECONDS);
+        }
+
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        long startNanos = System.nanoTime();
+        long deadline = startNanos + TimeUnit.SECONDS.toNanos(durationSeconds);
+        for (int i = 0; i < concurrency; i++) {
+            workers.execute(() -> {
+                while (System.nanoTime() < deadline) {
+                    runOnce(weightedOps[ThreadLocalRandom.current().nextInt(weightedOps.length)]);
+                }
+            });
+        }
+        workers.shutdown();
+        workers.awaitTermination(durationSeconds + 300, TimeUnit.SECONDS);
+        long elapsedNanos = System.nanoTime() - startNanos;
+        sampler.shutdownNow();
+
+        report(elapsedNanos);
+        http.dispatcher().executorService().shutdown();
+        http.connectionPool().evictAll();
+    }
+
+    // ===================================================================================
+    // =                          私有辅助方法 (Private Helpers)                         =
+    // ===================================================================================
+
+    private void runOnce(String op) {
+        Request request = buildRequest(op);
+        if (request == null) {
+            skipped.incrementAndGet();
+            return;
+        }
+        long start = System.nanoTime();
+        boolean ok;
+        try (Response response = http.newCall(request).execute()) {
+            ResponseBody body = response.body();
+            ok = response.isSuccessful();
+            if (ok && isSubmit(op)) {
+                rememberRequestId(body.bytes());
+            } else if (body != null) {
+                body.source().readAll(Okio.blackhole());
+            }
+        } catch (IOException e) {
+            ok = false;
+        }
+        recorders.get(op).record(System.nanoTime() - start, ok);
+    }
+
+    private Request buildRequest(String op) {
+        String url = target + "/api/translate/" + op;
+        switch (op) {
+            case "url":
+                Map<String, String> body = new LinkedHashMap<>();
+                body.put("imageUrl", imageUrl);
+                body.put("sourceLanguage", sourceLanguage);
+                body.put("targetLanguage", targetLanguage);
+                try {
+                    return post(url, MAPPER.writeValueAsBytes(body));
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            case "base64":
+                return post(url, base64Payload);
+            case "upload":
+            case "uploadStream":
+                if ("uploadStream".equals(op)) {
+                    url = target + "/api/translate/upload/stream";
+                }
+                // 中文备注：流式上传要求语言参数位于 file 之前
+                MultipartBody multipart = new MultipartBody.Builder()
+                        .setType(MultipartBody.FORM)
+                        .addFormDataPart("sourceLanguage", sourceLanguage)
+                        .addFormDataPart("targetLanguage", targetLanguage)
+                        .addFormDataPart("file", "load.png", RequestBody.create(image, PNG))
+                        .build();
+                return new Request.Builder().url(url).post(multipart).build();
+            case "result":
+                long count = submitted.get();
+                if (count == 0) {
+                    return null;
+                }
+                int slot = (int) (ThreadLocalRandom.current().nextLong(Math.min(count, RECENT_IDS)));
+                String requestId = recentIds.get(slot);
+                return requestId == null ? null : new Request.Builder().url(url + "/" + requestId).get().build();
+            case "iopaint":
+                return post(url, iopaintPayload);
+            case "uploadIoInpaintImage":
+                return post(url, inpaintUploadPayload);
+            default:
+                throw new IllegalArgumentException("未知的操作: " + op);
+        }
+    }
+
+    private static Request post(String url, byte[] json) {
+        return new Request.Builder().url(url).post(RequestBody.create(json, JSON)).build();
+    }
+
+    private static boolean isSubmit(String op) {
+        return "url".equals(op) || "base64".equals(op) || "upload".equals(op) || "uploadStream".equals(op);
+    }
+
+    private void rememberRequestId(byte[] body) throws IOException {
+        JsonNode requestId = MAPPER.readTree(body).get("RequestId");
+        if (requestId != null && requestId.isTextual()) {
+            // 中文备注：环形保存最近提交的 RequestId，result 操作从中随机选取
+            recentIds.set((int) (submitted.getAndIncrement() % RECENT_IDS), requestId.asText());
+        }
+    }
+
+    /**
+     * 从应用的 /actuator/prometheus 读取 jvm_memory_used_bytes{area="heap"} 各内存池之和。
+     */
+    private void sampleHeap() {
+        Request request = new Request.Builder().url(target + "/actuator/prometheus").get().build();
+        try (Response response = http.newCall(request).execute()) {
+            if (!response.isSuccessful() || response.body() == null) {
+                return;
+            }
+            double heap = 0;
+            BufferedReader reader = new BufferedReader(new StringReader(response.body().string()));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("jvm_memory_used_bytes{") && line.contains("area=\"heap\"")) {
+                    heap += Double.parseDouble(line.substring(line.lastIndexOf(' ') + 1));
+                }
+            }
+            long bytes = (long) heap;
+            heapSamples.incrementAndGet();
+            heapSum.addAndGet(bytes);
+            heapMax.accumulateAndGet(bytes, Math::max);
+        } catch (IOException | RuntimeException e) {
+            // 中文备注：应用未开启 Actuator 时只是缺少堆内存数据，不影响压测
+        }
+    }
+
+    private void report(long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        System.out.println();
+        System.out.println(String.format(Locale.ROOT, "%-22s %8s %7s %9s %9s %9s %9s %9s",
+                "operation", "count", "errors", "req/s", "p50(ms)", "p90(ms)", "p99(ms)", "max(ms)"));
+        long total = 0;
+        for (Map.Entry<String, LatencyRecorder> entry : recorders.entrySet()) {
+            LatencyRecorder recorder = entry.getValue();
+            long[] sorted = recorder.sorted();
+            total += sorted.length;
+            System.out.println(String.format(Locale.ROOT, "%-22s %8d %7d %9.1f %9.1f %9.1f %9.1f %9.1f",
+                    entry.getKey(), sorted.length, recorder.errors(), sorted.length / seconds,
+                    percentile(sorted, 0.50), percentile(sorted, 0.90), percentile(sorted, 0.99),
+                    sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1e6));
+        }
+        System.out.println(String.format(Locale.ROOT, "total %d 次请求，%.1f req/s，跳过 %d 次 (尚无可查询的 RequestId)",
+                total, total / seconds, skipped.get()));
+        long samples = heapSamples.get();
+        if (samples > 0) {
+            System.out.println(String.format(Locale.ROOT, "应用堆内存: 平均 %.1f MB，峰值 %.1f MB (%d 次采样)",
+                    heapSum.get() / (double) samples / (1 << 20), heapMax.get() / (double) (1 << 20), samples));
+        } else {
+            System.out.println("应用堆内存: 无数据 (/actuator/prometheus 不可用)");
+        }
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1e6;
+    }
+
+    /**
+     * 将 "upload=2,result=4" 展开为按权重重复的操作数组，随机选取下标即按比例选择操作。
+     */
+    private static String[] parseMix(String mix) {
+        List<String> ops = new ArrayList<>();
+        for (String part : mix.split(",")) {
+            String[] pair = part.trim().split("=");
+            int weight = pair.length > 1 ? Integer.parseInt(pair[1].trim()) : 1;
+            for (int i = 0; i < weight; i++) {
+                ops.add(pair[0].trim());
+            }
+        }
+        if (ops.isEmpty()) {
+            throw new IllegalArgumentException("--mix 不能为空");
+        }
+        return ops.toArray(new String[0]);
+    }
+
+    private String describeMix() {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String op : weightedOps) {
+            weights.merge(op, 1, Integer::sum);
+        }
+        return weights.toString();
+    }
+
+    private static String stripTrailingSlash(String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+
+    /**
+     * 记录单个操作的全部延迟 (纳秒)，压测规模下直接保存原始值即可精确计算分位数。
+     */
+    private static final class LatencyRecorder {
+        private long[] latencies = new long[1024];
+        private int size;
+        private long errors;
+
+        synchronized void record(long nanos, boolean ok) {
+            if (size == latencies.length) {
+                latencies = Arrays.copyOf(latencies, size * 2);
+            }
+            latencies[size++] = nanos;
+            if (!ok) {
+                errors++;
+            }
+        }
+
+        synchronized long[] sorted() {
+            long[] copy = Arrays.copyOf(latencies, size);
+            Arrays.sort(copy);
+            return copy;
+        }
+
+        synchronized long errors() {
+            return errors;
+        }
+    }
+}
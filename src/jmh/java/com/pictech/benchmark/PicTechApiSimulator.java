@@ -0,0 +1,343 @@
+package com.pictech.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pictech.client.PicTechSigner;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 本地 PicTech API 模拟服务，用于压测和联调，不访问真实的 PicTech 服务。
+ * - 实现 /submit_task、/query_result、/submit_remove_background_task、/query_remove_background_result 和 /inpaint_image_sync；
+ * - 按与客户端相同的规则校验 AccountId 和 Signature，校验失败返回 401；
+ * - 任务在提交后按配置的处理时间分布返回 202，之后返回结果，结果图片由 /outputs/{RequestId}.png 提供；
+ * - 每次调用的处理时间服从对数正态分布 (中位数 + sigma)，并可按比例注入 500 和 429 错误。
+ *
+ * 运行: mvn -Pjmh test-compile exec:exec -Djmh.main=com.pictech.benchmark.PicTechApiSimulator \
+ *        -Djmh.args="--port 9090 --translation-median-ms 3000 --error-rate 0.01"
+ */
+public class PicTechApiSimulator implements AutoCloseable {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final TypeReference<Map<String, Object>> PARAMS = new TypeReference<Map<String, Object>>() {
+    };
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final ScheduledExecutorService housekeeping;
+    private final String account;
+    private final PicTechSigner signer;
+    private final boolean verifySignature;
+    private final Distribution callLatency;
+    private final Distribution inpaintLatency;
+    private final Distribution translationTime;
+    private final Distribution removalTime;
+    private final double errorRate;
+    private final double throttleRate;
+    private final long taskTtlMillis;
+    private final byte[] outputImage;
+
+    private final ConcurrentMap<String, Task> tasks = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LongAdder> counters = new ConcurrentHashMap<>();
+
+    public PicTechApiSimulator(CommandLineOptions options) throws IOException {
+        this.account = options.get("account", "sim-account");
+        this.signer = new PicTechSigner(options.get("secret", "sim-secret"));
+        this.verifySignature = options.getBoolean("verify-signature", true);
+        this.callLatency = new Distribution(options.getDouble("latency-median-ms", 20), options.getDouble("latency-sigma", 0.3));
+        this.inpaintLatency = new Distribution(options.getDouble("inpaint-median-ms", 300), options.getDouble("inpaint-sigma", 0.4));
+        this.translationTime = new Distribution(options.getDouble("translation-median-ms", 3000), options.getDouble("translation-sigma", 0.5));
+        this.removalTime = new Distribution(options.getDouble("removal-median-ms", 2000), options.getDouble("removal-sigma", 0.5));
+        this.errorRate = options.getDouble("error-rate", 0);
+        this.throttleRate = options.getDouble("throttle-rate", 0);
+        this.taskTtlMillis = options.getLong("task-ttl-ms", TimeUnit.MINUTES.toMillis(10));
+        this.outputImage = noisePng(options.getInt("image-bytes", 256 * 1024));
+
+        this.server = HttpServer.create(new InetSocketAddress(options.get("host", "127.0.0.1"), options.getInt("port", 9090)), 1024);
+        this.executor = Executors.newFixedThreadPool(options.getInt("threads", 200));
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+
+        this.housekeeping = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "simulator-housekeeping");
+            thread.setDaemon(true);
+            return thread;
+        });
+        housekeeping.scheduleAtFixedRate(this::evictExpiredTasks, 30, 30, TimeUnit.SECONDS);
+        long reportSeconds = options.getLong("report-interval-s", 10);
+        if (reportSeconds > 0) {
+            housekeeping.scheduleAtFixedRate(() -> System.out.println("[simulator] " + getStats()),
+                    reportSeconds, reportSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        PicTechApiSimulator simulator = new PicTechApiSimulator(new CommandLineOptions(args));
+        simulator.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(simulator::close));
+        System.out.println("PicTech API 模拟服务已启动: " + simulator.baseUrl()
+                + " (account=" + simulator.account + ", 结果图片 " + simulator.outputImage.length + " 字节)");
+        Thread.currentThread().join();
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public String baseUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+    }
+
+    /**
+     * @return 各端点和各类结果的调用次数，以及当前保留的任务数
+     */
+    public Map<String, Long> getStats() {
+        Map<String, Long> stats = new TreeMap<>();
+        counters.forEach((key, counter) -> stats.put(key, counter.sum()));
+        stats.put("tasks", (long) tasks.size());
+        return stats;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+        housekeeping.shutdownNow();
+    }
+
+    // ===================================================================================
+    // =                          私有辅助方法 (Private Helpers)                         =
+    // ===================================================================================
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        try {
+            if (path.startsWith("/outputs/")) {
+                count("GET /outputs");
+                sendImage(exchange);
+                return;
+            }
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                sendJson(exchange, 405, error(405, "只支持 POST", "MethodNotAllowed"));
+                return;
+            }
+
+            Map<String, Object> params;
+            try (InputStream in = exchange.getRequestBody()) {
+                params = MAPPER.readValue(in, PARAMS);
+            }
+            count(path);
+            sleep((path.endsWith("/inpaint_image_sync") ? inpaintLatency : callLatency).sample());
+
+            if (!isAuthorized(params)) {
+                count("signature_rejected");
+                sendJson(exchange, 401, error(401, "签名校验失败", "SignatureDoesNotMatch"));
+                return;
+            }
+            double roll = ThreadLocalRandom.current().nextDouble();
+            if (roll < errorRate) {
+                count("injected_500");
+                sendJson(exchange, 500, error(500, "模拟的服务端错误", "InternalError"));
+                return;
+            }
+            if (roll < errorRate + throttleRate) {
+                count("injected_429");
+                sendJson(exchange, 429, error(429, "请求过于频繁", "Throttling"));
+                return;
+            }
+
+            switch (path) {
+                case "/submit_task":
+                    submit(exchange, translationTime);
+                    break;
+                case "/submit_remove_background_task":
+                    submit(exchange, removalTime);
+                    break;
+                case "/query_result":
+                    query(exchange, String.valueOf(params.get("RequestId")), false);
+                    break;
+                case "/query_remove_background_result":
+                    query(exchange, String.valueOf(params.get("RequestId")), true);
+                    break;
+                case "/inpaint_image_sync":
+                    sendImage(exchange);
+                    break;
+                default:
+                    sendJson(exchange, 404, error(404, "未知的接口: " + path, "NotFound"));
+            }
+        } catch (IOException | RuntimeException e) {
+            // 中文备注：客户端取消 (例如对冲请求的落败方) 时写响应会失败，计数后忽略
+            count("aborted");
+            exchange.close();
+        }
+    }
+
+    private boolean isAuthorized(Map<String, Object> params) {
+        if (!verifySignature) {
+            return true;
+        }
+        Object signature = params.remove("Signature");
+        return account.equals(params.get("AccountId")) && signature != null && signature.equals(signer.sign(params));
+    }
+
+    private void submit(HttpExchange exchange, Distribution processingTime) throws IOException {
+        String requestId = UUID.randomUUID().toString();
+        long now = System.currentTimeMillis();
+        tasks.put(requestId, new Task(now + processingTime.sample(), now + taskTtlMillis));
+        Map<String, Object> body = success(requestId);
+        body.put("Data", new LinkedHashMap<>());
+        sendJson(exchange, 200, body);
+    }
+
+    private void query(HttpExchange exchange, String requestId, boolean removal) throws IOException {
+        Task task = tasks.get(requestId);
+        if (task == null) {
+            sendJson(exchange, 404, error(404, "任务不存在: " + requestId, "TaskNotFound"));
+            return;
+        }
+        if (System.currentTimeMillis() < task.readyAtMillis) {
+            count("processing_202");
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("Code", 202);
+            body.put("Message", "任务处理中");
+            body.put("RequestId", requestId);
+            sendJson(exchange, 200, body);
+            return;
+        }
+
+        String outputUrl = baseUrl() + "/outputs/" + requestId + ".png";
+        Map<String, Object> data = new LinkedHashMap<>();
+        if (removal) {
+            data.put("OutputUrl", outputUrl);
+        } else {
+            data.put("FinalImageUrl", outputUrl);
+            data.put("InPaintingUrl", outputUrl);
+            data.put("SourceUrl", outputUrl);
+            data.put("TemplateJson", "{\"version\":\"5.3.0\",\"objects\":[]}");
+        }
+        Map<String, Object> body = success(requestId);
+        body.put("Data", data);
+        sendJson(exchange, 200, body);
+    }
+
+    private void sendImage(HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "image/png");
+        exchange.sendResponseHeaders(200, outputImage.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(outputImage);
+        }
+    }
+
+    private static void sendJson(HttpExchange exchange, int status, Map<String, Object> body) throws IOException {
+        byte[] bytes = MAPPER.writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static Map<String, Object> success(String requestId) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("Code", 200);
+        body.put("Message", "success");
+        body.put("RequestId", requestId);
+        return body;
+    }
+
+    private static Map<String, Object> error(int code, String message, String errorCode) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("Code", code);
+        body.put("Message", message);
+        body.put("ErrorCode", errorCode);
+        return body;
+    }
+
+    private void count(String key) {
+        counters.computeIfAbsent(key, k -> new LongAdder()).increment();
+    }
+
+    private void evictExpiredTasks() {
+        long now = System.currentTimeMillis();
+        tasks.values().removeIf(task -> task.expiresAtMillis < now);
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 生成一张随机噪点 PNG，噪点几乎无法压缩，文件大小约为 宽 x 高 x 3 字节。
+     */
+    private static byte[] noisePng(int approximateBytes) throws IOException {
+        int side = Math.max(1, (int) Math.sqrt(approximateBytes / 3.0));
+        BufferedImage image = new BufferedImage(side, side, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(42);
+        for (int y = 0; y < side; y++) {
+            for (int x = 0; x < side; x++) {
+                image.setRGB(x, y, random.nextInt(0x1000000));
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(approximateBytes + 1024);
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+
+    private static final class Task {
+        private final long readyAtMillis;
+        private final long expiresAtMillis;
+
+        Task(long readyAtMillis, long expiresAtMillis) {
+            this.readyAtMillis = readyAtMillis;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+
+    /**
+     * 对数正态分布的耗时：中位数为 median，sigma 越大长尾越明显，sigma 为 0 时固定为 median。
+     */
+    private static final class Distribution {
+        private final double medianMillis;
+        private final double sigma;
+
+        Distribution(double medianMillis, double sigma) {
+            this.medianMillis = medianMillis;
+            this.sigma = sigma;
+        }
+
+        long sample() {
+            if (medianMillis <= 0) {
+                return 0;
+            }
+            return Math.round(medianMillis * Math.exp(sigma * ThreadLocalRandom.current().nextGaussian()));
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.pictech.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pictech.client.ImageSource;
+import com.pictech.client.ImageTranslationApiClient;
+import com.pictech.client.PicTechPollProperties;
+import com.pictech.client.PicTechSigner;
+import com.pictech.client.model.SubmitTaskResponse;
+import com.pictech.client.transport.PicTechHttpProperties;
+import com.pictech.client.transport.PicTechTransport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * 提交翻译任务时构建请求体的开销，imageBytes 为上传图片的原始字节数。
+ * - convertFileToBase64: 原 TranslationService#convertFileToBase64 (getBytes + Base64 + data: 前缀)；
+ * - legacyPayload / payload: 原先与当前 executePostRequest 中的参数处理、签名和 JSON 序列化；
+ * - submitBase64 / submitStreaming: 经本地桩服务的完整 /upload 提交路径，
+ *   分别为原先的先转 Base64 再提交，和当前 submitTaskFromFile 的流式提交。
+ *
+ * 运行: mvn -Pjmh test-compile exec:exec -Djmh.args="RequestPayloadBenchmark -prof gc"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RequestPayloadBenchmark {
+
+    private static final String SECRET_KEY = "bench-secret";
+
+    @Param({"102400", "1048576", "5242880"})
+    public int imageBytes;
+
+    private MultipartFile file;
+    private String imageBase64;
+    private ObjectMapper objectMapper;
+    private PicTechSigner signer;
+
+    private StubPicTechServer server;
+    private PicTechTransport transport;
+    private ImageTranslationApiClient client;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Logger.getLogger(ImageTranslationApiClient.class.getName()).setLevel(java.util.logging.Level.WARNING);
+        byte[] image = new byte[imageBytes];
+        new Random(42).nextBytes(image);
+        file = new MockMultipartFile("file", "bench.jpg", "image/jpeg", image);
+        imageBase64 = convertFileToBase64();
+        objectMapper = new ObjectMapper();
+        signer = new PicTechSigner(SECRET_KEY);
+
+        server = new StubPicTechServer(0);
+        transport = PicTechTransport.create(new PicTechHttpProperties());
+        client = new ImageTranslationApiClient(server.baseUrl(), "bench-account", SECRET_KEY,
+                transport, new PicTechPollProperties());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        transport.close();
+        server.close();
+    }
+
+    @Benchmark
+    public String convertFileToBase64() throws IOException {
+        String mimeType = file.getContentType();
+        if (mimeType == null || !mimeType.startsWith("image")) {
+            mimeType = "image/jpeg";
+        }
+        byte[] fileContent = file.getBytes();
+        String encodedString = Base64.getEncoder().encodeToString(fileContent);
+        return "data:" + mimeType + ";base64," + encodedString;
+    }
+
+    /**
+     * 原 executePostRequest：参数复制为 Map&lt;String, String&gt;、拼接签名原文、序列化为 String 后再转字节。
+     */
+    @Benchmark
+    public byte[] legacyPayload() throws Exception {
+        Map<String, Object> payload = newPayload();
+        Map<String, String> paramsForSignature = new HashMap<>();
+        for (Map.Entry<String, Object> entry : payload.entrySet()) {
+            paramsForSignature.put(entry.getKey(), String.valueOf(entry.getValue()));
+        }
+        payload.put("Signature", legacySignature(paramsForSignature));
+        return objectMapper.writeValueAsString(payload).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 当前 executePostRequest：增量签名后直接序列化为字节。
+     */
+    @Benchmark
+    public byte[] payload() throws Exception {
+        Map<String, Object> payload = newPayload();
+        payload.put("Signature", signer.sign(payload));
+        return objectMapper.writeValueAsBytes(payload);
+    }
+
+    @Benchmark
+    public SubmitTaskResponse submitBase64() throws Exception {
+        return client.submitTranslationTaskWithBase64(convertFileToBase64(), "zh", "en");
+    }
+
+    @Benchmark
+    public SubmitTaskResponse submitStreaming() throws Exception {
+        return client.submitTranslationTaskWithImage(ImageSource.of(file, file.getContentType()), "zh", "en");
+    }
+
+    // ===================================================================================
+    // =                          私有辅助方法 (Private Helpers)                         =
+    // ===================================================================================
+
+    private Map<String, Object> newPayload() {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("ImageBase64", imageBase64);
+        payload.put("SourceLanguage", "zh");
+        payload.put("TargetLanguage", "en");
+        payload.put("AccountId", "bench-account");
+        payload.put("Timestamp", "1700000000");
+        return payload;
+    }
+
+    /**
+     * 原 ImageTranslationApiClient#generateSignature 的实现，仅作对比用。
+     */
+    private static String legacySignature(Map<String, String> params) throws Exception {
+        List<Map.Entry<String, String>> sortedEntries = new ArrayList<>();
+        for (Map.Entry<String, String> entry : params.entrySet()) {
+            if (entry.getValue() != null && !entry.getValue().isEmpty()) {
+                sortedEntries.add(entry);
+            }
+        }
+        sortedEntries.sort(Map.Entry.comparingByKey());
+
+        StringBuilder toSign = new StringBuilder();
+        for (int i = 0; i < sortedEntries.size(); i++) {
+            Map.Entry<String, String> entry = sortedEntries.get(i);
+            toSign.append(entry.getKey()).append("=").append(entry.getValue());
+            if (i < sortedEntries.size() - 1) {
+                toSign.append("&");
+            }
+        }
+        toSign.append("&SecretKey=").append(SECRET_KEY);
+
+        Mac hmacSha256 = Mac.getInstance("HmacSHA256");
+        hmacSha256.init(new SecretKeySpec(SECRET_KEY.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        byte[] hash = hmacSha256.doFinal(toSign.toString().getBytes(StandardCharsets.UTF_8));
+        return Base64.getEncoder().encodeToString(hash);
+    }
+}
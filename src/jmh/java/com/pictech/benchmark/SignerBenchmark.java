@@ -0,0 +1,103 @@
+package com.pictech.benchmark;
+
+import com.pictech.client.PicTechSigner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 对比原先的 generateSignature (每次 Mac.getInstance + init，并拼出完整签名原文) 与 {@link PicTechSigner}。
+ * payloadBytes 是图片原始字节数，参与签名的 ImageBase64 约为其 4/3。
+ *
+ * 运行: mvn -Pjmh test-compile exec:exec -Djmh.args="SignerBenchmark -prof gc"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SignerBenchmark {
+
+    private static final String SECRET_KEY = "bench-secret";
+
+    @Param({"102400", "1048576", "5242880"})
+    public int payloadBytes;
+
+    private Map<String, Object> payload;
+    private PicTechSigner signer;
+
+    @Setup
+    public void setUp() {
+        byte[] image = new byte[payloadBytes];
+        new Random(42).nextBytes(image);
+        payload = new HashMap<>();
+        payload.put("ImageBase64", "data:image/jpeg;base64," + Base64.getEncoder().encodeToString(image));
+        payload.put("SourceLanguage", "zh");
+        payload.put("TargetLanguage", "en");
+        payload.put("AccountId", "bench-account");
+        payload.put("Timestamp", "1700000000");
+        signer = new PicTechSigner(SECRET_KEY);
+    }
+
+    @Benchmark
+    public String legacy() throws Exception {
+        Map<String, String> paramsForSignature = new HashMap<>();
+        for (Map.Entry<String, Object> entry : payload.entrySet()) {
+            paramsForSignature.put(entry.getKey(), String.valueOf(entry.getValue()));
+        }
+        return legacySignature(paramsForSignature);
+    }
+
+    @Benchmark
+    public String signer() {
+        return signer.sign(payload);
+    }
+
+    /**
+     * 原 ImageTranslationApiClient#generateSignature 的实现，仅作对比用。
+     */
+    private static String legacySignature(Map<String, String> params) throws Exception {
+        List<Map.Entry<String, String>> sortedEntries = new ArrayList<>();
+        for (Map.Entry<String, String> entry : params.entrySet()) {
+            if (entry.getValue() != null && !entry.getValue().isEmpty()) {
+                sortedEntries.add(entry);
+            }
+        }
+        sortedEntries.sort(Map.Entry.comparingByKey());
+
+        StringBuilder toSign = new StringBuilder();
+        for (int i = 0; i < sortedEntries.size(); i++) {
+            Map.Entry<String, String> entry = sortedEntries.get(i);
+            toSign.append(entry.getKey()).append("=").append(entry.getValue());
+            if (i < sortedEntries.size() - 1) {
+                toSign.append("&");
+            }
+        }
+        toSign.append("&SecretKey=").append(SECRET_KEY);
+
+        Mac hmacSha256 = Mac.getInstance("HmacSHA256");
+        hmacSha256.init(new SecretKeySpec(SECRET_KEY.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        byte[] hash = hmacSha256.doFinal(toSign.toString().getBytes(StandardCharsets.UTF_8));
+        return Base64.getEncoder().encodeToString(hash);
+    }
+}
@@ -0,0 +1,99 @@
+package com.pictech.benchmark;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 基准测试用的本地 PicTech API 桩服务，对任意 POST 返回固定的 JSON 响应，/inpaint_image_sync 返回一张固定的 PNG。
+ * 可以按比例注入长尾延迟，模拟上游偶发的慢请求。
+ */
+public class StubPicTechServer implements AutoCloseable {
+
+    private static final byte[] RESPONSE = "{\"Code\":200,\"Message\":\"success\",\"RequestId\":\"bench\",\"Data\":{}}"
+            .getBytes(StandardCharsets.UTF_8);
+
+    static {
+        // 中文备注：关闭 Nagle 算法，否则响应头和响应体分两次写出时会触发约 40ms 的延迟确认
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private volatile byte[] inpaintImage = new byte[32 * 1024];
+
+    public StubPicTechServer(long latencyMs) throws IOException {
+        this(latencyMs, 0, 0);
+    }
+
+    /**
+     * @param latencyMs     正常请求的处理时间 (毫秒)
+     * @param slowRatio     慢请求的比例 (0~1)
+     * @param slowLatencyMs 慢请求的处理时间 (毫秒)
+     */
+    public StubPicTechServer(long latencyMs, double slowRatio, long slowLatencyMs) throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 512);
+        this.executor = Executors.newFixedThreadPool(64);
+        server.setExecutor(executor);
+        server.createContext("/", exchange -> handle(exchange,
+                ThreadLocalRandom.current().nextDouble() < slowRatio ? slowLatencyMs : latencyMs));
+        server.start();
+    }
+
+    /**
+     * 设置 /inpaint_image_sync 返回的图片内容，默认 32 KB。
+     */
+    public void setInpaintImage(byte[] image) {
+        this.inpaintImage = image;
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    private void handle(HttpExchange exchange, long latencyMs) throws IOException {
+        // 中文备注：读完请求体，保证连接可以被复用
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] buffer = new byte[8192];
+            while (in.read(buffer) != -1) {
+                // 丢弃
+            }
+        }
+        if (latencyMs > 0) {
+            try {
+                Thread.sleep(latencyMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        if ("HEAD".equals(exchange.getRequestMethod())) {
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+            return;
+        }
+        byte[] body = RESPONSE;
+        if (exchange.getRequestURI().getPath().endsWith("/inpaint_image_sync")) {
+            exchange.getResponseHeaders().set("Content-Type", "image/png");
+            body = inpaintImage;
+        }
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,72 @@
+package com.pictech.benchmark;
+
+import com.pictech.client.ImageTranslationApiClient;
+import com.pictech.client.PicTechPollProperties;
+import com.pictech.client.model.TranslationResultResponse;
+import com.pictech.client.transport.PicTechHttpProperties;
+import com.pictech.client.transport.PicTechTransport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 对比两种传输层调用本地桩服务 /query_result 的延迟分布。
+ * SampleTime 模式会输出 p50 / p90 / p99 等分位数，jdk 即原先 new RestTemplate() 所使用的 HttpURLConnection。
+ *
+ * 运行: mvn -Pjmh test-compile exec:exec -Djmh.args="TransportBenchmark"
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(16)
+@State(Scope.Benchmark)
+public class TransportBenchmark {
+
+    @Param({"jdk", "okhttp"})
+    public String transport;
+
+    /** 桩服务的模拟处理时间 (毫秒) */
+    @Param({"0", "5"})
+    public long latencyMs;
+
+    private StubPicTechServer server;
+    private PicTechTransport picTechTransport;
+    private ImageTranslationApiClient client;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        server = new StubPicTechServer(latencyMs);
+        PicTechHttpProperties properties = new PicTechHttpProperties();
+        properties.setTransport(transport);
+        picTechTransport = PicTechTransport.create(properties);
+        client = new ImageTranslationApiClient(server.baseUrl(), "bench-account", "bench-secret",
+                picTechTransport, new PicTechPollProperties());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        picTechTransport.close();
+        server.close();
+    }
+
+    @Benchmark
+    public TranslationResultResponse queryResult() throws Exception {
+        return client.queryTranslationTaskResult("bench-request");
+    }
+}
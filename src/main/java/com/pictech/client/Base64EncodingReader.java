@@ -0,0 +1,88 @@
+package com.pictech.client;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * 把字节输入流边读边编码成 Base64 字符的 Reader，每次只在内存中保留一个固定大小的缓冲区。
+ * 编码出的字符同时送入签名会话，使签名和请求体写出在同一次读取中完成。
+ */
+class Base64EncodingReader extends Reader {
+
+    // 中文备注：按 3 字节的整数倍读取，保证每一块都能独立编码且中间不会出现填充字符
+    private static final int RAW_CHUNK = 3 * 16 * 1024;
+
+    private final InputStream in;
+    private final PicTechSigner.Session signature;
+    private final byte[] raw = new byte[RAW_CHUNK];
+    private final byte[] encoded = new byte[RAW_CHUNK / 3 * 4];
+    private int encodedLength;
+    private int encodedPosition;
+    private boolean eof;
+    private long totalRawBytes;
+
+    /**
+     * @param prefix 输出在 Base64 内容之前的文本 (例如 Data URL 前缀)，可以为空字符串
+     */
+    Base64EncodingReader(InputStream in, String prefix, PicTechSigner.Session signature) {
+        this.in = in;
+        this.signature = signature;
+        byte[] prefixBytes = prefix.getBytes(StandardCharsets.US_ASCII);
+        System.arraycopy(prefixBytes, 0, encoded, 0, prefixBytes.length);
+        this.encodedLength = prefixBytes.length;
+        signature.update(prefixBytes, 0, prefixBytes.length);
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) throws IOException {
+        if (encodedPosition == encodedLength && !fill()) {
+            return -1;
+        }
+        int count = Math.min(len, encodedLength - encodedPosition);
+        for (int i = 0; i < count; i++) {
+            cbuf[off + i] = (char) encoded[encodedPosition + i];
+        }
+        encodedPosition += count;
+        return count;
+    }
+
+    /**
+     * @return 已经读取并编码的原始字节数
+     */
+    long getTotalRawBytes() {
+        return totalRawBytes;
+    }
+
+    private boolean fill() throws IOException {
+        if (eof) {
+            return false;
+        }
+        int filled = 0;
+        while (filled < raw.length) {
+            int read = in.read(raw, filled, raw.length - filled);
+            if (read == -1) {
+                eof = true;
+                break;
+            }
+            filled += read;
+        }
+        if (filled == 0) {
+            return false;
+        }
+        totalRawBytes += filled;
+        byte[] chunk = filled == raw.length ? raw : Arrays.copyOf(raw, filled);
+        encodedLength = Base64.getEncoder().encode(chunk, encoded);
+        encodedPosition = 0;
+        signature.update(encoded, 0, encodedLength);
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
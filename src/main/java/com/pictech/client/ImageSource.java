@@ -0,0 +1,65 @@
+package com.pictech.client;
+
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.InputStreamSource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * 待上传图片的数据来源。
+ * 客户端在写请求体时才打开输入流并边读边做 Base64 编码，图片内容不会以 byte[] 或 String 的形式整体驻留在内存中。
+ * openStream() 可能被调用多次 (例如连接失败后重试)，每次都应返回一个新的输入流。
+ */
+public interface ImageSource {
+
+    /**
+     * @return 新打开的图片字节流，由调用方负责关闭
+     */
+    InputStream openStream() throws IOException;
+
+    /**
+     * @return 图片的 MIME 类型，无法识别时返回 image/jpeg
+     */
+    String mimeType();
+
+    /**
+     * 以本地文件作为图片来源。
+     */
+    static ImageSource ofPath(Path path) throws IOException {
+        return of(() -> Files.newInputStream(path), Files.probeContentType(path));
+    }
+
+    /**
+     * 以任意可重复打开的输入流 (例如 MultipartFile) 作为图片来源。
+     *
+     * @param source   输入流来源
+     * @param mimeType MIME 类型，为空或不是图片类型时按 image/jpeg 处理
+     */
+    static ImageSource of(InputStreamSource source, String mimeType) {
+        String resolvedMimeType = mimeType == null || !mimeType.startsWith("image") ? "image/jpeg" : mimeType;
+        return new ImageSource() {
+            @Override
+            public InputStream openStream() throws IOException {
+                return source.getInputStream();
+            }
+
+            @Override
+            public String mimeType() {
+                return resolvedMimeType;
+            }
+        };
+    }
+
+    /**
+     * 以内存中的图片字节作为图片来源，可以重复读取 (例如上游调用失败后重发或对冲请求)。
+     *
+     * @param bytes    图片的原始字节 (不是 Base64)
+     * @param mimeType MIME 类型，为空或不是图片类型时按 image/jpeg 处理
+     */
+    static ImageSource ofBytes(byte[] bytes, String mimeType) {
+        return of(new ByteArrayResource(bytes), mimeType);
+    }
+}
@@ -0,0 +1,202 @@
+package com.pictech.client;
+
+import com.pictech.client.model.PicTechResponse;
+import com.pictech.client.model.RemoveBackgroundResultResponse;
+import com.pictech.client.model.SubmitTaskResponse;
+import com.pictech.client.model.TranslationResultResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * PicTech API 异步客户端
+ * 在 {@link ImageTranslationApiClient} 之上提供返回 {@link CompletableFuture} 的非阻塞接口。
+ * HTTP 调用在一个小的 I/O 线程池上执行；处理中任务的轮询统一由 {@link TaskCompletionPoller} 调度，
+ * 等待期间不占用任何线程，因此少量线程即可同时维持成千上万个处理中的上游任务。
+ * 轮询器的结果查询使用单独的查询线程池，不会排在耗时的提交、上传后面，完成通知和 SSE 推送不受上传流量影响。
+ */
+@Component
+public class ImageTranslationApiAsyncClient implements AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(ImageTranslationApiAsyncClient.class.getName());
+
+    private final ImageTranslationApiClient client;
+    private final ExecutorService ioExecutor;
+    private final ExecutorService queryExecutor;
+    private final TaskCompletionPoller completionPoller;
+
+    /**
+     * 构造函数，通过 Spring 依赖注入初始化。
+     *
+     * @param client    阻塞式客户端
+     * @param ioThreads    执行 HTTP 调用的 I/O 线程数
+     * @param queryThreads 执行轮询器结果查询的线程数
+     */
+    @Autowired
+    public ImageTranslationApiAsyncClient(ImageTranslationApiClient client,
+                                          @Value("${pictech.api.async.io-threads:8}") int ioThreads,
+                                          @Value("${pictech.api.async.query-threads:4}") int queryThreads) {
+        this.client = client;
+        this.ioExecutor = Executors.newFixedThreadPool(ioThreads, namedDaemonThreads("pictech-io"));
+        this.queryExecutor = Executors.newFixedThreadPool(queryThreads, namedDaemonThreads("pictech-query"));
+        this.completionPoller = new TaskCompletionPoller(this::queryAsync, client.getPollProperties(), client.getMetrics());
+    }
+
+    // ===================================================================================
+    // =                            图片翻译功能 (Image Translation)                       =
+    // ===================================================================================
+
+    /**
+     * 异步提交基于图片 URL 的翻译任务。
+     */
+    public CompletableFuture<SubmitTaskResponse> submitTranslationTaskWithUrlAsync(String imageUrl, String sourceLanguage, String targetLanguage) {
+        return supplyAsync(() -> client.submitTranslationTaskWithUrl(imageUrl, sourceLanguage, targetLanguage));
+    }
+
+    /**
+     * 异步提交基于 Base64 编码图片的翻译任务。
+     */
+    public CompletableFuture<SubmitTaskResponse> submitTranslationTaskWithBase64Async(String imageBase64, String sourceLanguage, String targetLanguage) {
+        return supplyAsync(() -> client.submitTranslationTaskWithBase64(imageBase64, sourceLanguage, targetLanguage));
+    }
+
+    /**
+     * 异步以流式方式提交图片翻译任务。
+     */
+    public CompletableFuture<SubmitTaskResponse> submitTranslationTaskWithImageAsync(ImageSource image, String sourceLanguage, String targetLanguage) {
+        return supplyAsync(() -> client.submitTranslationTaskWithImage(image, sourceLanguage, targetLanguage));
+    }
+
+    /**
+     * 异步查询翻译任务结果。
+     */
+    public CompletableFuture<TranslationResultResponse> queryTranslationTaskResultAsync(String requestId) {
+        return supplyAsync(() -> client.queryTranslationTaskResult(requestId));
+    }
+
+    // ===================================================================================
+    // =                        图片修复与背景移除 (Inpaint / Removal)                      =
+    // ===================================================================================
+
+    /**
+     * 异步执行同步图片修复。
+     */
+    public CompletableFuture<byte[]> inpaintImageSyncAsync(String sourceImageBase64, String maskImageBase64) {
+        return supplyAsync(() -> client.inpaintImageSync(sourceImageBase64, maskImageBase64));
+    }
+
+    /**
+     * 异步查询抠图任务结果。
+     */
+    public CompletableFuture<RemoveBackgroundResultResponse> queryRemoveBackgroundTaskResultAsync(String requestId) {
+        return supplyAsync(() -> client.queryRemoveBackgroundTaskResult(requestId));
+    }
+
+    /**
+     * {@link ImageTranslationApiClient#removeBackground} 的异步版本：提交、轮询、下载并保存结果图片。
+     * 轮询交给共享的 {@link TaskCompletionPoller}，等待期间不会占用线程。
+     *
+     * @return 完成时给出是否成功保存结果图片，网络等异常以异常方式完成
+     */
+    public CompletableFuture<Boolean> removeBackgroundAsync(String imagePath, String imageUrl, String outputDir, String outputFilename) {
+        long startTime = System.currentTimeMillis();
+        return supplyAsync(() -> client.submitRemoveBackgroundTask(imagePath, imageUrl))
+                .thenCompose(requestId -> {
+                    if (requestId == null) {
+                        return CompletableFuture.completedFuture(false);
+                    }
+                    return completionPoller.track(TaskType.BACKGROUND_REMOVAL, requestId).handleAsync((result, error) -> {
+                        if (error != null) {
+                            // 中文备注：超时或查询持续失败，原因已由轮询器记录日志
+                            return false;
+                        }
+                        boolean saved = client.saveRemoveBackgroundResult(requestId,
+                                (RemoveBackgroundResultResponse) result, outputDir, outputFilename);
+                        if (saved) {
+                            LOGGER.info(String.format("任务总耗时: %.2f 秒", (System.currentTimeMillis() - startTime) / 1000.0));
+                        }
+                        return saved;
+                    }, ioExecutor);
+                });
+    }
+
+    /**
+     * @return 共享的任务完成轮询器
+     */
+    public TaskCompletionPoller getCompletionPoller() {
+        return completionPoller;
+    }
+
+    // ===================================================================================
+    // =                          私有辅助方法 (Private Helpers)                         =
+    // ===================================================================================
+
+    /**
+     * 供轮询器使用：按任务类型在查询线程池中发起一次异步结果查询。
+     * 轮询器对每个任务同时只有一次查询，队列长度不超过处理中的任务数。
+     */
+    private CompletableFuture<? extends PicTechResponse> queryAsync(TaskType type, String requestId) {
+        return type == TaskType.BACKGROUND_REMOVAL
+                ? supplyAsync(() -> client.queryRemoveBackgroundTaskResult(requestId), queryExecutor)
+                : supplyAsync(() -> client.queryTranslationTaskResult(requestId), queryExecutor);
+    }
+
+    /**
+     * 在 I/O 线程池上执行阻塞调用。取消返回的 future 时中断执行中的 I/O 线程，
+     * 正在读写套接字的上游调用随之以 InterruptedIOException 中止，不再继续占用线程和上游并发许可。
+     */
+    private <T> CompletableFuture<T> supplyAsync(BlockingCall<T> call) {
+        return supplyAsync(call, ioExecutor);
+    }
+
+    private <T> CompletableFuture<T> supplyAsync(BlockingCall<T> call, ExecutorService executor) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Future<?> task = executor.submit(() -> {
+            try {
+                future.complete(call.call());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        });
+        future.whenComplete((result, error) -> {
+            if (future.isCancelled()) {
+                task.cancel(true);
+            }
+        });
+        return future;
+    }
+
+    private static ThreadFactory namedDaemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @PreDestroy
+    @Override
+    public void close() {
+        completionPoller.close();
+        ioExecutor.shutdown();
+        queryExecutor.shutdown();
+    }
+
+    /**
+     * 阻塞式客户端方法统一声明了 throws Exception，这里用于把它们包装进 CompletableFuture。
+     */
+    @FunctionalInterface
+    private interface BlockingCall<T> {
+        T call() throws Exception;
+    }
+}
@@ -2,22 +2,49 @@ package com.pictech.client;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.pictech.client.hedge.HedgedRequestExecutor;
+import com.pictech.client.hedge.PicTechHedgeProperties;
+import com.pictech.client.limit.AdaptiveConcurrencyLimiter;
+import com.pictech.client.limit.EndpointConcurrencyLimits;
+import com.pictech.client.limit.PicTechLimitProperties;
+import com.pictech.client.model.PicTechResponse;
+import com.pictech.client.model.RemoveBackgroundResultResponse;
+import com.pictech.client.model.SubmitTaskResponse;
+import com.pictech.client.model.TranslationResultResponse;
+import com.pictech.client.transport.EndpointProfile;
+import com.pictech.client.transport.PicTechHttpProperties;
+import com.pictech.client.transport.PicTechTransport;
+import com.pictech.client.transport.RequestBody;
+import com.pictech.client.transport.ResponseHandler;
+import com.pictech.client.transport.StreamingResponse;
+import com.pictech.client.transport.TransportRequest;
+import com.pictech.client.transport.TransportResponse;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.*;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
-import org.springframework.web.client.HttpClientErrorException;
-import org.springframework.web.client.RestClientException;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.util.StreamUtils;
 
-import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
+import javax.annotation.PreDestroy;
+import java.io.Closeable;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.security.InvalidKeyException;
-import java.security.NoSuchAlgorithmException;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.*;
@@ -31,7 +58,7 @@ import java.util.logging.Logger;
  * 并处理图片翻译和背景移除任务。
  */
 @Component
-public class ImageTranslationApiClient {
+public class ImageTranslationApiClient implements AutoCloseable {
 
     // --- 日志配置 ---
     private static final Logger LOGGER = Logger.getLogger(ImageTranslationApiClient.class.getName());
@@ -55,10 +82,31 @@ public class ImageTranslationApiClient {
     private final String apiKey;
     private final String secretKey;
 
+    // --- 请求签名 (每个线程复用已初始化的 Mac) ---
+    private final PicTechSigner signer;
+
     // --- HTTP 和 JSON 工具 ---
-    private final RestTemplate restTemplate;
+    private final PicTechTransport transport;
     private final ObjectMapper objectMapper;
 
+    // --- 预先构建的响应解析器 (ObjectReader 线程安全，可复用) ---
+    private final ObjectReader submitReader;
+    private final ObjectReader translationResultReader;
+    private final ObjectReader removeBackgroundResultReader;
+    private final ObjectReader errorReader;
+
+    // --- 任务轮询策略 (最多查询次数、查询间隔等) ---
+    private final PicTechPollProperties pollProperties;
+
+    // --- 按端点自适应调整的上游并发限制 ---
+    private final EndpointConcurrencyLimits concurrencyLimits;
+
+    // 中文备注：同步图片修复的对冲请求执行器，未启用对冲时为 null
+    private final HedgedRequestExecutor inpaintHedging;
+
+    // 中文备注：调用耗时、请求体大小、返回码等指标
+    private final PicTechMetrics metrics;
+
     // --- API 端点常量 (清晰分离不同功能) ---
     private static final String TRANSLATION_SUBMIT_ENDPOINT = "/submit_task";
     private static final String TRANSLATION_QUERY_ENDPOINT = "/query_result";
@@ -66,22 +114,122 @@ public class ImageTranslationApiClient {
     private static final String BG_REMOVAL_QUERY_ENDPOINT = "/query_remove_background_result";
     private static final String INPAINT_SYNC_ENDPOINT = "/inpaint_image_sync";
 
+    // --- 下载时的分块大小 ---
+    private static final long TRANSFER_CHUNK_SIZE = 1024 * 1024;
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * 构造函数，使用默认配置的 OkHttp 传输层，供非 Spring 环境 (例如 demo) 直接使用。
+     *
+     * @param apiBaseUrl API 基础 URL
+     * @param apiKey     API Key
+     * @param secretKey  API Secret
+     */
+    public ImageTranslationApiClient(String apiBaseUrl, String apiKey, String secretKey) {
+        this(apiBaseUrl, apiKey, secretKey, PicTechTransport.create(new PicTechHttpProperties()), new PicTechPollProperties());
+    }
+
+    /**
+     * 构造函数，使用默认的并发限制配置。
+     */
+    public ImageTranslationApiClient(String apiBaseUrl, String apiKey, String secretKey,
+                                     PicTechTransport transport, PicTechPollProperties pollProperties) {
+        this(apiBaseUrl, apiKey, secretKey, transport, pollProperties, new PicTechLimitProperties());
+    }
+
+    /**
+     * 构造函数，不启用对冲请求。
+     */
+    public ImageTranslationApiClient(String apiBaseUrl, String apiKey, String secretKey, PicTechTransport transport,
+                                     PicTechPollProperties pollProperties, PicTechLimitProperties limitProperties) {
+        this(apiBaseUrl, apiKey, secretKey, transport, pollProperties, limitProperties, new PicTechHedgeProperties());
+    }
+
+    /**
+     * 构造函数，指标记录到 Micrometer 的全局注册表。
+     */
+    public ImageTranslationApiClient(String apiBaseUrl, String apiKey, String secretKey, PicTechTransport transport,
+                                     PicTechPollProperties pollProperties, PicTechLimitProperties limitProperties,
+                                     PicTechHedgeProperties hedgeProperties) {
+        this(apiBaseUrl, apiKey, secretKey, transport, pollProperties, limitProperties, hedgeProperties,
+                new PicTechMetrics(Metrics.globalRegistry));
+    }
+
     /**
      * 构造函数，通过 Spring 依赖注入初始化配置和工具。
      *
      * @param apiBaseUrl API 基础 URL
      * @param apiKey     API Key
      * @param secretKey  API Secret
+     * @param transport  HTTP 传输层 (连接池、超时等由 pictech.api.http.* 配置)
+     * @param pollProperties 任务轮询策略 (由 pictech.api.poll.* 配置)
+     * @param limitProperties 上游并发限制 (由 pictech.api.limit.* 配置)
+     * @param hedgeProperties 同步图片修复的对冲请求 (由 pictech.api.hedge.* 配置)
+     * @param metrics         客户端指标
      */
+    @Autowired
     public ImageTranslationApiClient(
             @Value("${pictech.api.base-url}") String apiBaseUrl,
             @Value("${pictech.api.key}") String apiKey,
-            @Value("${pictech.api.secret}") String secretKey) {
+            @Value("${pictech.api.secret}") String secretKey,
+            PicTechTransport transport,
+            PicTechPollProperties pollProperties,
+            PicTechLimitProperties limitProperties,
+            PicTechHedgeProperties hedgeProperties,
+            PicTechMetrics metrics) {
         this.apiBaseUrl = apiBaseUrl;
         this.apiKey = apiKey;
         this.secretKey = secretKey;
-        this.restTemplate = new RestTemplate();
+        this.signer = new PicTechSigner(secretKey);
+        this.transport = transport;
+        this.pollProperties = pollProperties;
+        this.concurrencyLimits = new EndpointConcurrencyLimits(limitProperties);
+        this.metrics = metrics;
+        this.inpaintHedging = hedgeProperties.isEnabled() ? new HedgedRequestExecutor(transport, hedgeProperties) : null;
         this.objectMapper = new ObjectMapper();
+        this.submitReader = objectMapper.readerFor(SubmitTaskResponse.class);
+        this.translationResultReader = objectMapper.readerFor(TranslationResultResponse.class);
+        this.removeBackgroundResultReader = objectMapper.readerFor(RemoveBackgroundResultResponse.class);
+        this.errorReader = objectMapper.readerFor(PicTechResponse.class);
+    }
+
+    /**
+     * @return 任务轮询策略
+     */
+    public PicTechPollProperties getPollProperties() {
+        return pollProperties;
+    }
+
+    /**
+     * @return 各端点的并发限制器 (当前上限、并发数、排队数等)
+     */
+    public EndpointConcurrencyLimits getConcurrencyLimits() {
+        return concurrencyLimits;
+    }
+
+    /**
+     * @return 同步图片修复的对冲请求执行器 (对冲延迟、对冲次数等)，未启用对冲时返回 null
+     */
+    public HedgedRequestExecutor getInpaintHedging() {
+        return inpaintHedging;
+    }
+
+    /**
+     * 停止对冲请求使用的线程；传输层由创建方负责关闭。
+     */
+    @PreDestroy
+    @Override
+    public void close() {
+        if (inpaintHedging != null) {
+            inpaintHedging.close();
+        }
+    }
+
+    /**
+     * @return 客户端指标
+     */
+    public PicTechMetrics getMetrics() {
+        return metrics;
     }
 
     // ===================================================================================
@@ -96,12 +244,12 @@ public class ImageTranslationApiClient {
      * @param targetLanguage 目标语言代码 (例如 "es", "ja")
      * @return API 返回的响应体
      */
-    public Map<String, Object> submitTranslationTaskWithUrl(String imageUrl, String sourceLanguage, String targetLanguage) throws Exception {
+    public SubmitTaskResponse submitTranslationTaskWithUrl(String imageUrl, String sourceLanguage, String targetLanguage) throws Exception {
         Map<String, Object> payload = new HashMap<>();
         payload.put("ImageUrl", imageUrl);
         payload.put("SourceLanguage", sourceLanguage);
         payload.put("TargetLanguage", targetLanguage);
-        return executePostRequest(TRANSLATION_SUBMIT_ENDPOINT, payload);
+        return executePostRequest(TRANSLATION_SUBMIT_ENDPOINT, payload, submitReader);
     }
 
     /**
@@ -112,14 +260,32 @@ public class ImageTranslationApiClient {
      * @param targetLanguage 目标语言代码
      * @return API 返回的响应体
      */
-    public Map<String, Object> submitTranslationTaskWithBase64(String imageBase64, String sourceLanguage, String targetLanguage) throws Exception {
+    public SubmitTaskResponse submitTranslationTaskWithBase64(String imageBase64, String sourceLanguage, String targetLanguage) throws Exception {
         Map<String, Object> payload = new HashMap<>();
         payload.put("ImageBase64", imageBase64);
         payload.put("SourceLanguage", sourceLanguage);
         payload.put("TargetLanguage", targetLanguage);
         // 根据文档，翻译任务可能需要指定 OutputType，这里假设为1
 //        payload.put("OutputType", 1);
-        return executePostRequest(TRANSLATION_SUBMIT_ENDPOINT, payload);
+        return executePostRequest(TRANSLATION_SUBMIT_ENDPOINT, payload, submitReader);
+    }
+
+    /**
+     * 以流式方式提交图片翻译任务。
+     * 图片在写请求体时才从 image 中读取，边读边编码为 Data URL 形式的 Base64 直接写入连接，
+     * 图片内容不会以 byte[] 或 String 的形式整体驻留在内存中。
+     *
+     * @param image          图片来源 (本地文件、上传文件等)
+     * @param sourceLanguage 源语言代码
+     * @param targetLanguage 目标语言代码
+     * @return API 返回的响应体
+     */
+    public SubmitTaskResponse submitTranslationTaskWithImage(ImageSource image, String sourceLanguage, String targetLanguage) throws Exception {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("SourceLanguage", sourceLanguage);
+        payload.put("TargetLanguage", targetLanguage);
+        return executeStreamingPostRequest(TRANSLATION_SUBMIT_ENDPOINT, payload,
+                "ImageBase64", image, "data:" + image.mimeType() + ";base64,", submitReader);
     }
 
     /**
@@ -128,10 +294,10 @@ public class ImageTranslationApiClient {
      * @param requestId 提交任务时获取的任务 ID
      * @return API 返回的响应体
      */
-    public Map<String, Object> queryTranslationTaskResult(String requestId) throws Exception {
+    public TranslationResultResponse queryTranslationTaskResult(String requestId) throws Exception {
         Map<String, Object> payload = new HashMap<>();
         payload.put("RequestId", requestId);
-        return executePostRequest(TRANSLATION_QUERY_ENDPOINT, payload);
+        return executePostRequest(TRANSLATION_QUERY_ENDPOINT, payload, translationResultReader);
     }
 
 
@@ -142,6 +308,7 @@ public class ImageTranslationApiClient {
     /**
      * 执行抠图任务的高级封装方法。
      * 自动完成提交、轮询查询、下载并保存结果图片的整个流程。
+     * 轮询期间会阻塞调用线程，需要大量并发时请使用 {@link ImageTranslationApiAsyncClient#removeBackgroundAsync}。
      *
      * @param imagePath      本地图片路径 (与 imageUrl 二选一)
      * @param imageUrl       图片 URL (与 imagePath 二选一)
@@ -151,96 +318,181 @@ public class ImageTranslationApiClient {
      */
     public boolean removeBackground(String imagePath, String imageUrl, String outputDir, String outputFilename) throws Exception {
         long startTime = System.currentTimeMillis();
+        long startNanos = System.nanoTime();
 
-        // --- 1. 准备请求参数 (Base64 或 URL) ---
-        String imageBase64 = null;
-        if (imagePath != null && !imagePath.isEmpty()) {
-            imageBase64 = readImageAsBase64(imagePath);
-            if (imageBase64 == null) {
-                LOGGER.severe("从路径读取图片并转换为 Base64 失败: " + imagePath);
+        // --- 1. 提交抠图任务 ---
+        String requestId = submitRemoveBackgroundTask(imagePath, imageUrl);
+        if (requestId == null) {
+            return false;
+        }
+
+        // --- 2. 按轮询策略查询结果 ---
+        // 中文备注：提交后立即查询第一次，之后按策略的间隔重试
+        PollPolicy policy = pollProperties.policyFor(TaskType.BACKGROUND_REMOVAL);
+        for (int attempt = 1; attempt <= policy.getMaxAttempts(); attempt++) {
+            metrics.recordPollAttempt(TaskType.BACKGROUND_REMOVAL);
+            RemoveBackgroundResultResponse result = queryRemoveBackgroundTaskResult(requestId);
+            if (result == null) {
+                LOGGER.severe("查询任务 " + requestId + " 失败: 无响应。");
+                metrics.recordTaskCompletion(TaskType.BACKGROUND_REMOVAL, "failed", System.nanoTime() - startNanos, attempt);
                 return false;
             }
+
+            if (LOGGER.isLoggable(Level.FINE)) {
+                LOGGER.fine("查询响应 (第 " + attempt + " 次): " + objectMapper.writeValueAsString(result));
+            }
+
+            if (result.isProcessing()) { // 任务处理中
+                long intervalMs = policy.delayMillis(attempt + 1);
+                LOGGER.info("任务 " + requestId + " 仍在处理中，" + (intervalMs / 1000.0) + "秒后重试 (尝试 " + attempt + "/" + policy.getMaxAttempts() + ")");
+                Thread.sleep(intervalMs);
+                continue;
+            }
+
+            // --- 3. 任务结束，下载并保存图片 ---
+            metrics.recordTaskCompletion(TaskType.BACKGROUND_REMOVAL, PicTechMetrics.outcomeOf(result), System.nanoTime() - startNanos, attempt);
+            boolean saved = saveRemoveBackgroundResult(requestId, result, outputDir, outputFilename);
+            if (saved) {
+                LOGGER.info(String.format("任务总耗时: %.2f 秒", (System.currentTimeMillis() - startTime) / 1000.0));
+            }
+            return saved;
+        }
+
+        LOGGER.severe("任务 " + requestId + " 在 " + policy.getMaxAttempts() + " 次尝试后仍未完成，已超时。");
+        metrics.recordTaskCompletion(TaskType.BACKGROUND_REMOVAL, "timeout", System.nanoTime() - startNanos, policy.getMaxAttempts());
+        return false;
+    }
+
+    /**
+     * 提交抠图任务。
+     *
+     * @param imagePath 本地图片路径 (与 imageUrl 二选一)
+     * @param imageUrl  图片 URL (与 imagePath 二选一)
+     * @return 任务 ID，提交失败时返回 null (失败原因已记录日志)
+     */
+    public String submitRemoveBackgroundTask(String imagePath, String imageUrl) throws Exception {
+        // --- 1. 准备请求参数 (本地图片或 URL) ---
+        ImageSource image = null;
+        if (imagePath != null && !imagePath.isEmpty()) {
+            Path path = Paths.get(imagePath);
+            if (!Files.exists(path)) {
+                LOGGER.severe("文件未找到: " + imagePath);
+                return null;
+            }
+            image = ImageSource.ofPath(path);
         }
 
         Map<String, Object> payload = new HashMap<>();
         payload.put("BgColor","white");
-        if (imageBase64 != null) {
-            payload.put("ImageBase64", imageBase64.substring(imageBase64.indexOf(',') + 1)); // 移除 Data URL 前缀
-        } else if (imageUrl != null && !imageUrl.isEmpty()) {
+        if (image == null) {
+            if (imageUrl == null || imageUrl.isEmpty()) {
+                LOGGER.severe("必须提供本地图片路径(imagePath)或图片URL(imageUrl)中的一个！");
+                return null;
+            }
             payload.put("ImageUrl", imageUrl);
-        } else {
-            LOGGER.severe("必须提供本地图片路径(imagePath)或图片URL(imageUrl)中的一个！");
-            return false;
         }
 
         // --- 2. 提交抠图任务 ---
         LOGGER.info("正在提交抠图任务...");
-        Map<String, Object> submitResponse = executePostRequest(BG_REMOVAL_SUBMIT_ENDPOINT, payload);
-        if (submitResponse == null || !submitResponse.getOrDefault("Code", -1).equals(200)) {
-            String errorMessage = submitResponse != null ? submitResponse.get("Message").toString() : "无响应";
+        // 中文备注：本地图片以流式方式编码为不带 Data URL 前缀的 Base64 写入请求体
+        SubmitTaskResponse submitResponse = image != null
+                ? executeStreamingPostRequest(BG_REMOVAL_SUBMIT_ENDPOINT, payload, "ImageBase64", image, "", submitReader)
+                : executePostRequest(BG_REMOVAL_SUBMIT_ENDPOINT, payload, submitReader);
+        if (submitResponse == null || !submitResponse.isSuccess()) {
+            String errorMessage = submitResponse != null ? submitResponse.getMessage() : "无响应";
             LOGGER.severe("抠图任务提交失败: " + errorMessage);
-            return false;
+            return null;
         }
 
-        String requestId = (String) submitResponse.get("RequestId");
+        String requestId = submitResponse.getRequestId();
         LOGGER.info("任务提交成功, RequestId: " + requestId);
-        LOGGER.fine("提交任务响应详情: " + objectMapper.writeValueAsString(submitResponse));
+        if (LOGGER.isLoggable(Level.FINE)) {
+            LOGGER.fine("提交任务响应详情: " + objectMapper.writeValueAsString(submitResponse));
+        }
+        return requestId;
+    }
 
-        // --- 3. 轮询查询结果 ---
-        int maxAttempts = 15; // 最多尝试15次
-        long intervalMs = 1500; // 初始查询间隔1.5秒
+    /**
+     * 处理已经结束 (Code 不为 202) 的抠图查询结果：成功时下载结果图片并保存到输出目录。
+     *
+     * @param requestId      任务 ID，仅用于日志
+     * @param result         查询接口返回的响应体
+     * @param outputDir      输出目录
+     * @param outputFilename 输出文件名
+     * @return 是否成功保存结果图片
+     */
+    public boolean saveRemoveBackgroundResult(String requestId, RemoveBackgroundResultResponse result, String outputDir, String outputFilename) {
+        if (!result.isSuccess()) { // 任务失败
+            String errorMessage = result.getMessage() + ", ErrorCode: " + result.getErrorCode();
+            LOGGER.severe("任务 " + requestId + " 处理失败: " + errorMessage);
+            return false;
+        }
 
-        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
-            Map<String, Object> result = queryRemoveBackgroundTaskResult(requestId);
-            if (result == null) {
-                LOGGER.severe("查询任务 " + requestId + " 失败: 无响应。");
-                return false;
-            }
+        String outputUrl = result.getOutputUrl();
+        if (outputUrl == null) {
+            LOGGER.severe("任务成功，但响应中未找到有效的输出URL (OutputUrl)。");
+            return false;
+        }
 
-            LOGGER.fine("查询响应 (第 " + attempt + " 次): " + objectMapper.writeValueAsString(result));
-            int code = ((Number) result.getOrDefault("Code", -1)).intValue();
+        LOGGER.info("任务处理成功，结果图片URL: " + outputUrl);
 
-            if (code == 200) { // 任务成功
-                Map<String, Object> data = (Map<String, Object>) result.get("Data");
-                if (data == null || !data.containsKey("OutputUrl")) {
-                    LOGGER.severe("任务成功，但响应中未找到有效的输出URL (OutputUrl)。");
-                    return false;
-                }
+        // --- 下载并保存图片 ---
+        try {
+            Path outputPath = downloadToFile(outputUrl, Paths.get(outputDir, outputFilename));
+            LOGGER.info("图片已成功保存到: " + outputPath);
+            return true;
+        } catch (IOException e) {
+            LOGGER.severe("下载或保存图片失败: " + e.getMessage());
+            return false;
+        }
+    }
 
-                String outputUrl = (String) data.get("OutputUrl");
-                LOGGER.info("任务处理成功，结果图片URL: " + outputUrl);
+    /**
+     * 把结果图片流式下载到目标文件。
+     * 响应体经 FileChannel 直接写入同目录下的临时文件，完成后再原子地重命名为目标文件，
+     * 图片不会整体驻留在堆上，下载中断也不会留下不完整的目标文件。
+     *
+     * @param imageUrl 图片 URL (例如抠图结果的 OutputUrl)
+     * @param target   目标文件，已存在时会被替换
+     * @return 目标文件路径
+     * @throws IOException 下载失败、内容为空或写入失败
+     */
+    public Path downloadToFile(String imageUrl, Path target) throws IOException {
+        return writeFileAtomically(target, "从 " + imageUrl + " 下载图片失败，得到空内容。",
+                channel -> download(imageUrl, response -> transferTo(response.body(), channel)));
+    }
 
-                // --- 4. 下载并保存图片 ---
-                try {
-                    Path outputPath = Paths.get(outputDir, outputFilename);
-                    Files.createDirectories(outputPath.getParent()); // 确保目录存在
-                    byte[] imageBytes = restTemplate.getForObject(outputUrl, byte[].class);
-                    if (imageBytes == null) {
-                        LOGGER.severe("从 " + outputUrl + " 下载图片失败，得到空内容。");
-                        return false;
-                    }
-                    Files.write(outputPath, imageBytes);
-                    long endTime = System.currentTimeMillis();
-                    double duration = (endTime - startTime) / 1000.0;
-                    LOGGER.info("图片已成功保存到: " + outputPath);
-                    LOGGER.info(String.format("任务总耗时: %.2f 秒", duration));
-                    return true;
-                } catch (IOException | RestClientException e) {
-                    LOGGER.severe("下载或保存图片失败: " + e.getMessage());
-                    return false;
-                }
-            } else if (code == 202) { // 任务处理中
-                LOGGER.info("任务 " + requestId + " 仍在处理中，" + (intervalMs / 1000.0) + "秒后重试 (尝试 " + attempt + "/" + maxAttempts + ")");
-                Thread.sleep(intervalMs);
-            } else { // 任务失败
-                String errorMessage = result.get("Message") + ", ErrorCode: " + result.get("ErrorCode");
-                LOGGER.severe("任务 " + requestId + " 处理失败: " + errorMessage);
-                return false;
-            }
-        }
+    /**
+     * 把结果图片流式写入调用方提供的通道，不在内存中缓存整张图片。
+     *
+     * @return 写入的字节数
+     */
+    public long downloadTo(String imageUrl, WritableByteChannel target) throws IOException {
+        return download(imageUrl, response -> transferTo(response.body(), target));
+    }
 
-        LOGGER.severe("任务 " + requestId + " 在 " + maxAttempts + " 次尝试后仍未完成，已超时。");
-        return false;
+    /**
+     * 把结果图片流式写入调用方提供的输出流 (例如 HttpServletResponse 的输出流)。
+     *
+     * @return 写入的字节数
+     */
+    public long downloadTo(String imageUrl, OutputStream target) throws IOException {
+        return download(imageUrl, response -> transferTo(response.body(), Channels.newChannel(target)));
+    }
+
+    /**
+     * 打开结果图片的下载流，由调用方边读边处理，例如在 Controller 中直接转发给浏览器。
+     * 返回的 {@link ImageStream} 读完后必须关闭，关闭后连接才会归还连接池。
+     *
+     * @throws IOException 连接失败或上游返回非 2xx 状态码
+     */
+    public ImageStream openImageStream(String imageUrl) throws IOException {
+        StreamingResponse response = transport.open(TransportRequest.get(imageUrl, EndpointProfile.DOWNLOAD));
+        if (!response.isSuccessful()) {
+            response.close();
+            throw new IOException("下载图片失败: " + imageUrl + ", HTTP " + response.status());
+        }
+        return new ImageStream(response);
     }
 
     /**
@@ -249,10 +501,10 @@ public class ImageTranslationApiClient {
      * @param requestId 提交任务时获取的任务 ID
      * @return API 返回的响应体
      */
-    public Map<String, Object> queryRemoveBackgroundTaskResult(String requestId) throws Exception {
+    public RemoveBackgroundResultResponse queryRemoveBackgroundTaskResult(String requestId) throws Exception {
         Map<String, Object> payload = new HashMap<>();
         payload.put("RequestId", requestId);
-        return executePostRequest(BG_REMOVAL_QUERY_ENDPOINT, payload);
+        return executePostRequest(BG_REMOVAL_QUERY_ENDPOINT, payload, removeBackgroundResultReader);
     }
 
 
@@ -260,118 +512,81 @@ public class ImageTranslationApiClient {
     // =                          私有辅助方法 (Private Helpers)                         =
     // ===================================================================================
 
-    /**
-     * 将本地图片文件读取为 Base64 Data URL 格式的字符串。
-     * 例如: "data:image/png;base64,iVBORw0KGgo..."
-     */
-    private String readImageAsBase64(String filePath) throws IOException {
-        Path path = Paths.get(filePath);
-        if (!Files.exists(path)) {
-            LOGGER.severe("文件未找到: " + filePath);
-            return null;
-        }
-
-        String mimeType = Files.probeContentType(path);
-        if (mimeType == null || !mimeType.startsWith("image/")) {
-            LOGGER.warning("无法识别的图片MIME类型 '" + filePath + "'，将默认使用 image/jpeg。");
-            mimeType = "image/jpeg";
-        }
-
-        byte[] imageBytes = Files.readAllBytes(path);
-        String base64Data = Base64.getEncoder().encodeToString(imageBytes);
-        return "data:" + mimeType + ";base64," + base64Data;
-    }
-
-
     /**
      * 执行 POST 请求的核心方法。
      * 负责添加公共参数、生成签名、序列化并发送请求。
      *
      * @param endpoint API 端点路径 (例如 "/submit_task")
      * @param payload  请求的业务参数
-     * @return API 返回的响应体，解析为 Map
+     * @param reader   响应体解析器
+     * @return API 返回的响应体
      */
-    private Map<String, Object> executePostRequest(String endpoint, Map<String, Object> payload) throws Exception {
+    private <T> T executePostRequest(String endpoint, Map<String, Object> payload, ObjectReader reader) throws Exception {
         String timestamp = String.valueOf(ZonedDateTime.now(ZoneId.of("Asia/Shanghai")).toEpochSecond());
 
         // 1. 添加公共参数
         payload.put("AccountId", this.apiKey);
         payload.put("Timestamp", timestamp);
 
-        // 2. 准备用于签名的参数 (所有参数值必须为字符串)
-        Map<String, String> paramsForSignature = new HashMap<>();
-        for (Map.Entry<String, Object> entry : payload.entrySet()) {
-            paramsForSignature.put(entry.getKey(), String.valueOf(entry.getValue()));
-        }
-        String signature = generateSignature(paramsForSignature);
-        payload.put("Signature", signature);
-
-        // 3. 设置 HTTP Header
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
+        // 2. 生成签名 (参数值按 String.valueOf 参与签名)
+        payload.put("Signature", signer.sign(payload));
 
-        // 4. 将最终的 payload (包含签名) 转换为 JSON 字符串
-        String requestBody = objectMapper.writeValueAsString(payload);
+        // 3. 将最终的 payload (包含签名) 转换为 JSON
+        byte[] requestBody = objectMapper.writeValueAsBytes(payload);
         LOGGER.fine("请求 URL: " + this.apiBaseUrl + endpoint);
-        LOGGER.fine("请求体: " + requestBody);
+        if (LOGGER.isLoggable(Level.FINE)) {
+            LOGGER.fine("请求体: " + new String(requestBody, StandardCharsets.UTF_8));
+        }
 
+        // 4. 通过传输层发送 HTTP 请求
+        return post(endpoint, RequestBody.of(requestBody, MediaType.APPLICATION_JSON_VALUE), reader);
+    }
 
-        // 5. 创建并发送 HTTP 请求
-        HttpEntity<String> requestEntity = new HttpEntity<>(requestBody, headers);
+    /**
+     * 以流式方式执行 POST 请求，用于请求体中包含整张图片的场景。
+     * 公共参数和签名的规则与 {@link #executePostRequest} 完全一致，
+     * 区别在于图片字段在写出请求体时才从 image 读取并编码，Signature 字段写在最后。
+     *
+     * @param endpoint    API 端点路径
+     * @param payload     除图片以外的业务参数
+     * @param imageField  图片字段名
+     * @param image       图片来源
+     * @param imagePrefix 写在 Base64 内容之前的文本 (例如 Data URL 前缀)，不需要时传空字符串
+     * @param reader      响应体解析器
+     * @return API 返回的响应体
+     */
+    private <T> T executeStreamingPostRequest(String endpoint, Map<String, Object> payload, String imageField,
+                                              ImageSource image, String imagePrefix, ObjectReader reader) throws Exception {
+        String timestamp = String.valueOf(ZonedDateTime.now(ZoneId.of("Asia/Shanghai")).toEpochSecond());
+        payload.put("AccountId", this.apiKey);
+        payload.put("Timestamp", timestamp);
+        LOGGER.fine("请求 URL: " + this.apiBaseUrl + endpoint + " (流式请求体)");
+        return post(endpoint, new StreamingJsonRequestBody(payload, imageField, image, imagePrefix, this.signer), reader);
+    }
+
+    /**
+     * 发送 JSON 请求，并用预先构建的 reader 直接从响应流解析出对应的响应类型。
+     */
+    private <T> T post(String endpoint, RequestBody body, ObjectReader reader) {
         String fullUrl = this.apiBaseUrl + endpoint;
+        TransportRequest request = TransportRequest.post(fullUrl, profileOf(endpoint), metrics.instrument(endpoint, body));
 
         try {
-            // 使用 RestTemplate 发送请求，并期望返回一个可以映射到 Map 的 JSON
-            @SuppressWarnings("unchecked")
-            Map<String, Object> response = restTemplate.postForObject(fullUrl, requestEntity, Map.class);
-            return response;
-        } catch (RestClientException e) {
+            return executeLimited(endpoint, request, response -> {
+                if (!response.isSuccessful()) {
+                    String errorBody = readErrorBody(response);
+                    LOGGER.severe("调用 PicTech API 失败: " + fullUrl + ", 错误: " + response.status() + " : [" + errorBody + "]");
+                    throw new PicTechApiException("调用 PicTech API 失败: " + response.status() + " : [" + errorBody + "]",
+                            response.status(), parseError(errorBody));
+                }
+                return reader.readValue(response.body());
+            });
+        } catch (IOException e) {
             LOGGER.severe("调用 PicTech API 失败: " + fullUrl + ", 错误: " + e.getMessage());
             throw new RuntimeException("调用 PicTech API 失败: " + e.getMessage(), e);
         }
     }
 
-    /**
-     * 生成 API 请求签名。
-     * 流程:
-     * 1. 将所有非空请求参数按 key 的字母顺序排序。
-     * 2. 将排序后的参数拼接成 `key1=value1&key2=value2` 的形式。
-     * 3. 在拼接后的字符串末尾加上 `&SecretKey=YOUR_SECRET_KEY`。
-     * 4. 对最终的字符串进行 HMAC-SHA256 哈希计算，并进行 Base64 编码。
-     *
-     * @param params 用于签名的参数映射
-     * @return 生成的 Base64 编码的签名字符串
-     */
-    private String generateSignature(Map<String, String> params)
-            throws NoSuchAlgorithmException, InvalidKeyException {
-        // 1. 过滤空值并排序
-        List<Map.Entry<String, String>> sortedEntries = new ArrayList<>();
-        for (Map.Entry<String, String> entry : params.entrySet()) {
-            if (entry.getValue() != null && !entry.getValue().isEmpty()) {
-                sortedEntries.add(entry);
-            }
-        }
-        sortedEntries.sort(Map.Entry.comparingByKey());
-
-        // 2. 构造签名字符串
-        StringBuilder toSign = new StringBuilder();
-        for (int i = 0; i < sortedEntries.size(); i++) {
-            Map.Entry<String, String> entry = sortedEntries.get(i);
-            toSign.append(entry.getKey()).append("=").append(entry.getValue());
-            if (i < sortedEntries.size() - 1) {
-                toSign.append("&");
-            }
-        }
-        toSign.append("&SecretKey=").append(this.secretKey);
-        LOGGER.fine("用于签名的源字符串: " + toSign);
-
-        // 3. HMAC-SHA256 + Base64
-        Mac hmacSha256 = Mac.getInstance("HmacSHA256");
-        hmacSha256.init(new SecretKeySpec(secretKey.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
-        byte[] hash = hmacSha256.doFinal(toSign.toString().getBytes(StandardCharsets.UTF_8));
-
-        return Base64.getEncoder().encodeToString(hash);
-    }
     /**
      * 【新增】执行同步图片修复任务，并直接将结果保存到文件。
      *
@@ -381,7 +596,6 @@ public class ImageTranslationApiClient {
      * @throws Exception 如果在API调用或文件操作过程中发生严重错误。
      */
     public byte[] inpaintImageSync(String sourceImageBase64, String maskImageBase64) throws Exception {
-        long startTime = System.currentTimeMillis();
         LOGGER.info("正在启动同步图片修复任务...");
 
         // --- 4. 将字节流写入文件 ---
@@ -390,17 +604,14 @@ public class ImageTranslationApiClient {
                 LOGGER.severe("读取源图片或蒙版图片失败，请检查文件路径。");
                 return null;
             }
-            // --- 2. 准备请求体 ---
-            Map<String, Object> payload = new HashMap<>();
-            // 中文备注：根据服务端要求，传递不带 "data:" 前缀的纯 Base64 字符串
-            payload.put("image", sourceImageBase64.substring(sourceImageBase64.indexOf(',') + 1));
-            payload.put("mask", maskImageBase64.substring(maskImageBase64.indexOf(',') + 1));
             // --- 3. 调用API并获取图片字节流 ---
-            byte[] imageBytes = executePostRequestForBytes(INPAINT_SYNC_ENDPOINT, payload);
+            byte[] imageBytes = inpaintImageSync(sourceImageBase64, maskImageBase64,
+                    response -> StreamUtils.copyToByteArray(response.body()));
             if (imageBytes == null || imageBytes.length == 0) {
                 LOGGER.severe("API调用失败或未返回有效的图片数据。");
                 return null;
             }
+            metrics.recordImageSize("inpaint_result", imageBytes.length);
             return imageBytes;
         } catch (IOException e) {
             LOGGER.severe("保存修复后的图片失败: " + e.getMessage());
@@ -408,71 +619,438 @@ public class ImageTranslationApiClient {
             return null;
         }
     }
+
     /**
-     * 【新增】执行 POST 请求的核心方法，专门用于期望返回二进制数据 (如图片) 的场景。
+     * 执行同步图片修复任务，修复结果以流的形式交给 handler 处理，不在内存中缓存整张图片。
+     * handler 在连接打开期间被调用，可以把响应体写入文件、Servlet 输出流或摘要计算等任意目标。
      *
-     * @param endpoint API 端点路径
-     * @param payload  请求的业务参数
-     * @return API 返回的二进制字节数组 (byte[])
-     * @throws Exception API 调用失败时抛出异常
+     * @param sourceImageBase64 原始图片 (可以带 data: 前缀)
+     * @param maskImageBase64   蒙版图片 (可以带 data: 前缀)
+     * @param handler           处理 2xx 响应的回调，非 2xx 响应会抛出 {@link PicTechApiException}
+     * @return handler 的返回值
+     */
+    public <T> T inpaintImageSync(String sourceImageBase64, String maskImageBase64, ResponseHandler<T> handler) throws Exception {
+        return postForStream(INPAINT_SYNC_ENDPOINT, inpaintRequestBody(sourceImageBase64, maskImageBase64), handler);
+    }
+
+    /**
+     * 执行同步图片修复任务，原图和蒙版以原始字节提供 (例如 multipart 上传的文件部分)，
+     * 写请求体时才边读边编码为 Base64，不生成 Base64 字符串。图片来源需要可以重复读取，对冲请求会再次写出请求体。
+     *
+     * @param sourceImage 原始图片
+     * @param maskImage   蒙版图片
+     * @param handler     处理 2xx 响应的回调，非 2xx 响应会抛出 {@link PicTechApiException}
+     * @return handler 的返回值
+     */
+    public <T> T inpaintImageSync(ImageSource sourceImage, ImageSource maskImage, ResponseHandler<T> handler) throws Exception {
+        return postForStream(INPAINT_SYNC_ENDPOINT, inpaintRequestBody(sourceImage, maskImage), handler);
+    }
+
+    /**
+     * 执行同步图片修复任务，收到上游的响应头后返回仍然连接着上游的修复结果，由调用方边读边处理
+     * (例如在 Controller 中直接转发给浏览器)。上游并发许可在收到响应头时归还。
+     * 返回的 {@link ImageStream} 读完后必须关闭，关闭后连接才会归还连接池。
+     *
+     * @param sourceImageBase64 原始图片 (可以带 data: 前缀)
+     * @param maskImageBase64   蒙版图片 (可以带 data: 前缀)
+     * @throws PicTechApiException 上游返回非 2xx 状态码
      */
-    private byte[] executePostRequestForBytes(String endpoint, Map<String, Object> payload) throws Exception {
+    public ImageStream openInpaintStream(String sourceImageBase64, String maskImageBase64) throws Exception {
+        return openForStream(INPAINT_SYNC_ENDPOINT, inpaintRequestBody(sourceImageBase64, maskImageBase64));
+    }
+
+    /**
+     * 与 {@link #openInpaintStream(String, String)} 相同，原图和蒙版以原始字节提供。
+     */
+    public ImageStream openInpaintStream(ImageSource sourceImage, ImageSource maskImage) throws Exception {
+        return openForStream(INPAINT_SYNC_ENDPOINT, inpaintRequestBody(sourceImage, maskImage));
+    }
+
+    /**
+     * 执行同步图片修复任务，原图和蒙版以原始字节提供，返回修复后的图片字节。
+     */
+    public byte[] inpaintImageSync(ImageSource sourceImage, ImageSource maskImage) throws Exception {
+        byte[] imageBytes = inpaintImageSync(sourceImage, maskImage, response -> StreamUtils.copyToByteArray(response.body()));
+        if (imageBytes.length == 0) {
+            throw new IOException("API调用失败或未返回有效的图片数据。");
+        }
+        metrics.recordImageSize("inpaint_result", imageBytes.length);
+        return imageBytes;
+    }
+
+    /**
+     * 执行同步图片修复任务，并把结果流式写入调用方提供的通道。
+     *
+     * @return 写入的字节数
+     */
+    public long inpaintImageSyncTo(String sourceImageBase64, String maskImageBase64, WritableByteChannel target) throws Exception {
+        long written = inpaintImageSync(sourceImageBase64, maskImageBase64, response -> transferTo(response.body(), target));
+        metrics.recordImageSize("inpaint_result", written);
+        return written;
+    }
+
+    /**
+     * 执行同步图片修复任务，并把结果流式写入调用方提供的输出流 (例如 HttpServletResponse 的输出流)。
+     *
+     * @return 写入的字节数
+     */
+    public long inpaintImageSyncTo(String sourceImageBase64, String maskImageBase64, OutputStream target) throws Exception {
+        return inpaintImageSyncTo(sourceImageBase64, maskImageBase64, Channels.newChannel(target));
+    }
+
+    /**
+     * 执行同步图片修复任务，并把结果写入目标文件：先写同目录下的临时文件，完成后原子地重命名。
+     *
+     * @param target 目标文件，已存在时会被替换
+     * @return 目标文件路径
+     */
+    public Path inpaintImageSyncToFile(String sourceImageBase64, String maskImageBase64, Path target) throws Exception {
+        long startTime = System.currentTimeMillis();
+        LOGGER.info("正在启动同步图片修复任务...");
+        Path result = writeFileAtomically(target, "API调用失败或未返回有效的图片数据。",
+                channel -> inpaintImageSyncTo(sourceImageBase64, maskImageBase64, channel));
+        LOGGER.info(String.format("图片修复完成: %s, 耗时 %d ms", result, System.currentTimeMillis() - startTime));
+        return result;
+    }
+
+    /**
+     * 同步图片修复的请求体，原图和蒙版为 Base64 字符串。
+     */
+    private RequestBody inpaintRequestBody(String sourceImageBase64, String maskImageBase64) throws JsonProcessingException {
+        Map<String, Object> payload = new HashMap<>();
+        // 中文备注：根据服务端要求，传递不带 "data:" 前缀的纯 Base64 字符串
+        payload.put("image", sourceImageBase64.substring(sourceImageBase64.indexOf(',') + 1));
+        payload.put("mask", maskImageBase64.substring(maskImageBase64.indexOf(',') + 1));
+        return signedJsonBody(payload);
+    }
+
+    /**
+     * 同步图片修复的请求体，原图和蒙版在写出请求体时才边读边编码为 Base64。
+     */
+    private RequestBody inpaintRequestBody(ImageSource sourceImage, ImageSource maskImage) {
+        Map<String, ImageSource> images = new HashMap<>();
+        images.put("image", sourceImage);
+        images.put("mask", maskImage);
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("AccountId", this.apiKey);
+        payload.put("Timestamp", String.valueOf(ZonedDateTime.now(ZoneId.of("Asia/Shanghai")).toEpochSecond()));
+        LOGGER.fine("请求 URL: " + this.apiBaseUrl + INPAINT_SYNC_ENDPOINT + " (流式请求体)");
+        return new StreamingJsonRequestBody(payload, images, "", this.signer);
+    }
+
+    /**
+     * 【新增】构建带公共参数和签名的 JSON 请求体，用于期望返回二进制数据 (如图片) 的场景。
+     *
+     * @param payload 请求的业务参数
+     * @return 请求体
+     */
+    private RequestBody signedJsonBody(Map<String, Object> payload) throws JsonProcessingException {
         String timestamp = String.valueOf(ZonedDateTime.now(ZoneId.of("Asia/Shanghai")).toEpochSecond());
 
         // 1. 添加公共参数
         payload.put("AccountId", this.apiKey);
         payload.put("Timestamp", timestamp);
 
-        // 2. 准备签名
-        Map<String, String> paramsForSignature = new HashMap<>();
-        for (Map.Entry<String, Object> entry : payload.entrySet()) {
-            paramsForSignature.put(entry.getKey(), String.valueOf(entry.getValue()));
+        // 2. 生成签名
+        payload.put("Signature", signer.sign(payload));
+
+        // 3. 转换请求体为 JSON
+        byte[] requestBody = objectMapper.writeValueAsBytes(payload);
+        if (LOGGER.isLoggable(Level.FINE)) {
+            LOGGER.fine("请求体: " + new String(requestBody, StandardCharsets.UTF_8));
+        }
+        return RequestBody.of(requestBody, MediaType.APPLICATION_JSON_VALUE);
+    }
+
+    /**
+     * 发送请求体并把 2xx 响应交给 handler 流式处理，非 2xx 响应抛出 {@link PicTechApiException}。
+     */
+    private <T> T postForStream(String endpoint, RequestBody body, ResponseHandler<T> handler) throws Exception {
+        try {
+            return executeLimited(endpoint, streamRequest(endpoint, body), response -> {
+                ensureSuccessful(response);
+                return handler.handle(response);
+            });
+        } catch (IOException e) {
+            throw networkError(endpoint, e);
         }
-        String signature = generateSignature(paramsForSignature);
-        payload.put("Signature", signature);
+    }
 
-        // 3. 设置 HTTP Header
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        // 中文备注：告诉服务器客户端可以接受任何类型的响应
-        headers.setAccept(Collections.singletonList(MediaType.ALL));
+    /**
+     * 发送请求体并返回仍然打开的 2xx 响应，非 2xx 响应抛出 {@link PicTechApiException}。
+     */
+    private ImageStream openForStream(String endpoint, RequestBody body) {
+        TransportRequest request = streamRequest(endpoint, body);
+        try {
+            return new ImageStream(withPermit(endpoint, (limiter, permit) -> record(endpoint, () -> {
+                StreamingResponse response = send(endpoint, request, limiter, permit);
+                try {
+                    ensureSuccessful(response);
+                    return response;
+                } catch (IOException | RuntimeException e) {
+                    response.close();
+                    throw e;
+                }
+            })));
+        } catch (IOException e) {
+            throw networkError(endpoint, e);
+        }
+    }
 
-        // 4. 转换请求体为 JSON
-        String requestBody = objectMapper.writeValueAsString(payload);
-        LOGGER.fine("请求体: " + requestBody);
+    private TransportRequest streamRequest(String endpoint, RequestBody body) {
+        return TransportRequest.post(this.apiBaseUrl + endpoint, profileOf(endpoint), metrics.instrument(endpoint, body))
+                // 中文备注：告诉服务器客户端可以接受任何类型的响应
+                .header("Accept", MediaType.ALL_VALUE);
+    }
 
-        // 5. 创建并发送 HTTP 请求
-        HttpEntity<String> requestEntity = new HttpEntity<>(requestBody, headers);
-        String fullUrl = this.apiBaseUrl + endpoint;
+    /**
+     * 当服务器返回 4xx 或 5xx 错误时，响应体中是带错误详情的 JSON，读出后抛出 {@link PicTechApiException}。
+     */
+    private void ensureSuccessful(TransportResponse response) throws IOException {
+        if (!response.isSuccessful()) {
+            String errorBody = readErrorBody(response);
+            LOGGER.severe("调用 PicTech API 失败，状态码: " + response.status() + ", 错误响应: " + errorBody);
+            throw new PicTechApiException("调用 PicTech API 失败: " + errorBody, response.status(), parseError(errorBody));
+        }
+    }
+
+    /**
+     * 处理网络层面的错误，如连接超时
+     */
+    private RuntimeException networkError(String endpoint, IOException e) {
+        LOGGER.severe("调用 PicTech API 时发生网络错误: " + this.apiBaseUrl + endpoint + ", 错误: " + e.getMessage());
+        return new RuntimeException("调用 PicTech API 时发生网络错误: " + e.getMessage(), e);
+    }
 
+    /**
+     * 在端点的并发限制下执行请求，并根据结果调整该端点的并发上限：
+     * 网络错误和 429 / 5xx 视为上游过载，其余 4xx 与上游负载无关，不影响上限。
+     */
+    private <T> T executeLimited(String endpoint, TransportRequest request, ResponseHandler<T> handler) throws IOException {
+        return withPermit(endpoint, (limiter, permit) -> record(endpoint, () -> {
+            try (StreamingResponse response = send(endpoint, request, limiter, permit)) {
+                return handler.handle(response);
+            }
+        }));
+    }
+
+    /**
+     * 持有端点的并发许可执行 call，按结果调整并发上限；端点没有并发限制时直接执行。
+     */
+    private <T> T withPermit(String endpoint, LimitedCall<T> call) throws IOException {
+        AdaptiveConcurrencyLimiter limiter = concurrencyLimits.forEndpoint(endpoint);
+        if (limiter == null) {
+            return call.call(null, null);
+        }
+
+        AdaptiveConcurrencyLimiter.Permit permit;
         try {
-            // 中文备注：使用 exchange 方法，并指定期望的响应体类型为 byte[]
-            ResponseEntity<byte[]> responseEntity = restTemplate.exchange(
-                    fullUrl,
-                    HttpMethod.POST,
-                    requestEntity,
-                    byte[].class // 关键：期望返回字节数组
-            );
-
-            // 检查响应状态码是否为 2xx
-            if (responseEntity.getStatusCode().is2xxSuccessful()) {
-                return responseEntity.getBody();
+            permit = limiter.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("等待上游并发许可时被中断: " + endpoint);
+        }
+        try {
+            T result = call.call(limiter, permit);
+            permit.onSuccess();
+            return result;
+        } catch (PicTechApiException e) {
+            if (e.getStatus() == 429 || e.getStatus() >= 500) {
+                permit.onDropped();
             } else {
-                LOGGER.severe("API 调用成功但返回了非 2xx 状态码: " + responseEntity.getStatusCode());
-                return null;
+                permit.onIgnored();
+            }
+            throw e;
+        } catch (IOException e) {
+            permit.onDropped();
+            throw e;
+        } finally {
+            permit.onIgnored();
+        }
+    }
+
+    /**
+     * 执行上游调用并记录调用耗时和返回码。
+     */
+    private <T> T record(String endpoint, UpstreamCall<T> call) throws IOException {
+        long startNanos = System.nanoTime();
+        String outcome = "IO_ERROR";
+        try {
+            T result = call.call();
+            outcome = "SUCCESS";
+            if (result instanceof PicTechResponse) {
+                metrics.recordResponse(endpoint, 200, (PicTechResponse) result);
+            }
+            return result;
+        } catch (PicTechApiException e) {
+            outcome = e.getStatus() >= 500 ? "SERVER_ERROR" : "CLIENT_ERROR";
+            metrics.recordResponse(endpoint, e.getStatus(), e.getError());
+            throw e;
+        } finally {
+            metrics.recordUpstreamCall(endpoint, outcome, System.nanoTime() - startNanos);
+        }
+    }
+
+    /**
+     * 发出请求，收到响应头后返回仍然打开的响应。启用对冲时同步图片修复交给 {@link HedgedRequestExecutor}，
+     * 对冲请求只在端点还有空闲并发许可时发出，不会为此排队。
+     * 持有并发许可时，许可的延迟只计算请求体写完到收到响应头之间的时间。
+     */
+    private StreamingResponse send(String endpoint, TransportRequest request, AdaptiveConcurrencyLimiter limiter,
+                                   AdaptiveConcurrencyLimiter.Permit permit) throws IOException {
+        if (permit != null && request.getBody() != null) {
+            request = request.withBody(notifyWhenSent(request.getBody(), permit::onRequestSent));
+        }
+        StreamingResponse response;
+        if (inpaintHedging == null || !INPAINT_SYNC_ENDPOINT.equals(endpoint)) {
+            response = transport.open(request);
+        } else {
+            response = inpaintHedging.open(request, () -> {
+                if (limiter == null) {
+                    return HedgedRequestExecutor.NO_PERMIT;
+                }
+                AdaptiveConcurrencyLimiter.Permit hedgePermit = limiter.tryAcquire();
+                return hedgePermit != null ? hedgePermit::onIgnored : null;
+            });
+        }
+        if (permit != null) {
+            permit.onResponseReceived();
+        }
+        return response;
+    }
+
+    /**
+     * 包装请求体，全部写出后调用 onSent
+     */
+    private static RequestBody notifyWhenSent(RequestBody body, Runnable onSent) {
+        return new RequestBody() {
+            @Override
+            public String contentType() {
+                return body.contentType();
+            }
+
+            @Override
+            public long contentLength() {
+                return body.contentLength();
+            }
+
+            @Override
+            public void writeTo(OutputStream out) throws IOException {
+                body.writeTo(out);
+                onSent.run();
+            }
+        };
+    }
+
+    /**
+     * 根据 API 端点确定使用哪一类超时配置。
+     */
+    private static EndpointProfile profileOf(String endpoint) {
+        switch (endpoint) {
+            case TRANSLATION_QUERY_ENDPOINT:
+            case BG_REMOVAL_QUERY_ENDPOINT:
+                return EndpointProfile.QUERY;
+            case INPAINT_SYNC_ENDPOINT:
+                return EndpointProfile.INPAINT;
+            default:
+                return EndpointProfile.SUBMIT;
+        }
+    }
+
+    /**
+     * 读取错误响应体，用于日志和异常信息。
+     */
+    private static String readErrorBody(TransportResponse response) throws IOException {
+        return StreamUtils.copyToString(response.body(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 下载图片 URL，非 2xx 响应视为失败，成功时把仍然打开的响应交给 handler。
+     */
+    private <T> T download(String imageUrl, ResponseHandler<T> handler) throws IOException {
+        return transport.execute(TransportRequest.get(imageUrl, EndpointProfile.DOWNLOAD), response -> {
+            if (!response.isSuccessful()) {
+                throw new IOException("HTTP " + response.status());
+            }
+            return handler.handle(response);
+        });
+    }
+
+    /**
+     * 以固定大小的缓冲区把输入流写入通道，FileChannel 时由 transferFrom 直接写入文件。
+     */
+    private static long transferTo(InputStream in, WritableByteChannel target) throws IOException {
+        ReadableByteChannel source = Channels.newChannel(in);
+        long total = 0;
+        if (target instanceof FileChannel) {
+            FileChannel file = (FileChannel) target;
+            long position = file.position();
+            long transferred;
+            while ((transferred = file.transferFrom(source, position + total, TRANSFER_CHUNK_SIZE)) > 0) {
+                total += transferred;
+            }
+            file.position(position + total);
+            return total;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(COPY_BUFFER_SIZE);
+        while (source.read(buffer) != -1) {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                total += target.write(buffer);
+            }
+            buffer.clear();
+        }
+        return total;
+    }
+
+    /**
+     * 先把内容写入目标目录下的临时文件，写入成功且内容非空后再原子地重命名为目标文件。
+     * 失败时删除临时文件，不会留下不完整的目标文件。
+     *
+     * @param emptyMessage 写入内容为空时的异常信息
+     */
+    private static <E extends Exception> Path writeFileAtomically(Path target, String emptyMessage,
+                                                                  ChannelWriter<E> writer) throws IOException, E {
+        Path directory = target.toAbsolutePath().getParent();
+        Files.createDirectories(directory); // 确保目录存在
+        Path tempFile = Files.createTempFile(directory, target.getFileName().toString(), ".part");
+        try {
+            long size;
+            try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+                size = writer.write(channel);
             }
-        } catch (HttpClientErrorException e) {
-            // 中文备注：当服务器返回 4xx 或 5xx 错误时，RestTemplate 会抛出此异常
-            // 我们可以从异常中获取带错误详情的 JSON 响应体
-            String errorBody = e.getResponseBodyAsString(StandardCharsets.UTF_8);
-            LOGGER.severe("调用 PicTech API 失败，状态码: " + e.getStatusCode() + ", 错误响应: " + errorBody);
-            throw new RuntimeException("调用 PicTech API 失败: " + errorBody, e);
-        } catch (RestClientException e) {
-            // 中文备注：处理其他网络层面的错误，如连接超时
-            LOGGER.severe("调用 PicTech API 时发生网络错误: " + fullUrl + ", 错误: " + e.getMessage());
-            throw new RuntimeException("调用 PicTech API 时发生网络错误: " + e.getMessage(), e);
+            if (size == 0) {
+                throw new IOException(emptyMessage);
+            }
+            moveAtomically(tempFile, target);
+            return target;
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    /**
+     * 临时文件和目标文件位于同一目录，文件系统支持时使用原子重命名。
+     */
+    private static void moveAtomically(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
         }
     }
+
+    /**
+     * 把错误响应体解析为 {@link PicTechResponse}，不是 JSON 时返回 null。
+     */
+    private PicTechResponse parseError(String errorBody) {
+        try {
+            return errorReader.readValue(errorBody);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
     public static class ImageResponse {
         private final String mediaType;
         private final byte[] imageBytes;
@@ -490,4 +1068,62 @@ public class ImageTranslationApiClient {
             return imageBytes;
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * 持有并发许可执行的上游调用，limiter 和 permit 为 null 表示端点没有并发限制。
+     */
+    @FunctionalInterface
+    private interface LimitedCall<T> {
+        T call(AdaptiveConcurrencyLimiter limiter, AdaptiveConcurrencyLimiter.Permit permit) throws IOException;
+    }
+
+    /**
+     * 一次上游调用，用于统一记录耗时和返回码。
+     */
+    @FunctionalInterface
+    private interface UpstreamCall<T> {
+        T call() throws IOException;
+    }
+
+    /**
+     * 向临时文件写入内容，返回写入的字节数。
+     */
+    @FunctionalInterface
+    private interface ChannelWriter<E extends Exception> {
+        long write(FileChannel channel) throws E;
+    }
+
+    /**
+     * 仍然连接着上游的图片下载流，读完后必须关闭。
+     */
+    public static class ImageStream implements Closeable {
+        private final StreamingResponse response;
+
+        ImageStream(StreamingResponse response) {
+            this.response = response;
+        }
+
+        /**
+         * @return 上游返回的 Content-Type，未返回时为 null
+         */
+        public String getMediaType() {
+            return response.contentType();
+        }
+
+        /**
+         * @return 图片字节数，上游未返回长度时为 -1
+         */
+        public long getContentLength() {
+            return response.contentLength();
+        }
+
+        public InputStream getInputStream() {
+            return response.body();
+        }
+
+        @Override
+        public void close() throws IOException {
+            response.close();
+        }
+    }
+}
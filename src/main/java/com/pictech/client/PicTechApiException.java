@@ -0,0 +1,31 @@
+package com.pictech.client;
+
+import com.pictech.client.model.PicTechResponse;
+
+/**
+ * PicTech API 返回 4xx / 5xx 时抛出，保留 HTTP 状态码和解析后的错误响应体。
+ */
+public class PicTechApiException extends RuntimeException {
+
+    private final int status;
+    private final transient PicTechResponse error;
+
+    /**
+     * @param message 异常信息
+     * @param status  HTTP 状态码
+     * @param error   解析后的错误响应体，响应体不是 JSON 时为 null
+     */
+    public PicTechApiException(String message, int status, PicTechResponse error) {
+        super(message);
+        this.status = status;
+        this.error = error;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public PicTechResponse getError() {
+        return error;
+    }
+}
@@ -0,0 +1,196 @@
+package com.pictech.client;
+
+import com.pictech.client.model.PicTechResponse;
+import com.pictech.client.transport.RequestBody;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PicTech 客户端的 Micrometer 指标，在 Spring 环境下通过 /actuator/prometheus 导出:
+ * - pictech.upstream.requests: 每个上游端点的调用耗时 (不含排队等待并发许可的时间)，按 endpoint / outcome 区分；
+ * - pictech.upstream.request.size: 每个上游端点的请求体字节数；
+ * - pictech.upstream.responses: 上游返回的 Code / ErrorCode 计数；
+ * - pictech.image.size: 上传、解码和修复结果等图片的字节数，按 source 区分；
+ * - pictech.task.poll.attempts / pictech.task.completion: 异步任务的查询次数和从提交到完成的耗时。
+ * 同一组标签的 Meter 只创建一次，之后的记录不再经过注册表查找。
+ */
+public class PicTechMetrics {
+
+    private static final String NONE = "none";
+
+    private final MeterRegistry registry;
+    private final ConcurrentMap<String, Timer> upstreamTimers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, DistributionSummary> requestSizes = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Counter> responseCodes = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, DistributionSummary> imageSizes = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Counter> pollAttempts = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Timer> completionTimers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, DistributionSummary> attemptsPerTask = new ConcurrentHashMap<>();
+
+    public PicTechMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * 记录一次上游调用的耗时。
+     *
+     * @param outcome SUCCESS、CLIENT_ERROR、SERVER_ERROR 或 IO_ERROR
+     */
+    public void recordUpstreamCall(String endpoint, String outcome, long nanos) {
+        upstreamTimers.computeIfAbsent(endpoint + '|' + outcome, key -> Timer.builder("pictech.upstream.requests")
+                .description("PicTech API 调用耗时")
+                .tag("endpoint", endpoint)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry))
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 记录上游返回的业务状态码。
+     *
+     * @param httpStatus HTTP 状态码
+     * @param response   解析出的响应体，无法解析时为 null
+     */
+    public void recordResponse(String endpoint, int httpStatus, PicTechResponse response) {
+        String code = response != null && response.getCode() != -1 ? String.valueOf(response.getCode()) : NONE;
+        String errorCode = response != null && response.getErrorCode() != null ? response.getErrorCode() : NONE;
+        String status = String.valueOf(httpStatus);
+        responseCodes.computeIfAbsent(endpoint + '|' + status + '|' + code + '|' + errorCode,
+                key -> Counter.builder("pictech.upstream.responses")
+                        .description("PicTech API 返回的 Code / ErrorCode")
+                        .tag("endpoint", endpoint)
+                        .tag("status", status)
+                        .tag("code", code)
+                        .tag("error_code", errorCode)
+                        .register(registry))
+                .increment();
+    }
+
+    /**
+     * 记录图片字节数。
+     *
+     * @param source 图片来源，例如 inpaint_result、exported_upload
+     */
+    public void recordImageSize(String source, long bytes) {
+        imageSizes.computeIfAbsent(source, key -> DistributionSummary.builder("pictech.image.size")
+                .description("图片字节数")
+                .baseUnit("bytes")
+                .tag("source", source)
+                .publishPercentileHistogram()
+                .register(registry))
+                .record(bytes);
+    }
+
+    /**
+     * 返回会记录请求体字节数的请求体：长度已知时直接记录，否则在写出时计数。
+     */
+    public RequestBody instrument(String endpoint, RequestBody body) {
+        DistributionSummary summary = requestSizes.computeIfAbsent(endpoint,
+                key -> DistributionSummary.builder("pictech.upstream.request.size")
+                        .description("PicTech API 请求体字节数")
+                        .baseUnit("bytes")
+                        .tag("endpoint", endpoint)
+                        .publishPercentileHistogram()
+                        .register(registry));
+        if (body.contentLength() >= 0) {
+            summary.record(body.contentLength());
+            return body;
+        }
+        return new RequestBody() {
+            @Override
+            public String contentType() {
+                return body.contentType();
+            }
+
+            @Override
+            public long contentLength() {
+                return -1;
+            }
+
+            @Override
+            public void writeTo(OutputStream out) throws IOException {
+                CountingOutputStream counting = new CountingOutputStream(out);
+                body.writeTo(counting);
+                summary.record(counting.count);
+            }
+        };
+    }
+
+    /**
+     * 记录一次任务结果查询。
+     */
+    public void recordPollAttempt(TaskType type) {
+        pollAttempts.computeIfAbsent(type.name(), key -> Counter.builder("pictech.task.poll.attempts")
+                .description("任务结果查询次数")
+                .tag("type", type.name())
+                .register(registry))
+                .increment();
+    }
+
+    /**
+     * 记录一个任务从提交到进入终态 (或放弃查询) 的耗时和查询次数。
+     *
+     * @param outcome succeeded (任务成功)、failed (任务失败或查询出错) 或 timeout，见 {@link #outcomeOf}
+     */
+    public void recordTaskCompletion(TaskType type, String outcome, long nanos, int attempts) {
+        String key = type.name() + '|' + outcome;
+        completionTimers.computeIfAbsent(key, k -> Timer.builder("pictech.task.completion")
+                .description("任务从提交到完成的耗时")
+                .tag("type", type.name())
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry))
+                .record(nanos, TimeUnit.NANOSECONDS);
+        attemptsPerTask.computeIfAbsent(key, k -> DistributionSummary.builder("pictech.task.poll.attempts.per.task")
+                .description("每个任务的查询次数")
+                .tag("type", type.name())
+                .tag("outcome", outcome)
+                .register(registry))
+                .record(attempts);
+    }
+
+    /**
+     * 按任务终态的 Code 区分结果：200 为 succeeded，其他 (上游任务失败) 为 failed
+     */
+    public static String outcomeOf(PicTechResponse result) {
+        return result.isSuccess() ? "succeeded" : "failed";
+    }
+
+    /**
+     * 统计写出字节数的输出流，不关闭底层输出流。
+     */
+    private static final class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+
+        @Override
+        public void close() {
+            // 中文备注：连接输出流由传输层负责关闭
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.pictech.client;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 任务轮询配置，对应 application.properties 中的 pictech.api.poll.* 配置项。
+ */
+@ConfigurationProperties(prefix = "pictech.api.poll")
+public class PicTechPollProperties {
+
+    /** 提交翻译任务成功后，是否由服务端统一跟踪任务直到结束 */
+    private boolean trackTranslations = true;
+
+    /** 图片翻译任务的轮询策略 */
+    private final PollPolicy translation = new PollPolicy(60, Duration.ofSeconds(2), 1.5, Duration.ofSeconds(10), 0.1);
+
+    /** 背景移除任务的轮询策略，默认与原先固定的 15 次 × 1.5 秒一致 */
+    private final PollPolicy backgroundRemoval = new PollPolicy(15, Duration.ofMillis(1500), 1.0, Duration.ofMillis(1500), 0);
+
+    /**
+     * 返回指定任务类型的轮询策略。
+     */
+    public PollPolicy policyFor(TaskType type) {
+        return type == TaskType.BACKGROUND_REMOVAL ? backgroundRemoval : translation;
+    }
+
+    public boolean isTrackTranslations() {
+        return trackTranslations;
+    }
+
+    public void setTrackTranslations(boolean trackTranslations) {
+        this.trackTranslations = trackTranslations;
+    }
+
+    public PollPolicy getTranslation() {
+        return translation;
+    }
+
+    public PollPolicy getBackgroundRemoval() {
+        return backgroundRemoval;
+    }
+}
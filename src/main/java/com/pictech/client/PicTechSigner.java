@@ -0,0 +1,209 @@
+package com.pictech.client;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Map;
+
+/**
+ * PicTech API 请求签名器
+ * 签名规则:
+ * 1. 将所有非空请求参数按 key 的字母顺序排序。
+ * 2. 将排序后的参数拼接成 `key1=value1&key2=value2` 的形式。
+ * 3. 在拼接后的字符串末尾加上 `&SecretKey=YOUR_SECRET_KEY`。
+ * 4. 对最终的字符串进行 HMAC-SHA256 哈希计算，并进行 Base64 编码。
+ *
+ * 实现上不会拼出完整的签名原文：每个线程复用一个已用密钥初始化好的 {@link Mac}，
+ * 参数按顺序以 UTF-8 分块送入 Mac.update，多兆字节的 ImageBase64 也不会被再复制一份。
+ */
+public class PicTechSigner {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int CHUNK_SIZE = 8 * 1024;
+
+    private final byte[] secretSuffix;
+    private final ThreadLocal<Session> sessions;
+
+    public PicTechSigner(String secretKey) {
+        this.secretSuffix = ("&SecretKey=" + secretKey).getBytes(StandardCharsets.UTF_8);
+        Mac prototype = newMac(secretKey);
+        this.sessions = ThreadLocal.withInitial(() -> new Session(copyOf(prototype, secretKey)));
+    }
+
+    /**
+     * 计算参数的签名。值通过 String.valueOf 转为字符串，空字符串不参与签名。
+     *
+     * @param params 用于签名的参数 (不包含 Signature 本身)
+     * @return Base64 编码的签名
+     */
+    public String sign(Map<String, ?> params) {
+        String[] keys = params.keySet().toArray(new String[0]);
+        Arrays.sort(keys);
+        Session session = begin();
+        for (String key : keys) {
+            String value = String.valueOf(params.get(key));
+            if (!value.isEmpty()) {
+                session.param(key, value);
+            }
+        }
+        return session.finish();
+    }
+
+    /**
+     * 开始一次增量签名，调用方按排序后的顺序依次送入参数，最后调用 {@link Session#finish()}。
+     * 返回的会话绑定当前线程，在 finish 之前不能在同一线程上开始另一次签名。
+     */
+    public Session begin() {
+        Session session = sessions.get();
+        session.reset();
+        return session;
+    }
+
+    /**
+     * 一次增量签名的状态，内部的 Mac、编码器和缓冲区都在当前线程内复用。
+     */
+    public final class Session {
+        private final Mac mac;
+        // 中文备注：与 String.getBytes 的行为保持一致，无法编码的字符替换为 '?'
+        private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        private final char[] chars = new char[CHUNK_SIZE];
+        private final byte[] bytes = new byte[CHUNK_SIZE];
+        private boolean first = true;
+
+        private Session(Mac mac) {
+            this.mac = mac;
+        }
+
+        /**
+         * 送入一个完整的 key=value 参数，自动处理参数之间的 & 分隔符。
+         */
+        public Session param(String key, String value) {
+            startParam(key);
+            update(value);
+            return this;
+        }
+
+        /**
+         * 送入 `key=` (以及必要的 & 分隔符)，值随后通过 update 分块送入。
+         */
+        public Session startParam(String key) {
+            if (!first) {
+                mac.update((byte) '&');
+            }
+            first = false;
+            update(key);
+            mac.update((byte) '=');
+            return this;
+        }
+
+        /**
+         * 以 UTF-8 分块送入字符串，不生成完整的 byte[] 副本。
+         * Base64 和语言代码等纯 ASCII 内容逐块直接转为字节，遇到非 ASCII 字符后余下部分交给编码器。
+         */
+        public Session update(CharSequence text) {
+            int length = text.length();
+            int position = 0;
+            while (position < length) {
+                int end = Math.min(position + CHUNK_SIZE, length);
+                copyChars(text, position, end);
+                int ascii = 0;
+                while (ascii < end - position && chars[ascii] < 0x80) {
+                    bytes[ascii] = (byte) chars[ascii];
+                    ascii++;
+                }
+                mac.update(bytes, 0, ascii);
+                position += ascii;
+                if (position < end) {
+                    encode(CharBuffer.wrap(text, position, length));
+                    return this;
+                }
+            }
+            return this;
+        }
+
+        /**
+         * 送入已经是 UTF-8 (或 ASCII) 编码的字节。
+         */
+        public Session update(byte[] bytes, int offset, int length) {
+            mac.update(bytes, offset, length);
+            return this;
+        }
+
+        /**
+         * 追加 `&SecretKey=...` 并返回 Base64 编码的签名。
+         */
+        public String finish() {
+            mac.update(secretSuffix);
+            return Base64.getEncoder().encodeToString(mac.doFinal());
+        }
+
+        private void copyChars(CharSequence text, int start, int end) {
+            if (text instanceof String) {
+                ((String) text).getChars(start, end, chars, 0);
+            } else {
+                for (int i = start; i < end; i++) {
+                    chars[i - start] = text.charAt(i);
+                }
+            }
+        }
+
+        private void encode(CharBuffer input) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            encoder.reset();
+            CoderResult result;
+            do {
+                result = encoder.encode(input, buffer, true);
+                flush(buffer);
+            } while (result.isOverflow());
+            while (encoder.flush(buffer).isOverflow()) {
+                flush(buffer);
+            }
+            flush(buffer);
+        }
+
+        private void flush(ByteBuffer buffer) {
+            mac.update(bytes, 0, buffer.position());
+            buffer.clear();
+        }
+
+        private void reset() {
+            mac.reset();
+            first = true;
+        }
+    }
+
+    // ===================================================================================
+    // =                          私有辅助方法 (Private Helpers)                         =
+    // ===================================================================================
+
+    private static Mac newMac(String secretKey) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(new SecretKeySpec(secretKey.getBytes(StandardCharsets.UTF_8), ALGORITHM));
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("初始化签名算法失败: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 克隆已初始化的 Mac 可以跳过密钥处理；不支持克隆的实现退回重新初始化。
+     */
+    private static Mac copyOf(Mac prototype, String secretKey) {
+        try {
+            return (Mac) prototype.clone();
+        } catch (CloneNotSupportedException e) {
+            return newMac(secretKey);
+        }
+    }
+}
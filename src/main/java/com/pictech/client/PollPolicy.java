@@ -0,0 +1,78 @@
+package com.pictech.client;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 单类任务的轮询策略：首次查询前等待 initialInterval，之后每次按 multiplier 递增，
+ * 最长不超过 maxInterval，最多查询 maxAttempts 次。
+ * jitter 为随机抖动比例 (0.1 表示 ±10%)，避免同一批提交的任务在同一时刻集中查询。
+ */
+public class PollPolicy {
+
+    private int maxAttempts;
+    private Duration initialInterval;
+    private double multiplier;
+    private Duration maxInterval;
+    private double jitter;
+
+    public PollPolicy(int maxAttempts, Duration initialInterval, double multiplier, Duration maxInterval, double jitter) {
+        this.maxAttempts = maxAttempts;
+        this.initialInterval = initialInterval;
+        this.multiplier = multiplier;
+        this.maxInterval = maxInterval;
+        this.jitter = jitter;
+    }
+
+    /**
+     * 计算第 attempt 次查询 (从 1 开始) 之前需要等待的毫秒数。
+     */
+    public long delayMillis(int attempt) {
+        double delay = initialInterval.toMillis() * Math.pow(multiplier, Math.max(0, attempt - 1));
+        delay = Math.min(delay, maxInterval.toMillis());
+        if (jitter > 0) {
+            delay *= 1 + ThreadLocalRandom.current().nextDouble(-jitter, jitter);
+        }
+        return Math.max(0, (long) delay);
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public void setMaxAttempts(int maxAttempts) {
+        this.maxAttempts = maxAttempts;
+    }
+
+    public Duration getInitialInterval() {
+        return initialInterval;
+    }
+
+    public void setInitialInterval(Duration initialInterval) {
+        this.initialInterval = initialInterval;
+    }
+
+    public double getMultiplier() {
+        return multiplier;
+    }
+
+    public void setMultiplier(double multiplier) {
+        this.multiplier = multiplier;
+    }
+
+    public Duration getMaxInterval() {
+        return maxInterval;
+    }
+
+    public void setMaxInterval(Duration maxInterval) {
+        this.maxInterval = maxInterval;
+    }
+
+    public double getJitter() {
+        return jitter;
+    }
+
+    public void setJitter(double jitter) {
+        this.jitter = jitter;
+    }
+}
@@ -0,0 +1,109 @@
+package com.pictech.client;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.pictech.client.transport.RequestBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * 流式写出的带签名 JSON 请求体。
+ * 字段按 key 排序依次写出，图片字段由 {@link Base64EncodingReader} 从输入流边读边编码直接写入连接输出流，
+ * Signature 字段放在最后：签名原文同样按 key 排序，普通参数都是已知的小字符串，
+ * 图片部分在写出的同时送入 {@link PicTechSigner.Session}，因此每张图片只需读取一遍，内存占用与图片大小无关。
+ */
+class StreamingJsonRequestBody implements RequestBody {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory()
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+    private final SortedMap<String, String> params = new TreeMap<>();
+    private final SortedMap<String, ImageSource> images;
+    private final String imagePrefix;
+    private final PicTechSigner signer;
+
+    /**
+     * @param params      普通参数 (包含 AccountId、Timestamp 等公共参数)，空值不参与签名
+     * @param imageField  图片字段名，例如 ImageBase64
+     * @param image       图片来源
+     * @param imagePrefix 写在 Base64 内容之前的文本，例如 Data URL 前缀，不需要时传空字符串
+     * @param signer      签名器
+     */
+    StreamingJsonRequestBody(Map<String, Object> params, String imageField, ImageSource image, String imagePrefix, PicTechSigner signer) {
+        this(params, Collections.singletonMap(imageField, image), imagePrefix, signer);
+    }
+
+    /**
+     * @param params      普通参数 (包含 AccountId、Timestamp 等公共参数)，空值不参与签名
+     * @param images      图片字段名到图片来源的映射，例如 image 和 mask
+     * @param imagePrefix 写在每张图片的 Base64 内容之前的文本，不需要时传空字符串
+     * @param signer      签名器
+     */
+    StreamingJsonRequestBody(Map<String, Object> params, Map<String, ImageSource> images, String imagePrefix, PicTechSigner signer) {
+        for (Map.Entry<String, Object> entry : params.entrySet()) {
+            this.params.put(entry.getKey(), String.valueOf(entry.getValue()));
+        }
+        this.images = new TreeMap<>(images);
+        this.imagePrefix = imagePrefix;
+        this.signer = signer;
+    }
+
+    @Override
+    public String contentType() {
+        return "application/json";
+    }
+
+    @Override
+    public long contentLength() {
+        return -1;
+    }
+
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+        SortedSet<String> fields = new TreeSet<>(params.keySet());
+        fields.addAll(images.keySet());
+
+        PicTechSigner.Session signature = signer.begin();
+        try (JsonGenerator generator = JSON_FACTORY.createGenerator(out)) {
+            generator.writeStartObject();
+            for (String field : fields) {
+                ImageSource image = images.get(field);
+                if (image == null) {
+                    String value = params.get(field);
+                    generator.writeStringField(field, value);
+                    if (isSigned(value)) {
+                        signature.param(field, value);
+                    }
+                    continue;
+                }
+                signature.startParam(field);
+                try (InputStream in = image.openStream();
+                     Base64EncodingReader reader = new Base64EncodingReader(in, imagePrefix, signature)) {
+                    generator.writeFieldName(field);
+                    generator.writeString(reader, -1);
+                    if (reader.getTotalRawBytes() == 0) {
+                        throw new IOException("图片内容为空: " + field);
+                    }
+                }
+            }
+            // 中文备注：finish() 会追加签名原文末尾的 SecretKey
+            generator.writeStringField("Signature", signature.finish());
+            generator.writeEndObject();
+        }
+    }
+
+    /**
+     * 与 {@link PicTechSigner#sign} 保持一致：空值不参与签名。
+     */
+    private static boolean isSigned(String value) {
+        return value != null && !value.isEmpty();
+    }
+}
@@ -0,0 +1,26 @@
+package com.pictech.client;
+
+import com.pictech.client.model.PicTechResponse;
+
+/**
+ * {@link TaskCompletionPoller} 的全局回调，在轮询线程或 I/O 线程上调用，实现中不要执行阻塞操作。
+ */
+public interface TaskCompletionListener {
+
+    /**
+     * 任务进入终态 (Code 不为 202，包括成功和失败)。
+     */
+    void onCompleted(TaskType type, String requestId, PicTechResponse result);
+
+    /**
+     * 任务仍在处理中 (Code 为 202)。
+     */
+    default void onProgress(TaskType type, String requestId, PicTechResponse result, int attempt) {
+    }
+
+    /**
+     * 查询次数用尽或查询持续出错，已停止跟踪该任务。
+     */
+    default void onFailed(TaskType type, String requestId, Throwable error) {
+    }
+}
@@ -0,0 +1,279 @@
+package com.pictech.client;
+
+import com.pictech.client.model.PicTechResponse;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * 统一的上游任务完成轮询器
+ * 所有处理中的 RequestId (翻译和背景移除) 都放在同一个按下次查询时间排序的延迟队列里，
+ * 由一个轮询线程按各任务自己的退避节奏取出并发起异步查询 (查询本身在 I/O 线程池执行)。
+ * 任务进入终态后完成对应的 future 并通知已注册的 {@link TaskCompletionListener}。
+ * 同一个任务被重复跟踪时共用同一个 future，不会产生重复查询。
+ */
+public class TaskCompletionPoller implements AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(TaskCompletionPoller.class.getName());
+
+    private final BiFunction<TaskType, String, CompletableFuture<? extends PicTechResponse>> query;
+    private final PicTechPollProperties properties;
+    private final PicTechMetrics metrics;
+
+    private final DelayQueue<PendingTask> queue = new DelayQueue<>();
+    private final ConcurrentMap<String, PendingTask> pending = new ConcurrentHashMap<>();
+    private final CopyOnWriteArrayList<TaskCompletionListener> listeners = new CopyOnWriteArrayList<>();
+    private final Thread pollerThread;
+    private volatile boolean running = true;
+
+    // --- 统计 ---
+    private final AtomicLong queries = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    /**
+     * @param query      按任务类型发起一次异步结果查询
+     * @param properties 各任务类型的轮询策略
+     * @param metrics    记录查询次数和任务完成耗时
+     */
+    public TaskCompletionPoller(BiFunction<TaskType, String, CompletableFuture<? extends PicTechResponse>> query,
+                                PicTechPollProperties properties, PicTechMetrics metrics) {
+        this.query = query;
+        this.properties = properties;
+        this.metrics = metrics;
+        this.pollerThread = new Thread(this::runLoop, "pictech-poller");
+        this.pollerThread.setDaemon(true);
+        this.pollerThread.start();
+    }
+
+    /**
+     * 开始跟踪一个上游任务。
+     *
+     * @return 任务进入终态时以最后一次查询的响应体完成 (具体类型由查询函数决定)；
+     *         查询次数用尽时以 {@link TimeoutException} 异常完成；轮询器关闭时以 {@link CancellationException} 异常完成
+     */
+    public CompletableFuture<PicTechResponse> track(TaskType type, String requestId) {
+        PendingTask task = pending.computeIfAbsent(key(type, requestId), k -> {
+            PendingTask created = new PendingTask(type, requestId, properties.policyFor(type));
+            created.scheduleNext();
+            queue.add(created);
+            return created;
+        });
+        // 中文备注：关闭后不再有轮询线程，新跟踪的任务不会被查询，直接结束
+        if (!running) {
+            abandon(task);
+        }
+        return task.future;
+    }
+
+    /**
+     * 注册全局回调，所有被跟踪任务的状态变化都会通知到它。
+     */
+    public void addListener(TaskCompletionListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(TaskCompletionListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * @return 当前仍在跟踪中的任务数
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    public long getQueryCount() {
+        return queries.get();
+    }
+
+    public long getCompletedCount() {
+        return completed.get();
+    }
+
+    public long getFailedCount() {
+        return failed.get();
+    }
+
+    // ===================================================================================
+    // =                          私有辅助方法 (Private Helpers)                         =
+    // ===================================================================================
+
+    private void runLoop() {
+        while (running) {
+            try {
+                dispatch(queue.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.SEVERE, "任务轮询线程发生异常", e);
+            }
+        }
+    }
+
+    private void dispatch(PendingTask task) {
+        task.attempt++;
+        queries.incrementAndGet();
+        metrics.recordPollAttempt(task.type);
+        CompletableFuture<? extends PicTechResponse> result;
+        try {
+            result = query.apply(task.type, task.requestId);
+        } catch (RuntimeException e) {
+            result = new CompletableFuture<>();
+            result.completeExceptionally(e);
+        }
+        result.whenComplete((response, error) -> onQueryResult(task, response, error));
+    }
+
+    private void onQueryResult(PendingTask task, PicTechResponse response, Throwable error) {
+        // 中文备注：关闭时仍在查询中的任务已由 close() 结束
+        if (!running) {
+            return;
+        }
+        if (error == null && response != null) {
+            if (!response.isProcessing()) {
+                complete(task, response);
+                return;
+            }
+            notifyListeners(listener -> listener.onProgress(task.type, task.requestId, response, task.attempt));
+        } else {
+            if (error instanceof CompletionException && error.getCause() != null) {
+                error = error.getCause();
+            }
+            task.lastError = error != null ? error : new IllegalStateException("查询无响应");
+            if (!isRetryable(task.lastError)) {
+                fail(task, task.lastError);
+                return;
+            }
+            // 中文备注：其余查询错误视为暂时性问题，按原节奏重试，直到用尽查询次数
+            LOGGER.warning("查询任务 " + task.requestId + " 失败 (第 " + task.attempt + " 次): " + task.lastError.getMessage());
+        }
+
+        if (task.attempt >= task.policy.getMaxAttempts()) {
+            TimeoutException timeout = new TimeoutException("任务 " + task.requestId + " 在 " + task.attempt + " 次尝试后仍未完成，已超时。");
+            if (task.lastError != null) {
+                timeout.initCause(task.lastError);
+            }
+            fail(task, timeout);
+            return;
+        }
+        task.scheduleNext();
+        queue.add(task);
+    }
+
+    private void complete(PendingTask task, PicTechResponse response) {
+        pending.remove(key(task.type, task.requestId), task);
+        completed.incrementAndGet();
+        metrics.recordTaskCompletion(task.type, PicTechMetrics.outcomeOf(response), System.nanoTime() - task.trackedAtNanos, task.attempt);
+        notifyListeners(listener -> listener.onCompleted(task.type, task.requestId, response));
+        task.future.complete(response);
+    }
+
+    private void fail(PendingTask task, Throwable error) {
+        pending.remove(key(task.type, task.requestId), task);
+        failed.incrementAndGet();
+        metrics.recordTaskCompletion(task.type, error instanceof TimeoutException ? "timeout" : "failed",
+                System.nanoTime() - task.trackedAtNanos, task.attempt);
+        LOGGER.severe(error.getMessage());
+        notifyListeners(listener -> listener.onFailed(task.type, task.requestId, error));
+        task.future.completeExceptionally(error);
+    }
+
+    private void notifyListeners(Consumer<TaskCompletionListener> action) {
+        for (TaskCompletionListener listener : listeners) {
+            try {
+                action.accept(listener);
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, "任务回调执行失败", e);
+            }
+        }
+    }
+
+    /**
+     * 上游返回 4xx (408 / 429 除外) 说明查询本身无效，例如 RequestId 不存在或鉴权失败，重试也不会成功；
+     * 网络错误、5xx 和超时可以重试
+     */
+    private static boolean isRetryable(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t instanceof PicTechApiException) {
+                int status = ((PicTechApiException) t).getStatus();
+                return status < 400 || status >= 500 || status == 408 || status == 429;
+            }
+        }
+        return true;
+    }
+
+    private static String key(TaskType type, String requestId) {
+        return type.name() + ":" + requestId;
+    }
+
+    /**
+     * 轮询器关闭时结束仍在跟踪的任务，避免等待结果的调用方永远挂起
+     */
+    private void abandon(PendingTask task) {
+        if (!pending.remove(key(task.type, task.requestId), task)) {
+            return;
+        }
+        CancellationException error = new CancellationException("轮询器已关闭，任务 " + task.requestId + " 不再跟踪");
+        notifyListeners(listener -> listener.onFailed(task.type, task.requestId, error));
+        task.future.completeExceptionally(error);
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        pollerThread.interrupt();
+        queue.clear();
+        pending.values().forEach(this::abandon);
+    }
+
+    /**
+     * 延迟队列中的一个待查询任务，按下一次查询时间排序。
+     */
+    private static class PendingTask implements Delayed {
+        private final TaskType type;
+        private final String requestId;
+        private final PollPolicy policy;
+        private final CompletableFuture<PicTechResponse> future = new CompletableFuture<>();
+        // 中文备注：任务通常在提交成功后立即开始跟踪，以此近似提交时间
+        private final long trackedAtNanos = System.nanoTime();
+        private volatile int attempt;
+        private volatile long nextPollAtNanos;
+        private volatile Throwable lastError;
+
+        PendingTask(TaskType type, String requestId, PollPolicy policy) {
+            this.type = type;
+            this.requestId = requestId;
+            this.policy = policy;
+        }
+
+        void scheduleNext() {
+            nextPollAtNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(policy.delayMillis(attempt + 1));
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(nextPollAtNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(nextPollAtNanos, ((PendingTask) other).nextPollAtNanos);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.pictech.client;
+
+/**
+ * 需要轮询结果的上游异步任务类型
+ */
+public enum TaskType {
+
+    /** 图片翻译 (/submit_task + /query_result) */
+    TRANSLATION,
+
+    /** 背景移除 (/submit_remove_background_task + /query_remove_background_result) */
+    BACKGROUND_REMOVAL
+}
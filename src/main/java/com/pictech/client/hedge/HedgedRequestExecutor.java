@@ -0,0 +1,415 @@
+package com.pictech.client.hedge;
+
+import com.pictech.client.transport.PicTechTransport;
+import com.pictech.client.transport.ResponseHandler;
+import com.pictech.client.transport.StreamingResponse;
+import com.pictech.client.transport.TransportCall;
+import com.pictech.client.transport.TransportRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * 对冲请求执行器，用于降低幂等上游调用的尾延迟。
+ * 1. 第一次请求在 max(minDelay, 最近延迟的 percentile 分位数) 内没有收到响应头时，再发出一次相同的请求；
+ *    延迟窗口只记录第一次请求的延迟 (不是胜出一方的延迟)，否则对冲越成功，统计出的分位数越低；
+ * 2. 两次请求中先收到响应的一方胜出，另一方立即取消；只有两次都失败时才抛出异常；
+ * 3. 每个请求为预算增加 budgetRatio 个额度，每次对冲消耗 1 个，因此对冲请求数不会超过请求总数的 budgetRatio 倍。
+ * 第一次请求和 handler 都在调用线程上执行，只有对冲请求使用最多 maxThreads 个线程的线程池，线程都在忙时不再对冲。
+ */
+public class HedgedRequestExecutor implements AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(HedgedRequestExecutor.class.getName());
+
+    // 中文备注：预算最多积累的额度，避免长时间空闲后出现大量集中对冲
+    private static final double MAX_BUDGET = 10;
+
+    /** 不占用并发许可时使用的空释放回调 */
+    public static final Runnable NO_PERMIT = () -> {
+    };
+
+    private final PicTechTransport transport;
+    private final double percentile;
+    private final long minDelayNanos;
+    private final int minSamples;
+    private final double budgetRatio;
+    private final LatencyWindow latencies;
+    private final ScheduledExecutorService timer;
+    private final ThreadPoolExecutor executor;
+
+    private final Object budgetLock = new Object();
+    private double budget;
+
+    // --- 统计 ---
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong hedged = new AtomicLong();
+    private final AtomicLong hedgeWins = new AtomicLong();
+    private final AtomicLong budgetDenied = new AtomicLong();
+    private final AtomicLong permitDenied = new AtomicLong();
+    private final AtomicLong threadsBusy = new AtomicLong();
+
+    public HedgedRequestExecutor(PicTechTransport transport, PicTechHedgeProperties properties) {
+        this.transport = transport;
+        this.percentile = Math.min(1.0, Math.max(0.0, properties.getPercentile()));
+        this.minDelayNanos = properties.getMinDelay().toNanos();
+        this.minSamples = Math.max(1, properties.getMinSamples());
+        // 中文备注：预算比例上限为 1，保证对冲最多让上游负载翻倍
+        this.budgetRatio = Math.min(1.0, Math.max(0.0, properties.getBudgetRatio()));
+        this.latencies = new LatencyWindow(properties.getWindowSize());
+        ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, namedDaemonThreads("pictech-hedge-timer"));
+        // 中文备注：第一次请求在对冲延迟内完成时取消定时任务，避免已取消的任务堆积在队列中
+        timer.setRemoveOnCancelPolicy(true);
+        this.timer = timer;
+        int maxThreads = Math.max(1, properties.getMaxThreads());
+        // 中文备注：SynchronousQueue 不排队，线程都在忙时直接拒绝，对冲只在有空闲线程时发出
+        this.executor = new ThreadPoolExecutor(maxThreads, maxThreads, 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), namedDaemonThreads("pictech-hedge"));
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * 执行请求，必要时发出一次对冲请求。
+     *
+     * @param request 请求，两次尝试发送完全相同的内容，因此只能用于幂等请求
+     * @param handler 处理胜出一方响应的回调
+     * @param permits 发出对冲请求前调用，返回释放该次请求所占资源的回调；返回 null 表示当前不允许对冲
+     * @return handler 的返回值
+     * @throws IOException 所有尝试都失败 (抛出最后一次失败的异常)，或等待期间线程被中断
+     */
+    public <T> T execute(TransportRequest request, ResponseHandler<T> handler, Supplier<Runnable> permits) throws IOException {
+        try (StreamingResponse response = open(request, permits)) {
+            return handler.handle(response);
+        }
+    }
+
+    /**
+     * 与 {@link #execute} 相同，但返回胜出一方仍然打开的响应，调用方读取完响应体后必须关闭，
+     * 关闭时一并释放胜出一方占用的资源。
+     */
+    public StreamingResponse open(TransportRequest request, Supplier<Runnable> permits) throws IOException {
+        requests.incrementAndGet();
+        depositBudget();
+        long startNanos = System.nanoTime();
+        long delayNanos = hedgeDelayNanos();
+
+        Race race = new Race();
+        Attempt primary = race.register(transport.newCall(request), false, NO_PERMIT);
+        ScheduledFuture<?> hedge = delayNanos < 0 ? null
+                : timer.schedule(() -> tryHedge(race, request, permits), delayNanos, TimeUnit.NANOSECONDS);
+        Attempt winner;
+        try {
+            // 中文备注：第一次请求直接在调用线程上执行，对冲请求先返回时会取消它
+            race.run(primary);
+            // 中文备注：对冲胜出时第一次请求被取消，记录到取消为止的时间：它不小于对冲延迟，
+            // 窗口中超过对冲延迟的样本比例仍然正确；第一次请求自身出错时没有有效的延迟，不记录
+            if (primary.response != null || primary.cancelled) {
+                latencies.record(System.nanoTime() - startNanos);
+            }
+            winner = race.await();
+        } finally {
+            if (hedge != null) {
+                hedge.cancel(false);
+            }
+            race.cancelLosers();
+        }
+        if (winner.hedge) {
+            hedgeWins.incrementAndGet();
+        }
+        return new WinningResponse(winner);
+    }
+
+    /**
+     * @return 当前对冲延迟以及请求数、对冲次数、对冲胜出次数、因预算或并发许可不足放弃对冲的次数
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long delayNanos = hedgeDelayNanos();
+        stats.put("hedgeDelayMs", delayNanos < 0 ? null : TimeUnit.NANOSECONDS.toMillis(delayNanos));
+        stats.put("samples", latencies.size());
+        stats.put("p50Ms", toMillis(latencies.percentile(0.50)));
+        stats.put("p99Ms", toMillis(latencies.percentile(0.99)));
+        stats.put("requests", requests.get());
+        stats.put("hedged", hedged.get());
+        stats.put("hedgeWins", hedgeWins.get());
+        stats.put("budgetDenied", budgetDenied.get());
+        stats.put("permitDenied", permitDenied.get());
+        stats.put("threadsBusy", threadsBusy.get());
+        return stats;
+    }
+
+    /**
+     * 停止对冲请求的定时器和线程池，进行中的对冲请求被中断
+     */
+    @Override
+    public void close() {
+        timer.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    // ===================================================================================
+    // =                          私有辅助方法 (Private Helpers)                         =
+    // ===================================================================================
+
+    /**
+     * @return 对冲延迟 (纳秒)，样本不足时返回 -1 表示不对冲
+     */
+    private long hedgeDelayNanos() {
+        if (latencies.size() < minSamples) {
+            return -1;
+        }
+        return Math.max(minDelayNanos, latencies.percentile(percentile));
+    }
+
+    private void tryHedge(Race race, TransportRequest request, Supplier<Runnable> permits) {
+        if (!withdrawBudget()) {
+            budgetDenied.incrementAndGet();
+            return;
+        }
+        Runnable release = permits.get();
+        if (release == null) {
+            // 中文备注：端点已没有空闲并发许可，对冲只会排队，不如继续等待第一次请求
+            refundBudget();
+            permitDenied.incrementAndGet();
+            return;
+        }
+        Attempt attempt = race.register(transport.newCall(request), true, release);
+        if (attempt == null) {
+            // 中文备注：第一次请求已经有结果
+            release.run();
+            refundBudget();
+            return;
+        }
+        try {
+            executor.execute(() -> race.run(attempt));
+        } catch (RejectedExecutionException e) {
+            threadsBusy.incrementAndGet();
+            refundBudget();
+            attempt.release();
+            race.onFailure(e);
+            return;
+        }
+        hedged.incrementAndGet();
+        if (LOGGER.isLoggable(Level.FINE)) {
+            LOGGER.fine("第一次请求未在对冲延迟内响应，已发出对冲请求: " + request.getUrl());
+        }
+    }
+
+    private void depositBudget() {
+        synchronized (budgetLock) {
+            budget = Math.min(MAX_BUDGET, budget + budgetRatio);
+        }
+    }
+
+    private boolean withdrawBudget() {
+        synchronized (budgetLock) {
+            if (budget < 1) {
+                return false;
+            }
+            budget -= 1;
+            return true;
+        }
+    }
+
+    private void refundBudget() {
+        synchronized (budgetLock) {
+            budget = Math.min(MAX_BUDGET, budget + 1);
+        }
+    }
+
+    private static Long toMillis(long nanos) {
+        return nanos < 0 ? null : TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    private static IOException asIOException(Throwable error) {
+        if (error instanceof IOException) {
+            return (IOException) error;
+        }
+        if (error instanceof RuntimeException) {
+            throw (RuntimeException) error;
+        }
+        if (error instanceof Error) {
+            throw (Error) error;
+        }
+        return new IOException(error);
+    }
+
+    private static ThreadFactory namedDaemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * 一次请求的所有尝试，第一个收到响应的尝试胜出。
+     */
+    private final class Race {
+        private final CompletableFuture<Attempt> winner = new CompletableFuture<>();
+        private final List<Attempt> attempts = new ArrayList<>(2);
+        private int failed;
+
+        /**
+         * 登记一次尝试
+         *
+         * @return 登记的尝试；已经有结果 (包括全部失败) 时返回 null，不再发出
+         */
+        synchronized Attempt register(TransportCall call, boolean hedge, Runnable release) {
+            if (winner.isDone()) {
+                return null;
+            }
+            Attempt attempt = new Attempt(call, hedge, release);
+            attempts.add(attempt);
+            return attempt;
+        }
+
+        /**
+         * 在当前线程上执行尝试；胜出时立即取消其他尝试，落后时关闭迟到的响应并归还资源
+         */
+        void run(Attempt attempt) {
+            StreamingResponse response;
+            try {
+                response = attempt.call.execute();
+            } catch (IOException | RuntimeException e) {
+                attempt.release();
+                onFailure(e);
+                return;
+            }
+            attempt.response = response;
+            if (winner.complete(attempt)) {
+                cancelOthers(attempt);
+            } else {
+                closeQuietly(response);
+                attempt.release();
+            }
+        }
+
+        Attempt await() throws IOException {
+            try {
+                return winner.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("等待上游响应时被中断");
+            } catch (ExecutionException e) {
+                throw asIOException(e.getCause());
+            }
+        }
+
+        void cancelLosers() {
+            // 中文备注：先把结果定下来，之后完成的尝试都按失败方处理
+            winner.completeExceptionally(new InterruptedIOException("请求已取消"));
+            cancelOthers(winner.isCompletedExceptionally() ? null : winner.join());
+        }
+
+        private void cancelOthers(Attempt won) {
+            List<Attempt> snapshot;
+            synchronized (this) {
+                snapshot = new ArrayList<>(attempts);
+            }
+            for (Attempt attempt : snapshot) {
+                if (attempt != won) {
+                    attempt.cancelled = true;
+                    attempt.call.cancel();
+                }
+            }
+        }
+
+        synchronized void onFailure(Throwable error) {
+            failed++;
+            if (failed == attempts.size()) {
+                winner.completeExceptionally(error);
+            }
+        }
+    }
+
+    private static final class Attempt {
+        private final TransportCall call;
+        private final boolean hedge;
+        private final Runnable release;
+        private final AtomicBoolean released = new AtomicBoolean();
+        private volatile StreamingResponse response;
+        private volatile boolean cancelled;
+
+        Attempt(TransportCall call, boolean hedge, Runnable release) {
+            this.call = call;
+            this.hedge = hedge;
+            this.release = release;
+        }
+
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                release.run();
+            }
+        }
+    }
+
+    /**
+     * 胜出一方的响应，关闭时释放该次尝试占用的资源。
+     */
+    private static final class WinningResponse implements StreamingResponse {
+        private final Attempt attempt;
+
+        WinningResponse(Attempt attempt) {
+            this.attempt = attempt;
+        }
+
+        @Override
+        public int status() {
+            return attempt.response.status();
+        }
+
+        @Override
+        public String header(String name) {
+            return attempt.response.header(name);
+        }
+
+        @Override
+        public long contentLength() {
+            return attempt.response.contentLength();
+        }
+
+        @Override
+        public InputStream body() {
+            return attempt.response.body();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                attempt.response.close();
+            } finally {
+                attempt.release();
+            }
+        }
+    }
+
+    private static void closeQuietly(StreamingResponse response) {
+        try {
+            response.close();
+        } catch (IOException ignored) {
+            // 中文备注：被丢弃的响应，关闭失败无需处理
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.pictech.client.hedge;
+
+import java.util.Arrays;
+
+/**
+ * 最近 N 次请求延迟的环形缓冲区，按需计算分位数。
+ */
+class LatencyWindow {
+
+    private final long[] samples;
+    private int next;
+    private int count;
+
+    LatencyWindow(int size) {
+        this.samples = new long[Math.max(1, size)];
+    }
+
+    synchronized void record(long nanos) {
+        samples[next] = nanos;
+        next = (next + 1) % samples.length;
+        if (count < samples.length) {
+            count++;
+        }
+    }
+
+    synchronized int size() {
+        return count;
+    }
+
+    /**
+     * @param percentile 0~1 之间的分位数
+     * @return 对应分位数的延迟 (纳秒)，没有样本时返回 -1
+     */
+    long percentile(double percentile) {
+        long[] sorted;
+        synchronized (this) {
+            if (count == 0) {
+                return -1;
+            }
+            sorted = Arrays.copyOf(samples, count);
+        }
+        // 中文备注：窗口只有几百个样本，排序一次的开销远小于一次上游调用
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.min(sorted.length - 1, Math.max(0, index))];
+    }
+}
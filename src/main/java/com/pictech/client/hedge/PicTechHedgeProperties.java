@@ -0,0 +1,90 @@
+package com.pictech.client.hedge;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 同步图片修复 (/inpaint_image_sync) 的对冲请求配置，对应 application.properties 中的 pictech.api.hedge.* 配置项。
+ * 第一次请求在最近延迟的指定分位数内仍未响应时，再发出一次相同的请求，取先返回的结果并取消另一个。
+ */
+@ConfigurationProperties(prefix = "pictech.api.hedge")
+public class PicTechHedgeProperties {
+
+    /** 是否启用对冲请求，默认关闭 */
+    private boolean enabled = false;
+
+    /** 触发对冲的延迟分位数 (0~1)，例如 0.95 表示第一次请求慢于最近 95% 的请求时发出对冲 */
+    private double percentile = 0.95;
+
+    /** 对冲延迟的下限，避免上游很快时也频繁对冲 */
+    private Duration minDelay = Duration.ofMillis(50);
+
+    /** 每个请求为对冲预算增加的额度 (0~1)，0.1 表示对冲请求最多占请求总数的 10%，最大为 1 (负载最多翻倍) */
+    private double budgetRatio = 0.1;
+
+    /** 统计延迟分位数使用的最近请求数 */
+    private int windowSize = 256;
+
+    /** 样本数少于该值时不对冲 */
+    private int minSamples = 20;
+
+    /** 执行对冲请求的最大线程数，线程都在忙时不再对冲 (第一次请求在调用线程上执行，不占用这些线程) */
+    private int maxThreads = 16;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public double getPercentile() {
+        return percentile;
+    }
+
+    public void setPercentile(double percentile) {
+        this.percentile = percentile;
+    }
+
+    public Duration getMinDelay() {
+        return minDelay;
+    }
+
+    public void setMinDelay(Duration minDelay) {
+        this.minDelay = minDelay;
+    }
+
+    public double getBudgetRatio() {
+        return budgetRatio;
+    }
+
+    public void setBudgetRatio(double budgetRatio) {
+        this.budgetRatio = budgetRatio;
+    }
+
+    public int getWindowSize() {
+        return windowSize;
+    }
+
+    public void setWindowSize(int windowSize) {
+        this.windowSize = windowSize;
+    }
+
+    public int getMinSamples() {
+        return minSamples;
+    }
+
+    public void setMinSamples(int minSamples) {
+        this.minSamples = minSamples;
+    }
+
+    public int getMaxThreads() {
+        return maxThreads;
+    }
+
+    public void setMaxThreads(int maxThreads) {
+        this.maxThreads = maxThreads;
+    }
+}
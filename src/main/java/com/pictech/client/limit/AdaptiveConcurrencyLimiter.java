@@ -0,0 +1,288 @@
+package com.pictech.client.limit;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 单个上游端点的自适应并发限制器 (AIMD)。
+ * 1. 请求成功且延迟正常时，上限缓慢增长：每次 +1/limit，相当于每一轮并发窗口 +1；
+ * 2. 网络错误、超时、429 / 5xx，或延迟超过基线延迟的 latencyTolerance 倍时，上限乘以 backoffRatio；
+ * 3. 基线延迟取观测到的最低延迟，并缓慢向当前延迟回升，以适应上游正常的延迟变化。
+ * 延迟从请求体写完计到收到响应头 (见 {@link Permit#onRequestSent()})，不包含上传大图片和读取响应体的时间，
+ * 因此客户端上传慢不会被误判为上游拥塞。
+ * 达到上限的请求按配置立即失败或排队等待。
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    // 中文备注：基线延迟向上回升的速度，越小越接近“空载延迟”
+    private static final double BASELINE_RECOVERY = 0.01;
+
+    private final String endpoint;
+    private final PicTechLimitProperties.Mode mode;
+    private final long maxWaitNanos;
+    private final int maxQueue;
+    private final double backoffRatio;
+    private final double latencyTolerance;
+    private final int minLimit;
+    private final int maxLimit;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition permitReleased = lock.newCondition();
+    private double limit;
+    private int inFlight;
+    private int queued;
+    private double baselineRttNanos;
+
+    // --- 统计 ---
+    private long acquired;
+    private long rejected;
+    private long dropped;
+
+    public AdaptiveConcurrencyLimiter(String endpoint, LimitSettings settings, PicTechLimitProperties properties) {
+        this.endpoint = endpoint;
+        this.mode = properties.getMode();
+        this.maxWaitNanos = properties.getMaxWait().toNanos();
+        this.maxQueue = properties.getMaxQueue();
+        this.backoffRatio = properties.getBackoffRatio();
+        this.latencyTolerance = properties.getLatencyTolerance();
+        this.minLimit = Math.max(1, settings.getMinLimit());
+        this.maxLimit = Math.max(this.minLimit, settings.getMaxLimit());
+        this.limit = Math.min(this.maxLimit, Math.max(this.minLimit, settings.getInitialLimit()));
+    }
+
+    /**
+     * 获取一个并发许可。请求结束后必须调用返回许可的 onSuccess / onDropped / onIgnored 之一。
+     *
+     * @throws ConcurrencyLimitExceededException 已达上限且快速失败，或排队超时、队列已满
+     * @throws InterruptedException              排队等待期间线程被中断
+     */
+    public Permit acquire() throws InterruptedException {
+        lock.lock();
+        try {
+            if (inFlight < currentLimit()) {
+                return grant();
+            }
+            if (mode == PicTechLimitProperties.Mode.FAIL_FAST || queued >= maxQueue) {
+                throw reject();
+            }
+            queued++;
+            try {
+                long remaining = maxWaitNanos;
+                while (inFlight >= currentLimit()) {
+                    if (remaining <= 0) {
+                        throw reject();
+                    }
+                    remaining = permitReleased.awaitNanos(remaining);
+                }
+                return grant();
+            } finally {
+                queued--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 不排队地尝试获取一个并发许可，用于可有可无的额外请求 (例如对冲请求)。
+     *
+     * @return 许可，已达上限时返回 null (不计入拒绝次数)
+     */
+    public Permit tryAcquire() {
+        lock.lock();
+        try {
+            return inFlight < currentLimit() ? grant() : null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return 当前并发上限
+     */
+    public int getLimit() {
+        lock.lock();
+        try {
+            return currentLimit();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return 正在排队等待许可的请求数
+     */
+    public int getQueueDepth() {
+        lock.lock();
+        try {
+            return queued;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return 当前上限、并发数、排队数、基线延迟以及拒绝和降级次数
+     */
+    public Map<String, Object> getStats() {
+        lock.lock();
+        try {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("limit", currentLimit());
+            stats.put("inFlight", inFlight);
+            stats.put("queueDepth", queued);
+            stats.put("baselineLatencyMs", TimeUnit.NANOSECONDS.toMillis((long) baselineRttNanos));
+            stats.put("acquired", acquired);
+            stats.put("rejected", rejected);
+            stats.put("dropped", dropped);
+            return stats;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ===================================================================================
+    // =                          私有辅助方法 (Private Helpers)                         =
+    // ===================================================================================
+
+    private int currentLimit() {
+        return (int) limit;
+    }
+
+    private Permit grant() {
+        inFlight++;
+        acquired++;
+        return new Permit(System.nanoTime());
+    }
+
+    private ConcurrencyLimitExceededException reject() {
+        rejected++;
+        return new ConcurrencyLimitExceededException(endpoint, String.format(
+                "PicTech API 并发已达上限: %s (limit=%d, inFlight=%d, queued=%d)",
+                endpoint, currentLimit(), inFlight, queued));
+    }
+
+    private void release(Outcome outcome, long rttNanos) {
+        lock.lock();
+        try {
+            inFlight--;
+            int before = currentLimit();
+            if (outcome == Outcome.SUCCESS && isCongested(rttNanos)) {
+                outcome = Outcome.DROPPED;
+            }
+            if (outcome == Outcome.SUCCESS) {
+                updateBaseline(rttNanos);
+                // 中文备注：并发远低于上限时说明上限不是瓶颈，不再继续增长
+                if (inFlight + 1 >= limit / 2) {
+                    limit = Math.min(maxLimit, limit + 1.0 / limit);
+                }
+            } else if (outcome == Outcome.DROPPED) {
+                dropped++;
+                limit = Math.max(minLimit, limit * backoffRatio);
+            }
+            if (currentLimit() > before) {
+                permitReleased.signalAll();
+            } else {
+                permitReleased.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean isCongested(long rttNanos) {
+        return latencyTolerance > 0 && baselineRttNanos > 0 && rttNanos > baselineRttNanos * latencyTolerance;
+    }
+
+    private void updateBaseline(long rttNanos) {
+        if (baselineRttNanos <= 0 || rttNanos < baselineRttNanos) {
+            baselineRttNanos = rttNanos;
+        } else {
+            baselineRttNanos += (rttNanos - baselineRttNanos) * BASELINE_RECOVERY;
+        }
+    }
+
+    private enum Outcome {
+        SUCCESS, DROPPED, IGNORED
+    }
+
+    /**
+     * 一次请求持有的并发许可，只有第一次结束调用生效。
+     */
+    public final class Permit {
+        private final long startNanos;
+        private boolean released;
+        // 中文备注：请求体由传输层写出，对冲请求时可能在其他线程上回调
+        private volatile boolean sent;
+        private volatile long sentNanos;
+        private volatile boolean received;
+        private volatile long receivedNanos;
+
+        private Permit(long startNanos) {
+            this.startNanos = startNanos;
+        }
+
+        /**
+         * 请求体已全部写出，延迟从这里开始计算。只记录第一次：连接失败后重发或对冲请求不会推迟起点。
+         * 没有调用时从获取许可时开始计算。
+         */
+        public void onRequestSent() {
+            if (!sent) {
+                sentNanos = System.nanoTime();
+                sent = true;
+            }
+        }
+
+        /**
+         * 收到响应头，延迟计算到这里为止。没有调用时计算到请求结束。
+         */
+        public void onResponseReceived() {
+            if (!received) {
+                receivedNanos = System.nanoTime();
+                received = true;
+            }
+        }
+
+        /**
+         * 请求成功，按本次延迟调整上限。
+         */
+        public void onSuccess() {
+            finish(Outcome.SUCCESS);
+        }
+
+        /**
+         * 网络错误、超时或上游过载 (429 / 5xx)，降低上限。
+         */
+        public void onDropped() {
+            finish(Outcome.DROPPED);
+        }
+
+        /**
+         * 与上游负载无关的失败 (例如参数错误)，只归还许可，不调整上限。
+         */
+        public void onIgnored() {
+            finish(Outcome.IGNORED);
+        }
+
+        private void finish(Outcome outcome) {
+            if (released) {
+                return;
+            }
+            released = true;
+            long endNanos = received ? receivedNanos : System.nanoTime();
+            release(outcome, endNanos - (sent ? sentNanos : startNanos));
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.pictech.client.limit;
+
+/**
+ * 上游并发已达上限，且请求在允许的等待时间内没有拿到许可。
+ */
+public class ConcurrencyLimitExceededException extends RuntimeException {
+
+    private final String endpoint;
+
+    public ConcurrencyLimitExceededException(String endpoint, String message) {
+        super(message);
+        this.endpoint = endpoint;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+}
@@ -0,0 +1,39 @@
+package com.pictech.client.limit;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 按上游端点 (例如 "/submit_task"、"/query_result") 分别维护的并发限制器。
+ */
+public class EndpointConcurrencyLimits {
+
+    private final PicTechLimitProperties properties;
+    private final ConcurrentMap<String, AdaptiveConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+
+    public EndpointConcurrencyLimits(PicTechLimitProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * @return 指定端点的限制器，未启用并发限制时返回 null
+     */
+    public AdaptiveConcurrencyLimiter forEndpoint(String endpoint) {
+        if (!properties.isEnabled()) {
+            return null;
+        }
+        return limiters.computeIfAbsent(endpoint,
+                key -> new AdaptiveConcurrencyLimiter(key, properties.settingsFor(key), properties));
+    }
+
+    /**
+     * @return 每个已使用过的端点的当前上限、并发数和排队数
+     */
+    public Map<String, Map<String, Object>> getStats() {
+        Map<String, Map<String, Object>> stats = new LinkedHashMap<>();
+        limiters.forEach((endpoint, limiter) -> stats.put(endpoint, limiter.getStats()));
+        return stats;
+    }
+}
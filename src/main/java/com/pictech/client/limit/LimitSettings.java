@@ -0,0 +1,49 @@
+package com.pictech.client.limit;
+
+/**
+ * 单个端点的并发上限范围，上限在 [minLimit, maxLimit] 内根据延迟和错误自动调整。
+ */
+public class LimitSettings {
+
+    /** 初始并发上限 */
+    private int initialLimit = 16;
+
+    /** 并发上限的下界，出错再多也至少保留这么多并发 */
+    private int minLimit = 2;
+
+    /** 并发上限的上界 */
+    private int maxLimit = 128;
+
+    public LimitSettings() {
+    }
+
+    public LimitSettings(int initialLimit, int minLimit, int maxLimit) {
+        this.initialLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+    }
+
+    public int getInitialLimit() {
+        return initialLimit;
+    }
+
+    public void setInitialLimit(int initialLimit) {
+        this.initialLimit = initialLimit;
+    }
+
+    public int getMinLimit() {
+        return minLimit;
+    }
+
+    public void setMinLimit(int minLimit) {
+        this.minLimit = minLimit;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    public void setMaxLimit(int maxLimit) {
+        this.maxLimit = maxLimit;
+    }
+}
@@ -0,0 +1,116 @@
+package com.pictech.client.limit;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 上游并发限制配置，对应 application.properties 中的 pictech.api.limit.* 配置项。
+ */
+@ConfigurationProperties(prefix = "pictech.api.limit")
+public class PicTechLimitProperties {
+
+    /**
+     * 达到并发上限时的处理方式。
+     */
+    public enum Mode {
+        /** 立即拒绝 */
+        FAIL_FAST,
+        /** 排队等待，最多等待 maxWait */
+        QUEUE
+    }
+
+    /** 是否启用并发限制 */
+    private boolean enabled = true;
+
+    /** 达到并发上限时的处理方式 */
+    private Mode mode = Mode.QUEUE;
+
+    /** 排队模式下的最长等待时间 */
+    private Duration maxWait = Duration.ofSeconds(2);
+
+    /** 每个端点最多排队的请求数，超出后直接拒绝 */
+    private int maxQueue = 100;
+
+    /** 出错或延迟过高时并发上限乘以该系数 */
+    private double backoffRatio = 0.9;
+
+    /** 延迟超过基线延迟的多少倍视为上游过载，0 表示只根据错误调整 */
+    private double latencyTolerance = 2.0;
+
+    /** 各端点默认的并发上限范围 */
+    private final LimitSettings defaults = new LimitSettings();
+
+    /** 按端点覆盖并发上限范围，key 为去掉斜杠、下划线换成横线的端点名，例如 inpaint-image-sync */
+    private final Map<String, LimitSettings> endpoints = new LinkedHashMap<>();
+
+    /**
+     * 返回指定端点 (例如 "/submit_task") 的并发上限范围。
+     */
+    public LimitSettings settingsFor(String endpoint) {
+        LimitSettings settings = endpoints.get(keyOf(endpoint));
+        return settings != null ? settings : defaults;
+    }
+
+    static String keyOf(String endpoint) {
+        return endpoint.replace("/", "").replace('_', '-');
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public void setMode(Mode mode) {
+        this.mode = mode;
+    }
+
+    public Duration getMaxWait() {
+        return maxWait;
+    }
+
+    public void setMaxWait(Duration maxWait) {
+        this.maxWait = maxWait;
+    }
+
+    public int getMaxQueue() {
+        return maxQueue;
+    }
+
+    public void setMaxQueue(int maxQueue) {
+        this.maxQueue = maxQueue;
+    }
+
+    public double getBackoffRatio() {
+        return backoffRatio;
+    }
+
+    public void setBackoffRatio(double backoffRatio) {
+        this.backoffRatio = backoffRatio;
+    }
+
+    public double getLatencyTolerance() {
+        return latencyTolerance;
+    }
+
+    public void setLatencyTolerance(double latencyTolerance) {
+        this.latencyTolerance = latencyTolerance;
+    }
+
+    public LimitSettings getDefaults() {
+        return defaults;
+    }
+
+    public Map<String, LimitSettings> getEndpoints() {
+        return endpoints;
+    }
+}
@@ -0,0 +1,108 @@
+package com.pictech.client.model;
+
+import com.fasterxml.jackson.annotation.JsonAnyGetter;
+import com.fasterxml.jackson.annotation.JsonAnySetter;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * PicTech API 响应的公共字段，也用于解析 4xx / 5xx 时返回的错误响应体。
+ * 响应会原样返回给浏览器：未声明的字段保存在 {@link #getAdditionalProperties()} 中并按原样写出，
+ * 值为 null 的字段同样保留。
+ */
+public class PicTechResponse {
+
+    /** 成功 */
+    public static final int CODE_SUCCESS = 200;
+    /** 任务处理中 */
+    public static final int CODE_PROCESSING = 202;
+
+    // 中文备注：响应中缺少 Code 时视为 -1，与原先 getOrDefault("Code", -1) 的处理一致
+    @JsonProperty("Code")
+    private int code = -1;
+
+    @JsonProperty("Message")
+    private String message;
+
+    @JsonProperty("RequestId")
+    private String requestId;
+
+    // 中文备注：ErrorCode 只出现在错误响应中，成功响应不写出这个字段
+    @JsonProperty("ErrorCode")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String errorCode;
+
+    // 中文备注：大多数响应没有未声明的字段，用到时才创建
+    private Map<String, Object> additionalProperties;
+
+    public int getCode() {
+        return code;
+    }
+
+    public PicTechResponse setCode(int code) {
+        this.code = code;
+        return this;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public PicTechResponse setMessage(String message) {
+        this.message = message;
+        return this;
+    }
+
+    public String getRequestId() {
+        return requestId;
+    }
+
+    public PicTechResponse setRequestId(String requestId) {
+        this.requestId = requestId;
+        return this;
+    }
+
+    public String getErrorCode() {
+        return errorCode;
+    }
+
+    public PicTechResponse setErrorCode(String errorCode) {
+        this.errorCode = errorCode;
+        return this;
+    }
+
+    /**
+     * @return 上游返回的未声明字段，按出现顺序排列
+     */
+    @JsonAnyGetter
+    public Map<String, Object> getAdditionalProperties() {
+        return additionalProperties != null ? additionalProperties : Collections.emptyMap();
+    }
+
+    @JsonAnySetter
+    public PicTechResponse setAdditionalProperty(String name, Object value) {
+        if (additionalProperties == null) {
+            additionalProperties = new LinkedHashMap<>();
+        }
+        additionalProperties.put(name, value);
+        return this;
+    }
+
+    @JsonIgnore
+    public boolean isSuccess() {
+        return code == CODE_SUCCESS;
+    }
+
+    /**
+     * @return 任务是否仍在处理中 (Code 为 202)
+     */
+    @JsonIgnore
+    public boolean isProcessing() {
+        return code == CODE_PROCESSING;
+    }
+}
@@ -0,0 +1,46 @@
+package com.pictech.client.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * 抠图结果查询接口的响应，只解析下载结果所需的 OutputUrl，Data 中的其余字段直接跳过。
+ */
+public class RemoveBackgroundResultResponse extends PicTechResponse {
+
+    @JsonProperty("Data")
+    private Result data;
+
+    public Result getData() {
+        return data;
+    }
+
+    public RemoveBackgroundResultResponse setData(Result data) {
+        this.data = data;
+        return this;
+    }
+
+    /**
+     * @return 结果图片 URL，不存在时为 null
+     */
+    @JsonIgnore
+    public String getOutputUrl() {
+        return data != null ? data.getOutputUrl() : null;
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Result {
+        @JsonProperty("OutputUrl")
+        private String outputUrl;
+
+        public String getOutputUrl() {
+            return outputUrl;
+        }
+
+        public Result setOutputUrl(String outputUrl) {
+            this.outputUrl = outputUrl;
+            return this;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.pictech.client.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+
+/**
+ * 提交任务接口 (翻译、抠图) 的响应，调用方只关心 Code 和 RequestId，Data 以原始 JSON 保留。
+ */
+public class SubmitTaskResponse extends PicTechResponse {
+
+    @JsonProperty("Data")
+    @JsonRawValue
+    @JsonDeserialize(using = RawJsonDeserializer.class)
+    private String data;
+
+    /**
+     * @return Data 字段的原始 JSON 文本，不存在时为 null
+     */
+    public String getData() {
+        return data;
+    }
+
+    public SubmitTaskResponse setData(String data) {
+        this.data = data;
+        return this;
+    }
+}
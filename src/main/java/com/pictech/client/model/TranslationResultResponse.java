@@ -0,0 +1,65 @@
+package com.pictech.client.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.pictech.dto.TranslationData;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * 翻译结果查询接口的响应。
+ * Data (包含体积很大的 TemplateJson) 以原始 JSON 文本保存，返回给前端时原样写出；
+ * 轮询只需要 Code，只有调用 {@link #getResultData()} 时才会解析 Data。
+ */
+public class TranslationResultResponse extends PicTechResponse {
+
+    private static final ObjectReader DATA_READER = new ObjectMapper()
+            .readerFor(TranslationData.class)
+            .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    @JsonProperty("Data")
+    @JsonRawValue
+    @JsonDeserialize(using = RawJsonDeserializer.class)
+    private String data;
+
+    @JsonIgnore
+    private volatile TranslationData resultData;
+
+    /**
+     * @return Data 字段的原始 JSON 文本，不存在时为 null
+     */
+    public String getData() {
+        return data;
+    }
+
+    public TranslationResultResponse setData(String data) {
+        this.data = data;
+        this.resultData = null;
+        return this;
+    }
+
+    /**
+     * 按需解析 Data 字段，解析结果会被缓存。
+     *
+     * @return 翻译结果，Data 不存在时为 null
+     */
+    @JsonIgnore
+    public TranslationData getResultData() {
+        TranslationData parsed = resultData;
+        if (parsed == null && data != null) {
+            try {
+                parsed = DATA_READER.readValue(data);
+            } catch (IOException e) {
+                throw new UncheckedIOException("解析翻译结果 Data 失败: " + e.getMessage(), e);
+            }
+            resultData = parsed;
+        }
+        return parsed;
+    }
+}
@@ -0,0 +1,20 @@
+package com.pictech.client.transport;
+
+/**
+ * 上游接口的超时分类。
+ * 提交、查询、同步修复和结果下载的耗时差异很大，因此各自使用独立的超时配置。
+ */
+public enum EndpointProfile {
+
+    /** 提交任务 (/submit_task, /submit_remove_background_task)，请求体可能包含整张图片 */
+    SUBMIT,
+
+    /** 查询任务结果 (/query_result, /query_remove_background_result)，请求和响应都很小 */
+    QUERY,
+
+    /** 同步图片修复 (/inpaint_image_sync)，上游需要完成整个推理过程才会返回 */
+    INPAINT,
+
+    /** 下载结果图片 (OutputUrl) */
+    DOWNLOAD
+}
@@ -0,0 +1,144 @@
+package com.pictech.client.transport;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * 基于 JDK HttpURLConnection 的传输层实现，不引入额外依赖，主要用于对比和排查问题。
+ * 连接复用由 JDK 内部的 keep-alive 缓存负责 (受系统属性 http.maxConnections 控制)，
+ * 连接池相关配置对该实现无效，但超时配置仍然生效。
+ */
+public class JdkHttpTransport implements PicTechTransport {
+
+    private static final Logger LOGGER = Logger.getLogger(JdkHttpTransport.class.getName());
+
+    private final PicTechHttpProperties properties;
+
+    public JdkHttpTransport(PicTechHttpProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public TransportCall newCall(TransportRequest request) {
+        return new JdkCall(request);
+    }
+
+    @Override
+    public void warmUp(String url, int connections) {
+        // 中文备注：HttpURLConnection 只有在响应被完整读取后才会把连接放回 keep-alive 缓存，
+        // 串行预热只能得到一条连接，这里只做一次探测以提前完成 DNS 解析和握手
+        try {
+            execute(TransportRequest.head(url, EndpointProfile.QUERY), response -> null);
+            LOGGER.info("连接预热完成: " + url);
+        } catch (IOException e) {
+            LOGGER.warning("连接预热失败: " + url + ", 错误: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        // 中文备注：HttpURLConnection 的连接缓存由 JDK 全局管理，无需释放
+    }
+
+    /**
+     * 取消时断开底层连接，阻塞中的读写会立即以异常结束。
+     */
+    private class JdkCall implements TransportCall {
+        private final TransportRequest request;
+        private volatile HttpURLConnection connection;
+        private volatile boolean cancelled;
+
+        JdkCall(TransportRequest request) {
+            this.request = request;
+        }
+
+        @Override
+        public StreamingResponse execute() throws IOException {
+            HttpURLConnection connection = (HttpURLConnection) new URL(request.getUrl()).openConnection();
+            this.connection = connection;
+            if (cancelled) {
+                connection.disconnect();
+                throw new IOException("Canceled");
+            }
+            PicTechHttpProperties.EndpointTimeout timeout = properties.timeoutFor(request.getProfile());
+            connection.setConnectTimeout((int) properties.getConnectTimeout().toMillis());
+            connection.setReadTimeout((int) timeout.getRead().toMillis());
+            connection.setRequestMethod(request.getMethod());
+            for (Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+                connection.setRequestProperty(header.getKey(), header.getValue());
+            }
+
+            RequestBody body = request.getBody();
+            if (body != null) {
+                connection.setDoOutput(true);
+                connection.setRequestProperty("Content-Type", body.contentType());
+                // 中文备注：显式指定流式模式，避免 HttpURLConnection 把整个请求体缓存在内存中
+                if (body.contentLength() >= 0) {
+                    connection.setFixedLengthStreamingMode(body.contentLength());
+                } else {
+                    connection.setChunkedStreamingMode(0);
+                }
+                try (OutputStream out = connection.getOutputStream()) {
+                    body.writeTo(out);
+                }
+            }
+
+            int status = connection.getResponseCode();
+            InputStream stream = status >= 400 ? connection.getErrorStream() : connection.getInputStream();
+            return new JdkResponse(connection, status, stream != null ? stream : new ByteArrayInputStream(new byte[0]));
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            HttpURLConnection current = connection;
+            if (current != null) {
+                current.disconnect();
+            }
+        }
+    }
+
+    private static class JdkResponse implements StreamingResponse {
+        private final HttpURLConnection connection;
+        private final int status;
+        private final InputStream body;
+
+        JdkResponse(HttpURLConnection connection, int status, InputStream body) {
+            this.connection = connection;
+            this.status = status;
+            this.body = body;
+        }
+
+        @Override
+        public int status() {
+            return status;
+        }
+
+        @Override
+        public String header(String name) {
+            return connection.getHeaderField(name);
+        }
+
+        @Override
+        public long contentLength() {
+            return connection.getContentLengthLong();
+        }
+
+        @Override
+        public InputStream body() {
+            return body;
+        }
+
+        @Override
+        public void close() throws IOException {
+            // 中文备注：关闭响应流后连接会回到 JDK 的 keep-alive 缓存
+            body.close();
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.pictech.client.transport;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.Headers;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.BufferedSink;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * 基于 OkHttp 的默认传输层实现。
+ * 所有接口类别共用同一个连接池和调度器，只是各自的读写超时不同。
+ */
+public class OkHttpTransport implements PicTechTransport {
+
+    private static final Logger LOGGER = Logger.getLogger(OkHttpTransport.class.getName());
+
+    private final OkHttpClient baseClient;
+    private final Map<EndpointProfile, OkHttpClient> clients = new EnumMap<>(EndpointProfile.class);
+    private final PicTechHttpProperties properties;
+
+    public OkHttpTransport(PicTechHttpProperties properties) {
+        this.properties = properties;
+        ConnectionPool pool = new ConnectionPool(
+                properties.getMaxIdleConnections(),
+                properties.getKeepAlive().toMillis(),
+                TimeUnit.MILLISECONDS);
+        // 中文备注：异步调用 (如连接预热) 受调度器的单主机并发上限约束，默认只有 5
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequestsPerHost(Math.max(dispatcher.getMaxRequestsPerHost(), properties.getWarmupConnections()));
+        this.baseClient = new OkHttpClient.Builder()
+                .connectionPool(pool)
+                .dispatcher(dispatcher)
+                .connectTimeout(properties.getConnectTimeout())
+                .retryOnConnectionFailure(true)
+                .build();
+        // 中文备注：newBuilder() 派生出的客户端与 baseClient 共享连接池和调度器
+        for (EndpointProfile profile : EndpointProfile.values()) {
+            PicTechHttpProperties.EndpointTimeout timeout = properties.timeoutFor(profile);
+            clients.put(profile, baseClient.newBuilder()
+                    .readTimeout(timeout.getRead())
+                    .writeTimeout(timeout.getWrite())
+                    .callTimeout(timeout.getCall())
+                    .build());
+        }
+    }
+
+    @Override
+    public TransportCall newCall(TransportRequest request) {
+        Call call = clients.get(request.getProfile()).newCall(toOkHttpRequest(request));
+        return new TransportCall() {
+            @Override
+            public StreamingResponse execute() throws IOException {
+                return new OkHttpResponse(call.execute());
+            }
+
+            @Override
+            public void cancel() {
+                call.cancel();
+            }
+        };
+    }
+
+    @Override
+    public void warmUp(String url, int connections) {
+        if (connections <= 0) {
+            return;
+        }
+        long startTime = System.currentTimeMillis();
+        CountDownLatch latch = new CountDownLatch(connections);
+        Request request = new Request.Builder().url(url).head().build();
+        // 中文备注：并发发起请求，才能让连接池中真正建立多个连接，而不是复用同一个
+        for (int i = 0; i < connections; i++) {
+            clients.get(EndpointProfile.QUERY).newCall(request).enqueue(new Callback() {
+                @Override
+                public void onResponse(@NotNull Call call, @NotNull Response response) {
+                    response.close();
+                    latch.countDown();
+                }
+
+                @Override
+                public void onFailure(@NotNull Call call, @NotNull IOException e) {
+                    LOGGER.warning("连接预热失败: " + url + ", 错误: " + e.getMessage());
+                    latch.countDown();
+                }
+            });
+        }
+        try {
+            latch.await(properties.timeoutFor(EndpointProfile.QUERY).getCall().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        LOGGER.info(String.format("连接预热完成: %s, 连接池空闲连接 %d 个, 耗时 %d ms",
+                url, baseClient.connectionPool().idleConnectionCount(), System.currentTimeMillis() - startTime));
+    }
+
+    @Override
+    public void close() {
+        baseClient.dispatcher().executorService().shutdown();
+        baseClient.connectionPool().evictAll();
+    }
+
+    private Request toOkHttpRequest(TransportRequest request) {
+        Request.Builder builder = new Request.Builder().url(request.getUrl());
+        for (Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+            builder.header(header.getKey(), header.getValue());
+        }
+        RequestBody body = request.getBody();
+        builder.method(request.getMethod(), body == null ? null : new OkHttpRequestBody(body));
+        return builder.build();
+    }
+
+    /**
+     * 把 {@link RequestBody} 适配为 OkHttp 的请求体，写入时直接写到连接的输出流。
+     */
+    private static class OkHttpRequestBody extends okhttp3.RequestBody {
+        private final RequestBody delegate;
+
+        OkHttpRequestBody(RequestBody delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public MediaType contentType() {
+            return MediaType.parse(delegate.contentType());
+        }
+
+        @Override
+        public long contentLength() {
+            return delegate.contentLength();
+        }
+
+        @Override
+        public void writeTo(@NotNull BufferedSink sink) throws IOException {
+            delegate.writeTo(sink.outputStream());
+        }
+    }
+
+    private static class OkHttpResponse implements StreamingResponse {
+        private final Response response;
+
+        OkHttpResponse(Response response) {
+            this.response = response;
+        }
+
+        @Override
+        public int status() {
+            return response.code();
+        }
+
+        @Override
+        public String header(String name) {
+            Headers headers = response.headers();
+            return headers.get(name);
+        }
+
+        @Override
+        public long contentLength() {
+            ResponseBody body = response.body();
+            return body == null ? -1 : body.contentLength();
+        }
+
+        @Override
+        public InputStream body() {
+            ResponseBody body = response.body();
+            return body == null ? new ByteArrayInputStream(new byte[0]) : body.byteStream();
+        }
+
+        @Override
+        public void close() {
+            response.close();
+        }
+    }
+}
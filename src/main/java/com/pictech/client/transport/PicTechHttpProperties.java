@@ -0,0 +1,169 @@
+package com.pictech.client.transport;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * PicTech API HTTP 传输层配置，对应 application.properties 中的 pictech.api.http.* 配置项。
+ * 不在 Spring 环境中使用时 (例如 demo)，直接 new 出来即为默认配置。
+ */
+@ConfigurationProperties(prefix = "pictech.api.http")
+public class PicTechHttpProperties {
+
+    /** 传输层实现: okhttp (默认，带连接池) 或 jdk (HttpURLConnection) */
+    private String transport = "okhttp";
+
+    /** 建立 TCP 连接的超时时间 */
+    private Duration connectTimeout = Duration.ofSeconds(5);
+
+    /** 连接池中最多保留的空闲连接数 */
+    private int maxIdleConnections = 32;
+
+    /** 空闲连接在连接池中的保活时间 */
+    private Duration keepAlive = Duration.ofMinutes(5);
+
+    /** 启动时是否预热连接 */
+    private boolean warmupEnabled = true;
+
+    /** 启动时预先建立的连接数 */
+    private int warmupConnections = 4;
+
+    /** 各类接口的超时配置 */
+    private final Timeouts timeouts = new Timeouts();
+
+    /**
+     * 返回指定接口类别的超时配置。
+     */
+    public EndpointTimeout timeoutFor(EndpointProfile profile) {
+        switch (profile) {
+            case SUBMIT:
+                return timeouts.getSubmit();
+            case QUERY:
+                return timeouts.getQuery();
+            case INPAINT:
+                return timeouts.getInpaint();
+            case DOWNLOAD:
+            default:
+                return timeouts.getDownload();
+        }
+    }
+
+    public String getTransport() {
+        return transport;
+    }
+
+    public void setTransport(String transport) {
+        this.transport = transport;
+    }
+
+    public Duration getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public void setConnectTimeout(Duration connectTimeout) {
+        this.connectTimeout = connectTimeout;
+    }
+
+    public int getMaxIdleConnections() {
+        return maxIdleConnections;
+    }
+
+    public void setMaxIdleConnections(int maxIdleConnections) {
+        this.maxIdleConnections = maxIdleConnections;
+    }
+
+    public Duration getKeepAlive() {
+        return keepAlive;
+    }
+
+    public void setKeepAlive(Duration keepAlive) {
+        this.keepAlive = keepAlive;
+    }
+
+    public boolean isWarmupEnabled() {
+        return warmupEnabled;
+    }
+
+    public void setWarmupEnabled(boolean warmupEnabled) {
+        this.warmupEnabled = warmupEnabled;
+    }
+
+    public int getWarmupConnections() {
+        return warmupConnections;
+    }
+
+    public void setWarmupConnections(int warmupConnections) {
+        this.warmupConnections = warmupConnections;
+    }
+
+    public Timeouts getTimeouts() {
+        return timeouts;
+    }
+
+    /**
+     * 按接口类别划分的超时配置。
+     */
+    public static class Timeouts {
+        private final EndpointTimeout submit = new EndpointTimeout(Duration.ofSeconds(30), Duration.ofSeconds(60));
+        private final EndpointTimeout query = new EndpointTimeout(Duration.ofSeconds(5), Duration.ofSeconds(10));
+        private final EndpointTimeout inpaint = new EndpointTimeout(Duration.ofSeconds(60), Duration.ofSeconds(90));
+        private final EndpointTimeout download = new EndpointTimeout(Duration.ofSeconds(30), Duration.ofSeconds(120));
+
+        public EndpointTimeout getSubmit() {
+            return submit;
+        }
+
+        public EndpointTimeout getQuery() {
+            return query;
+        }
+
+        public EndpointTimeout getInpaint() {
+            return inpaint;
+        }
+
+        public EndpointTimeout getDownload() {
+            return download;
+        }
+    }
+
+    /**
+     * 单个接口类别的超时配置。
+     * read 为两次读到数据之间的最长等待时间，write 为两次写出数据之间的最长等待时间 (未配置时与 read 相同)，
+     * call 为整个调用 (含连接、发送和读取) 的总时长上限。
+     */
+    public static class EndpointTimeout {
+        private Duration read;
+        private Duration write;
+        private Duration call;
+
+        public EndpointTimeout(Duration read, Duration call) {
+            this.read = read;
+            this.call = call;
+        }
+
+        public Duration getRead() {
+            return read;
+        }
+
+        public void setRead(Duration read) {
+            this.read = read;
+        }
+
+        public Duration getWrite() {
+            return write != null ? write : read;
+        }
+
+        public void setWrite(Duration write) {
+            this.write = write;
+        }
+
+        public Duration getCall() {
+            return call;
+        }
+
+        public void setCall(Duration call) {
+            this.call = call;
+        }
+    }
+}
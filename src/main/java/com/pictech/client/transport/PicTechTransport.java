@@ -0,0 +1,58 @@
+package com.pictech.client.transport;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * PicTech API 的 HTTP 传输层抽象。
+ * {@link com.pictech.client.ImageTranslationApiClient} 只负责参数、签名和 JSON，
+ * 连接管理、超时和连接池由具体实现负责，可以通过 pictech.api.http.transport 切换。
+ */
+public interface PicTechTransport extends Closeable {
+
+    /**
+     * 同步执行一次 HTTP 调用，并在连接打开期间用 handler 处理响应。
+     * 非 2xx 响应同样交给 handler 处理，是否视为错误由调用方决定。
+     *
+     * @throws IOException 连接失败、超时或 handler 抛出的异常
+     */
+    default <T> T execute(TransportRequest request, ResponseHandler<T> handler) throws IOException {
+        try (StreamingResponse response = open(request)) {
+            return handler.handle(response);
+        }
+    }
+
+    /**
+     * 同步执行一次 HTTP 调用并返回仍然打开的响应，调用方读取完响应体后必须关闭它。
+     * 适用于响应体需要在当前方法之外继续读取的场景，其余情况请使用 {@link #execute}。
+     *
+     * @throws IOException 连接失败或超时
+     */
+    default StreamingResponse open(TransportRequest request) throws IOException {
+        return newCall(request).execute();
+    }
+
+    /**
+     * 创建一次尚未执行、可以取消的调用。
+     */
+    TransportCall newCall(TransportRequest request);
+
+    /**
+     * 预先建立到指定地址的连接，使第一批真实请求不必承担 TCP/TLS 握手的开销。
+     * 预热失败只记录日志，不抛出异常。
+     *
+     * @param url         预热地址 (通常为 API 基础 URL)
+     * @param connections 预热的连接数
+     */
+    void warmUp(String url, int connections);
+
+    /**
+     * 根据配置创建传输层实现。
+     */
+    static PicTechTransport create(PicTechHttpProperties properties) {
+        if ("jdk".equalsIgnoreCase(properties.getTransport())) {
+            return new JdkHttpTransport(properties);
+        }
+        return new OkHttpTransport(properties);
+    }
+}
@@ -0,0 +1,48 @@
+package com.pictech.client.transport;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * 发送给上游的请求体。
+ * 由传输层在连接建立后回调 {@link #writeTo(OutputStream)}，实现类可以直接把内容写入连接输出流。
+ */
+public interface RequestBody {
+
+    /**
+     * @return 请求体的 Content-Type
+     */
+    String contentType();
+
+    /**
+     * @return 请求体长度，未知时返回 -1 (将使用 chunked 传输)
+     */
+    long contentLength();
+
+    /**
+     * 将请求体写入输出流。实现类不应关闭该输出流。
+     */
+    void writeTo(OutputStream out) throws IOException;
+
+    /**
+     * 使用内存中的字节数组作为请求体。
+     */
+    static RequestBody of(byte[] bytes, String contentType) {
+        return new RequestBody() {
+            @Override
+            public String contentType() {
+                return contentType;
+            }
+
+            @Override
+            public long contentLength() {
+                return bytes.length;
+            }
+
+            @Override
+            public void writeTo(OutputStream out) throws IOException {
+                out.write(bytes);
+            }
+        };
+    }
+}
@@ -0,0 +1,12 @@
+package com.pictech.client.transport;
+
+import java.io.IOException;
+
+/**
+ * 在连接仍然打开时处理上游响应，可以直接读取响应体流而无需先整体缓存到内存。
+ */
+@FunctionalInterface
+public interface ResponseHandler<T> {
+
+    T handle(TransportResponse response) throws IOException;
+}
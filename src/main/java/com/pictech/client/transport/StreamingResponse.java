@@ -0,0 +1,10 @@
+package com.pictech.client.transport;
+
+import java.io.Closeable;
+
+/**
+ * 由调用方负责关闭的上游响应，用于把响应体交给调用线程以外的代码继续读取
+ * (例如直接转发给浏览器)。关闭后连接才会归还连接池。
+ */
+public interface StreamingResponse extends TransportResponse, Closeable {
+}
@@ -0,0 +1,21 @@
+package com.pictech.client.transport;
+
+import java.io.IOException;
+
+/**
+ * 一次可以取消的 HTTP 调用，用于需要中途放弃的场景 (例如对冲请求中较慢的一方)。
+ */
+public interface TransportCall {
+
+    /**
+     * 同步执行调用，收到响应头后返回仍然打开的响应，调用方负责关闭。
+     *
+     * @throws IOException 连接失败、超时或调用已被取消
+     */
+    StreamingResponse execute() throws IOException;
+
+    /**
+     * 取消调用：尚未完成时会中断连接，使 {@link #execute()} 尽快以异常结束。可以在任意线程调用。
+     */
+    void cancel();
+}
@@ -0,0 +1,69 @@
+package com.pictech.client.transport;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 一次上游 HTTP 调用的描述：方法、完整 URL、超时分类、请求头和请求体。
+ */
+public class TransportRequest {
+
+    private final String method;
+    private final String url;
+    private final EndpointProfile profile;
+    private final RequestBody body;
+    private final Map<String, String> headers = new LinkedHashMap<>();
+
+    private TransportRequest(String method, String url, EndpointProfile profile, RequestBody body) {
+        this.method = method;
+        this.url = url;
+        this.profile = profile;
+        this.body = body;
+    }
+
+    public static TransportRequest post(String url, EndpointProfile profile, RequestBody body) {
+        return new TransportRequest("POST", url, profile, body);
+    }
+
+    public static TransportRequest get(String url, EndpointProfile profile) {
+        return new TransportRequest("GET", url, profile, null);
+    }
+
+    public static TransportRequest head(String url, EndpointProfile profile) {
+        return new TransportRequest("HEAD", url, profile, null);
+    }
+
+    public TransportRequest header(String name, String value) {
+        this.headers.put(name, value);
+        return this;
+    }
+
+    /**
+     * @return 方法、URL、超时配置和请求头都相同，只替换请求体的新请求
+     */
+    public TransportRequest withBody(RequestBody body) {
+        TransportRequest copy = new TransportRequest(method, url, profile, body);
+        copy.headers.putAll(headers);
+        return copy;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public EndpointProfile getProfile() {
+        return profile;
+    }
+
+    public RequestBody getBody() {
+        return body;
+    }
+
+    public Map<String, String> getHeaders() {
+        return headers;
+    }
+}
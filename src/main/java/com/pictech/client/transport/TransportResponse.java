@@ -0,0 +1,32 @@
+package com.pictech.client.transport;
+
+import java.io.InputStream;
+
+/**
+ * 上游 HTTP 响应的只读视图。
+ * 响应体流只在 {@link ResponseHandler#handle(TransportResponse)} 执行期间有效，由传输层负责关闭。
+ */
+public interface TransportResponse {
+
+    int status();
+
+    /**
+     * @return 响应头的值，不存在时返回 null
+     */
+    String header(String name);
+
+    /**
+     * @return 响应体长度，未知时返回 -1
+     */
+    long contentLength();
+
+    InputStream body();
+
+    default boolean isSuccessful() {
+        return status() >= 200 && status() < 300;
+    }
+
+    default String contentType() {
+        return header("Content-Type");
+    }
+}
@@ -0,0 +1,124 @@
+package com.pictech.config;
+
+import com.pictech.service.AssetStorage;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 按内容寻址的静态资源 (文件名为内容的 SHA-256，见 {@link AssetStorage.Area#isContentAddressed()}) 的 HTTP 缓存：
+ * 1. 同一 URL 的内容永不改变，响应 Cache-Control: public, max-age=一年, immutable，浏览器不再重新验证；
+ * 2. 以 SHA-256 作为强 ETag，If-None-Match 命中时直接返回 304，不读取文件；
+ * 3. 不带 Range 的大文件交给 Tomcat 的 sendfile (FileChannel.transferTo) 发送，不经过 JVM 堆内存的复制；
+ *    Range 请求和小文件仍由 Spring 的静态资源处理器发送。
+ * 以上只在文件确实存在 (后台尚未写盘的文件，或磁盘上的普通文件) 时生效；哈希不存在或文件已被清理时
+ * 不加缓存头，交给静态资源处理器返回 404，避免浏览器和代理把 404 缓存一年。
+ * 其他文件 (旧的按日期保存的文件) 不做处理。
+ */
+class ImmutableAssetInterceptor implements HandlerInterceptor {
+
+    private static final String CACHE_CONTROL = "public, max-age=31536000, immutable";
+
+    private static final Pattern CONTENT_ADDRESSED = Pattern.compile("[0-9a-f]{2}/([0-9a-f]{64})\\.[A-Za-z0-9]+");
+    // 中文备注：Tomcat 支持 sendfile 时设置 SENDFILE_SUPPORT 请求属性，设置 SENDFILE_FILENAME 等属性后由连接器发送文件
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final AssetStorage assetStorage;
+    private final AssetStorage.Area area;
+    private final Path directory;
+    private final long sendfileMinSize;
+
+    ImmutableAssetInterceptor(AssetStorage assetStorage, AssetStorage.Area area, Path directory, long sendfileMinSize) {
+        this.assetStorage = assetStorage;
+        this.area = area;
+        this.directory = directory;
+        this.sendfileMinSize = sendfileMinSize;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+        String method = request.getMethod();
+        Object path = request.getAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE);
+        if (!("GET".equals(method) || "HEAD".equals(method)) || path == null) {
+            return true;
+        }
+        Matcher matcher = CONTENT_ADDRESSED.matcher(path.toString());
+        if (!matcher.matches()) {
+            return true;
+        }
+
+        // 中文备注：后台尚未写盘的文件由 PendingAssetResolver 从暂存文件读取
+        boolean pending = assetStorage.readPending(area.getUrlPrefix() + "/" + path) != null;
+        Path file = directory.resolve(path.toString());
+        BasicFileAttributes attributes = pending ? null : regularFileAttributes(file);
+        if (!pending && attributes == null) {
+            return true;
+        }
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        // 中文备注：checkNotModified 同时写入 ETag 响应头，后续的静态资源处理器会保留它
+        String etag = "\"" + matcher.group(1) + "\"";
+        if (new ServletWebRequest(request, response).checkNotModified(etag)) {
+            return false;
+        }
+        return pending || !sendfile(request, response, file, attributes);
+    }
+
+    // ===================================================================================
+    // =                          私有辅助方法 (Private Helpers)                         =
+    // ===================================================================================
+
+    /**
+     * 满足条件时设置响应头并交给 Tomcat 发送文件
+     *
+     * @return 已交给 Tomcat 发送时返回 true
+     */
+    private boolean sendfile(HttpServletRequest request, HttpServletResponse response, Path file,
+                             BasicFileAttributes attributes) throws IOException {
+        if (!"GET".equals(request.getMethod()) || request.getHeader(HttpHeaders.RANGE) != null
+                || !Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))
+                || attributes.size() < sendfileMinSize) {
+            return false;
+        }
+
+        if (new ServletWebRequest(request, response).checkNotModified(attributes.lastModifiedTime().toMillis())) {
+            return true;
+        }
+        response.setContentType(MediaTypeFactory.getMediaType(file.getFileName().toString())
+                .orElse(MediaType.APPLICATION_OCTET_STREAM).toString());
+        response.setContentLengthLong(attributes.size());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+        request.setAttribute(SENDFILE_START, 0L);
+        request.setAttribute(SENDFILE_END, attributes.size());
+        return true;
+    }
+
+    /**
+     * @return 普通文件的属性，文件不存在或不是普通文件时返回 null
+     */
+    private static BasicFileAttributes regularFileAttributes(Path file) throws IOException {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            return attributes.isRegularFile() ? attributes : null;
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.pictech.config;
+
+import com.pictech.service.AssetStorage;
+import org.springframework.core.io.Resource;
+import org.springframework.web.servlet.resource.ResourceResolver;
+import org.springframework.web.servlet.resource.ResourceResolverChain;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.List;
+
+/**
+ * 静态资源解析器：文件已提交但后台尚未写盘时，由 {@link AssetStorage} 中的内容应答，
+ * 保证上传接口返回的 URL 立即可以访问；其余请求交给后续的解析器从磁盘读取。
+ */
+class PendingAssetResolver implements ResourceResolver {
+
+    private final AssetStorage assetStorage;
+    private final String urlPrefix;
+
+    PendingAssetResolver(AssetStorage assetStorage, AssetStorage.Area area) {
+        this.assetStorage = assetStorage;
+        this.urlPrefix = area.getUrlPrefix() + "/";
+    }
+
+    @Override
+    public Resource resolveResource(HttpServletRequest request, String requestPath,
+                                    List<? extends Resource> locations, ResourceResolverChain chain) {
+        Resource pending = assetStorage.readPending(urlPrefix + requestPath);
+        return pending != null ? pending : chain.resolveResource(request, requestPath, locations);
+    }
+
+    @Override
+    public String resolveUrlPath(String resourcePath, List<? extends Resource> locations, ResourceResolverChain chain) {
+        return chain.resolveUrlPath(resourcePath, locations);
+    }
+}
@@ -0,0 +1,62 @@
+package com.pictech.config;
+
+import com.pictech.client.ImageTranslationApiAsyncClient;
+import com.pictech.client.PicTechMetrics;
+import com.pictech.client.PicTechPollProperties;
+import com.pictech.client.TaskCompletionPoller;
+import com.pictech.client.hedge.PicTechHedgeProperties;
+import com.pictech.client.limit.PicTechLimitProperties;
+import com.pictech.client.transport.PicTechHttpProperties;
+import com.pictech.client.transport.PicTechTransport;
+import com.pictech.service.AssetStorageProperties;
+import com.pictech.service.ImagePreprocessProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * PicTech API 客户端相关配置
+ * 创建 HTTP 传输层，并在应用启动完成后预热到上游的连接；暴露共享的任务完成轮询器
+ */
+@Configuration
+@EnableConfigurationProperties({PicTechHttpProperties.class, PicTechPollProperties.class, PicTechLimitProperties.class,
+        PicTechHedgeProperties.class, ImagePreprocessProperties.class, AssetStorageProperties.class})
+public class PicTechClientConfig {
+
+    @Bean(destroyMethod = "close")
+    public PicTechTransport picTechTransport(PicTechHttpProperties properties) {
+        return PicTechTransport.create(properties);
+    }
+
+    /**
+     * 客户端指标，注册到 Actuator 自动配置的 MeterRegistry，通过 /actuator/prometheus 导出。
+     */
+    @Bean
+    public PicTechMetrics picTechMetrics(MeterRegistry meterRegistry) {
+        return new PicTechMetrics(meterRegistry);
+    }
+
+    @Bean
+    public ApplicationListener<ApplicationReadyEvent> picTechTransportWarmUp(
+            PicTechTransport transport,
+            PicTechHttpProperties properties,
+            @Value("${pictech.api.base-url}") String apiBaseUrl) {
+        return event -> {
+            if (properties.isWarmupEnabled()) {
+                transport.warmUp(apiBaseUrl, properties.getWarmupConnections());
+            }
+        };
+    }
+
+    /**
+     * 轮询器由异步客户端创建和关闭，这里只是把它暴露给其他组件使用。
+     */
+    @Bean(destroyMethod = "")
+    public TaskCompletionPoller taskCompletionPoller(ImageTranslationApiAsyncClient asyncClient) {
+        return asyncClient.getCompletionPoller();
+    }
+}
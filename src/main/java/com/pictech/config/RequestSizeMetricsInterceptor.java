@@ -0,0 +1,40 @@
+package com.pictech.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * 记录每个接口的请求体字节数 (pictech.http.request.size)，按 URI 模板区分，
+ * 与 Actuator 自带的 http.server.requests 耗时指标使用相同的 uri 标签。
+ * chunked 请求没有 Content-Length，不做记录。
+ */
+public class RequestSizeMetricsInterceptor implements HandlerInterceptor {
+
+    private final MeterRegistry registry;
+
+    public RequestSizeMetricsInterceptor(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        long length = request.getContentLengthLong();
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (length >= 0 && pattern != null) {
+            DistributionSummary.builder("pictech.http.request.size")
+                    .description("接口请求体字节数")
+                    .baseUnit("bytes")
+                    .tag("uri", pattern.toString())
+                    .tag("method", request.getMethod())
+                    .publishPercentileHistogram()
+                    .register(registry)
+                    .record(length);
+        }
+        return true;
+    }
+}
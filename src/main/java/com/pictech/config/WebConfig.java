@@ -1,15 +1,21 @@
 package com.pictech.config;
 
+import com.pictech.service.AssetStorage;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 import java.io.File;
+import java.nio.file.Paths;
 
 /**
  * Web MVC 相关配置
- * 用于添加自定义的静态资源映射
+ * 用于添加自定义的静态资源映射 (按内容寻址的图片带 immutable 缓存头和强 ETag)，以及记录接口请求体大小的拦截器
  */
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
@@ -20,6 +26,27 @@ public class WebConfig implements WebMvcConfigurer {
     @Value("${file.upload-dir}")
     private String uploadDir;
 
+    /**
+     * 按内容寻址的静态资源达到这个大小时由 Tomcat 的 sendfile 发送
+     */
+    @Value("${pictech.assets.sendfile-min-size:48KB}")
+    private DataSize sendfileMinSize;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private AssetStorage assetStorage;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // 中文备注：接口耗时由 Actuator 的 http.server.requests 记录，这里只补充请求体大小
+        registry.addInterceptor(new RequestSizeMetricsInterceptor(meterRegistry)).addPathPatterns("/api/**");
+        // 中文备注：按内容寻址的图片永不改变，加上 immutable 缓存头和强 ETag，大文件走 sendfile
+        registry.addInterceptor(new ImmutableAssetInterceptor(assetStorage, AssetStorage.Area.IOPAINT_FRONT,
+                Paths.get(uploadDir, "iopaint_front"), sendfileMinSize.toBytes())).addPathPatterns("/iopaint_front/**");
+    }
+
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
         // --- 核心配置：添加对 iopaint_front 文件夹的映射 ---
@@ -36,8 +63,11 @@ public class WebConfig implements WebMvcConfigurer {
         String resourceLocation = "file:" + uploadDir + File.separator + "iopaint_front" + File.separator;
 
         // 3. 将 URL 模式和物理路径进行映射。
+        //    刚上传、后台尚未写盘的文件先由 AssetStorage 中的内容应答，上传接口返回的 URL 立即可以访问。
         registry.addResourceHandler(resourceHandler)
-                .addResourceLocations(resourceLocation);
+                .addResourceLocations(resourceLocation)
+                .resourceChain(false)
+                .addResolver(new PendingAssetResolver(assetStorage, AssetStorage.Area.IOPAINT_FRONT));
 
         System.out.println("============================================================");
         System.out.println("自定义静态资源映射已配置:");
@@ -0,0 +1,82 @@
+package com.pictech.controller;
+
+import com.pictech.client.ImageTranslationApiClient;
+import com.pictech.client.TaskCompletionPoller;
+import com.pictech.service.AssetStorage;
+import com.pictech.service.BatchTranslationService;
+import com.pictech.service.ImagePreprocessor;
+import com.pictech.service.SubmitDeduplicationService;
+import com.pictech.service.TaskEventService;
+import com.pictech.service.TaskResultQueryService;
+import com.pictech.service.UpstreamRequestExecutor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 运行状态统计接口，用于观察缓存命中率、轮询任务数、上游并发限制等内部指标
+ */
+@RestController
+@RequestMapping("/api/stats")
+public class StatsController {
+
+    private final TaskResultQueryService resultQueryService;
+    private final SubmitDeduplicationService deduplication;
+    private final ImagePreprocessor preprocessor;
+    private final BatchTranslationService batchTranslationService;
+    private final TaskEventService taskEventService;
+    private final UpstreamRequestExecutor upstreamExecutor;
+    private final AssetStorage assetStorage;
+    private final TaskCompletionPoller completionPoller;
+    private final ImageTranslationApiClient apiClient;
+
+    @Autowired
+    public StatsController(TaskResultQueryService resultQueryService, SubmitDeduplicationService deduplication,
+                           ImagePreprocessor preprocessor, BatchTranslationService batchTranslationService,
+                           TaskEventService taskEventService, UpstreamRequestExecutor upstreamExecutor,
+                           AssetStorage assetStorage, TaskCompletionPoller completionPoller, ImageTranslationApiClient apiClient) {
+        this.resultQueryService = resultQueryService;
+        this.deduplication = deduplication;
+        this.preprocessor = preprocessor;
+        this.batchTranslationService = batchTranslationService;
+        this.taskEventService = taskEventService;
+        this.upstreamExecutor = upstreamExecutor;
+        this.assetStorage = assetStorage;
+        this.completionPoller = completionPoller;
+        this.apiClient = apiClient;
+    }
+
+    @GetMapping
+    public ResponseEntity<Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("queryCache", resultQueryService.getStats());
+        stats.put("submitDedup", deduplication.getStats());
+        stats.put("preprocess", preprocessor.getStats());
+        stats.put("batch", batchTranslationService.getStats());
+        stats.put("events", taskEventService.getStats());
+        stats.put("webExecutor", upstreamExecutor.getStats());
+
+        // 中文备注：图片文件的后台写入，dropped 为因队列已满而未保存的擦除结果数
+        stats.put("storage", assetStorage.getStats());
+
+        Map<String, Object> poller = new LinkedHashMap<>();
+        poller.put("pending", completionPoller.getPendingCount());
+        poller.put("queries", completionPoller.getQueryCount());
+        poller.put("completed", completionPoller.getCompletedCount());
+        poller.put("failed", completionPoller.getFailedCount());
+        stats.put("poller", poller);
+
+        // 中文备注：各上游端点当前的并发上限、并发数和排队数
+        stats.put("concurrencyLimits", apiClient.getConcurrencyLimits().getStats());
+        if (apiClient.getInpaintHedging() != null) {
+            stats.put("inpaintHedging", apiClient.getInpaintHedging().getStats());
+        }
+
+        return ResponseEntity.ok(stats);
+    }
+}
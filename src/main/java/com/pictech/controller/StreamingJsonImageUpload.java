@@ -0,0 +1,95 @@
+package com.pictech.controller;
+
+import com.fasterxml.jackson.core.Base64Variant;
+import com.fasterxml.jackson.core.Base64Variants;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 以 Jackson 流式解析器读取 {"imageBase64": "...", "filename": "..."} 形式的 JSON 上传请求。
+ * 图片字段在解析的同时逐块做 Base64 解码，写入调用方提供的输出流 (通常是 AssetStorage 暂存文件的输出流)，
+ * 不生成完整的 Base64 字符串和解码后的 byte[]，每个请求占用的内存与图片大小无关；
+ * 其他字段为普通的小字符串，无论位于图片字段之前还是之后都可以读取。
+ */
+final class StreamingJsonImageUpload {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    // 中文备注：与 Base64.getDecoder() 保持一致，末尾的 = 填充可有可无 (Jackson 读取时也会检查写出填充的设置)
+    private static final Base64Variant BASE64 = Base64Variants.MIME_NO_LINEFEEDS.withWritePadding(false).withPaddingAllowed();
+
+    private final Map<String, String> fields = new HashMap<>();
+    private boolean imageRead;
+    private long size;
+
+    private StreamingJsonImageUpload() {
+    }
+
+    /**
+     * 解析请求体，解码后的图片写入 image。
+     *
+     * @param body       请求体，读完后关闭
+     * @param imageField Base64 图片字段名
+     * @param image      图片的输出流，应带缓冲，由调用方关闭；解析失败时由调用方丢弃已写入的内容
+     * @throws JsonParseException 请求体不是 JSON 对象，或图片字段不是有效的 Base64
+     */
+    static StreamingJsonImageUpload read(InputStream body, String imageField, OutputStream image) throws IOException {
+        StreamingJsonImageUpload upload = new StreamingJsonImageUpload();
+        try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "请求体必须是 JSON 对象");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if (imageField.equals(name) && value == JsonToken.VALUE_STRING) {
+                    upload.writeImage(parser, image);
+                } else if (value.isScalarValue() && value != JsonToken.VALUE_NULL) {
+                    upload.fields.put(name, parser.getText());
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return upload;
+    }
+
+    /**
+     * @return 图片以外的字段值，不存在时返回 null
+     */
+    String field(String name) {
+        return fields.get(name);
+    }
+
+    /**
+     * @return 解码后的图片字节数，请求中没有图片字段或内容为空时返回 0
+     */
+    long size() {
+        return size;
+    }
+
+    // ===================================================================================
+    // =                          私有辅助方法 (Private Helpers)                         =
+    // ===================================================================================
+
+    private void writeImage(JsonParser parser, OutputStream image) throws IOException {
+        if (imageRead) {
+            throw new JsonParseException(parser, "图片字段重复");
+        }
+        imageRead = true;
+        // 中文备注：解析器每解码约 2KB 写出一次，由调用方的缓冲合并后再写入文件
+        try {
+            size = parser.readBinaryValue(BASE64, image);
+        } catch (IllegalArgumentException e) {
+            // 中文备注：readBinaryValue 遇到非法字符时抛出的是 IllegalArgumentException
+            throw new JsonParseException(parser, "无效的Base64数据: " + e.getMessage(), e);
+        }
+    }
+}
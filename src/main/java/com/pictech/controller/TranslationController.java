@@ -1,25 +1,57 @@
 package com.pictech.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.util.JSONPObject;
+import com.pictech.client.ImageSource;
+import com.pictech.client.ImageTranslationApiClient.ImageStream;
+import com.pictech.client.PicTechMetrics;
+import com.pictech.client.model.SubmitTaskResponse;
+import com.pictech.client.model.TranslationResultResponse;
 import com.pictech.dto.*;
+import com.pictech.service.AssetStorage;
+import com.pictech.service.AssetStorage.Area;
+import com.pictech.service.BatchTranslationService;
+import com.pictech.service.TaskEventService;
 import com.pictech.service.TranslationService;
+import com.pictech.service.UpstreamRequestExecutor;
+import com.pictech.service.UpstreamRequestExecutor.Bulkhead;
+import org.apache.commons.fileupload.FileItemIterator;
+import org.apache.commons.fileupload.FileItemStream;
+import org.apache.commons.fileupload.FileUploadBase;
+import org.apache.commons.fileupload.FileUploadException;
+import org.apache.commons.fileupload.servlet.ServletFileUpload;
+import org.apache.commons.fileupload.util.LimitedInputStream;
+import org.apache.commons.fileupload.util.Streams;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.CloseShieldOutputStream;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.StreamUtils;
 import org.springframework.util.StringUtils;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
-import java.io.File;
-import java.io.FileOutputStream;
+import javax.servlet.http.HttpServletRequest;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.text.SimpleDateFormat;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * 提供图片翻译的 RESTful API 接口
@@ -29,52 +61,97 @@ import java.util.*;
 @RequestMapping("/api/translate")
 public class TranslationController {
 
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final byte[] BASE64_JSON_PREFIX = "{\"newImageBase64\":\"".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] BASE64_JSON_SUFFIX = "\"}".getBytes(StandardCharsets.US_ASCII);
+
     private final TranslationService translationService;
-    // 【新增】通过 @Value 注解从 application.properties 文件中读取上传路径
-    // 这样配置更灵活，避免硬编码
-    @Value("${file.upload-dir}")
-    private String uploadDir;
+    private final BatchTranslationService batchTranslationService;
+    private final TaskEventService taskEventService;
+    private final UpstreamRequestExecutor upstreamExecutor;
+    private final AssetStorage assetStorage;
+    private final PicTechMetrics metrics;
+
+    // 中文备注：流式上传不经过 Spring 的 multipart 解析，沿用同一组大小限制
+    @Value("${spring.servlet.multipart.max-file-size:5MB}")
+    private DataSize maxFileSize;
+    @Value("${spring.servlet.multipart.max-request-size:5MB}")
+    private DataSize maxRequestSize;
 
     @Autowired
-    public TranslationController(TranslationService translationService) {
+    public TranslationController(TranslationService translationService, BatchTranslationService batchTranslationService,
+                                 TaskEventService taskEventService, UpstreamRequestExecutor upstreamExecutor,
+                                 AssetStorage assetStorage, PicTechMetrics metrics) {
         this.translationService = translationService;
+        this.batchTranslationService = batchTranslationService;
+        this.taskEventService = taskEventService;
+        this.upstreamExecutor = upstreamExecutor;
+        this.assetStorage = assetStorage;
+        this.metrics = metrics;
     }
 
     /**
      * 接口1: 通过图片 URL 提交翻译任务
      */
     @PostMapping("/url")
-    public ResponseEntity<Object> submitFromUrl(@RequestBody UrlTranslationRequest request) {
-        try {
-            Map<String, Object> result = translationService.submitTaskFromUrl(
-                    request.getImageUrl(),
-                    request.getSourceLanguage(),
-                    request.getTargetLanguage()
-            );
-            return ResponseEntity.ok(result);
-        } catch (Exception e) {
-            // 使用 Collections.singletonMap() 替换 Map.of()
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(Collections.singletonMap("error", e.getMessage()));
-        }
+    public CompletableFuture<ResponseEntity<Object>> submitFromUrl(@RequestBody UrlTranslationRequest request) {
+        return async(Bulkhead.API, () -> {
+            try {
+                SubmitTaskResponse result = translationService.submitTaskFromUrl(
+                        request.getImageUrl(),
+                        request.getSourceLanguage(),
+                        request.getTargetLanguage()
+                );
+                return ResponseEntity.ok(result);
+            } catch (Exception e) {
+                // 使用 Collections.singletonMap() 替换 Map.of()
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                        .body(Collections.singletonMap("error", e.getMessage()));
+            }
+        });
     }
 
     /**
      * 接口2: 通过 Base64 字符串提交翻译任务
      */
     @PostMapping("/base64")
-    public ResponseEntity<Object> submitFromBase64(@RequestBody Base64TranslationRequest request) {
+    public CompletableFuture<ResponseEntity<Object>> submitFromBase64(@RequestBody Base64TranslationRequest request) {
+        return async(Bulkhead.API, () -> {
+            try {
+                SubmitTaskResponse result = translationService.submitTaskFromBase64(
+                        request.getImageBase64(),
+                        request.getSourceLanguage(),
+                        request.getTargetLanguage()
+                );
+                return ResponseEntity.ok(result);
+            } catch (Exception e) {
+                // 使用 Collections.singletonMap() 替换 Map.of()
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                        .body(Collections.singletonMap("error", e.getMessage()));
+            }
+        });
+    }
+
+    /**
+     * 接口2 (二进制): multipart/form-data 请求与 /upload/stream 相同。
+     */
+    @PostMapping(value = "/base64", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public DeferredResult<ResponseEntity<Object>> submitFromMultipart(HttpServletRequest request) {
+        return submitFromStreamingUpload(request);
+    }
+
+    /**
+     * 接口2 (二进制): 请求体直接是图片字节 (application/octet-stream 或 image/*)，语言参数放在查询字符串中。
+     * 请求体先接收到临时文件，没有 Base64 JSON 的解析和解码；上游调用期间不占用 Servlet 线程。
+     */
+    @PostMapping(value = "/base64", consumes = {MediaType.APPLICATION_OCTET_STREAM_VALUE, "image/*"})
+    public DeferredResult<ResponseEntity<Object>> submitFromBinary(HttpServletRequest request,
+                                                                   @RequestParam("sourceLanguage") String sourceLanguage,
+                                                                   @RequestParam("targetLanguage") String targetLanguage) {
         try {
-            Map<String, Object> result = translationService.submitTaskFromBase64(
-                    request.getImageBase64(),
-                    request.getSourceLanguage(),
-                    request.getTargetLanguage()
-            );
-            return ResponseEntity.ok(result);
-        } catch (Exception e) {
-            // 使用 Collections.singletonMap() 替换 Map.of()
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(Collections.singletonMap("error", e.getMessage()));
+            return submitSpooled(spoolUpload(limitedRequestBody(request)), request.getContentType(), sourceLanguage, targetLanguage);
+        } catch (IOException e) {
+            return completed(streamingUploadError(e));
         }
     }
 
@@ -82,20 +159,61 @@ public class TranslationController {
      * 接口3: 通过文件上传方式提交翻译任务 (推荐)
      */
     @PostMapping("/upload")
-    public ResponseEntity<Object> submitFromFileUpload(@RequestParam("file") MultipartFile file,
-                                                       @RequestParam("sourceLanguage") String sourceLanguage,
-                                                       @RequestParam("targetLanguage") String targetLanguage) {
+    public CompletableFuture<ResponseEntity<Object>> submitFromFileUpload(@RequestParam("file") MultipartFile file,
+                                                                          @RequestParam("sourceLanguage") String sourceLanguage,
+                                                                          @RequestParam("targetLanguage") String targetLanguage) {
         if (file.isEmpty()) {
             // 使用 Collections.singletonMap() 替换 Map.of()
-            return ResponseEntity.badRequest().body(Collections.singletonMap("error", "上传文件不能为空"));
+            return CompletableFuture.completedFuture(
+                    ResponseEntity.badRequest().body(Collections.singletonMap("error", "上传文件不能为空")));
+        }
+        metrics.recordImageSize("translation_upload", file.getSize());
+        // 中文备注：上传文件的临时文件在整个异步请求结束后才会被容器删除，可以在线程池中读取
+        return async(Bulkhead.API, () -> {
+            try {
+                SubmitTaskResponse result = translationService.submitTaskFromFile(file, sourceLanguage, targetLanguage);
+                return ResponseEntity.ok(result);
+            } catch (Exception e) {
+                // 使用 Collections.singletonMap() 替换 Map.of()
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                        .body(Collections.singletonMap("error", e.getMessage()));
+            }
+        });
+    }
+
+    /**
+     * 接口3 (流式): 通过文件上传方式提交翻译任务，参数与接口3相同，但表单中的 sourceLanguage 和 targetLanguage 必须位于 file 之前。
+     * 上传内容不经过 Spring 的 multipart 解析，文件部分直接接收到临时文件，不在内存中缓存整个文件；
+     * 接收完成后才开始上游调用，上游调用在接口线程池中执行，期间不占用 Servlet 线程；线程池过载时返回 503。
+     */
+    @PostMapping("/upload/stream")
+    public DeferredResult<ResponseEntity<Object>> submitFromStreamingUpload(HttpServletRequest request) {
+        if (!ServletFileUpload.isMultipartContent(request)) {
+            return completed(ResponseEntity.badRequest().body(Collections.singletonMap("error", "请求必须是 multipart/form-data")));
         }
+        Map<String, String> fields = new HashMap<>();
         try {
-            Map<String, Object> result = translationService.submitTaskFromFile(file, sourceLanguage, targetLanguage);
-            return ResponseEntity.ok(result);
-        } catch (Exception e) {
-            // 使用 Collections.singletonMap() 替换 Map.of()
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(Collections.singletonMap("error", e.getMessage()));
+            FileItemIterator items = newFileUpload().getItemIterator(request);
+            while (items.hasNext()) {
+                FileItemStream item = items.next();
+                if (item.isFormField()) {
+                    fields.put(item.getFieldName(), Streams.asString(item.openStream(), "UTF-8"));
+                    continue;
+                }
+                if (!"file".equals(item.getFieldName())) {
+                    continue;
+                }
+                String sourceLanguage = fields.get("sourceLanguage");
+                String targetLanguage = fields.get("targetLanguage");
+                if (!StringUtils.hasText(sourceLanguage) || !StringUtils.hasText(targetLanguage)) {
+                    return completed(ResponseEntity.badRequest()
+                            .body(Collections.singletonMap("error", "sourceLanguage 和 targetLanguage 必须位于 file 之前")));
+                }
+                return submitSpooled(spoolUpload(item.openStream()), item.getContentType(), sourceLanguage, targetLanguage);
+            }
+            return completed(ResponseEntity.badRequest().body(Collections.singletonMap("error", "上传文件不能为空")));
+        } catch (FileUploadException | IOException e) {
+            return completed(streamingUploadError(e));
         }
     }
 
@@ -136,85 +254,149 @@ public class TranslationController {
      * 接口4: 查询翻译任务的结果
      */
     @GetMapping("/result/{requestId}")
-    public ResponseEntity<Object> queryResult(@PathVariable String requestId) {
+    public CompletableFuture<ResponseEntity<Object>> queryResult(@PathVariable String requestId) {
+        return async(Bulkhead.API, () -> {
+            try {
+                TranslationResultResponse result = translationService.queryTaskResult(requestId);
+                return ResponseEntity.ok(result);
+            } catch (Exception e) {
+                // 使用 Collections.singletonMap() 替换 Map.of()
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                        .body(Collections.singletonMap("error", e.getMessage()));
+            }
+        });
+    }
+
+    /**
+     * 接口4 (推送): 以 Server-Sent Events 订阅翻译任务的状态，代替前端反复调用接口4。
+     * 状态变化时推送 status 事件，任务结束时推送 result 事件 (内容与接口4相同) 后关闭连接，停止跟踪时推送 error 事件。
+     */
+    @GetMapping(value = "/result/{requestId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> subscribeResult(@PathVariable String requestId) {
         try {
-            Map<String, Object> result = translationService.queryTaskResult(requestId);
-            return ResponseEntity.ok(result);
-        } catch (Exception e) {
-            // 使用 Collections.singletonMap() 替换 Map.of()
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(Collections.singletonMap("error", e.getMessage()));
+            return ResponseEntity.ok(taskEventService.subscribe(requestId));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
         }
     }
 
     /**
-     * 【全新接口】接收前端导出的 Base64 图片并保存到服务器
-     *
-     * @param request 包含 Base64 图片数据、任务ID和文件名的请求对象
-     * @return 成功时返回文件的访问路径，失败时返回错误信息
+     * 接口4 (批量): 一次提交多张图片 (URL 或 Base64)，返回与 items 顺序一一对应的提交结果。
+     * 上游调用以有界并发执行，单张图片失败时对应条目的 Code 不为 200，不影响其他图片；批量线程池排满时返回 503。
      */
-    @PostMapping("/uploadExportedImage")
-    public ResponseEntity<Object> uploadExportedImage(@RequestBody UploadedImageRequest request) {
-        // 1. 参数校验
-        if (request == null || !StringUtils.hasText(request.getImageBase64())) {
-            return ResponseEntity.badRequest().body(Collections.singletonMap("error", "图片数据不能为空"));
+    @PostMapping("/batch")
+    public CompletableFuture<ResponseEntity<Object>> submitBatch(@RequestBody BatchTranslationRequest request) {
+        try {
+            return batchTranslationService.submitBatch(request)
+                    .thenApply(results -> ResponseEntity.<Object>ok(createBatchResponse(results)))
+                    .exceptionally(TranslationController::asyncError);
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.completedFuture(
+                    ResponseEntity.badRequest().body(Collections.singletonMap("error", e.getMessage())));
         }
+    }
 
+    /**
+     * 接口4 (批量): 一次查询多个翻译任务的结果，返回 RequestId 到查询结果的映射；已结束任务的缓存结果直接在本地应答。
+     */
+    @PostMapping("/results")
+    public CompletableFuture<ResponseEntity<Object>> queryResults(@RequestBody BatchResultRequest request) {
         try {
-            // 2. 解码 Base64 字符串为字节数组
-            byte[] imageBytes = Base64.getDecoder().decode(request.getImageBase64());
-
-            // 3. 生成文件名和路径
-            // 为了避免文件名冲突和更好地组织文件，我们创建一个按日期分类的子目录
-            String dateFolder = new SimpleDateFormat("yyyy-MM-dd").format(new Date());
-            Path directoryPath = Paths.get(uploadDir+"/export", dateFolder);
-
-            // 确保目录存在，如果不存在则创建
-            if (!Files.exists(directoryPath)) {
-                Files.createDirectories(directoryPath);
-            }
+            return batchTranslationService.queryResults(request.getRequestIds())
+                    .thenApply(results -> ResponseEntity.<Object>ok(createBatchResponse(results)))
+                    .exceptionally(TranslationController::asyncError);
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.completedFuture(
+                    ResponseEntity.badRequest().body(Collections.singletonMap("error", e.getMessage())));
+        }
+    }
 
-            // 生成一个唯一的文件名来防止覆盖，同时保留原始文件的扩展名
-            String originalFilename = StringUtils.hasText(request.getFilename()) ? request.getFilename() : "exported.png";
-            String fileExtension = "";
-            int dotIndex = originalFilename.lastIndexOf('.');
-            if (dotIndex > 0) {
-                fileExtension = originalFilename.substring(dotIndex);
+    /**
+     * 【全新接口】接收前端导出的 Base64 图片并保存到服务器
+     * 请求体与 {@link UploadedImageRequest} 相同，由 {@link StreamingJsonImageUpload} 流式解析：
+     * Base64 边读边解码写入按日期分类的暂存文件，不生成完整的字符串和 byte[]，每个请求占用的内存与图片大小无关；
+     * fsync 和重命名由 {@link AssetStorage} 在后台完成，返回的路径立即可用。
+     *
+     * @param request 包含 Base64 图片数据、任务ID和文件名的请求
+     * @return 成功时返回文件的访问路径，失败时返回错误信息
+     */
+    @PostMapping("/uploadExportedImage")
+    public ResponseEntity<Object> uploadExportedImage(HttpServletRequest request) {
+        // 1. 解析请求，图片解码后写入 export/日期/ 目录下的暂存文件
+        try (AssetStorage.Staged staged = assetStorage.stage(Area.EXPORT)) {
+            StreamingJsonImageUpload upload;
+            try (OutputStream image = staged.openOutputStream()) {
+                upload = StreamingJsonImageUpload.read(request.getInputStream(), "imageBase64", image);
             }
-            String uniqueFileName = UUID.randomUUID().toString() + fileExtension;
-
-            // 最终文件的完整路径
-            Path filePath = directoryPath.resolve(uniqueFileName);
-            File fileToSave = filePath.toFile();
-
-            // 4. 将字节数组写入文件
-            try (FileOutputStream fos = new FileOutputStream(fileToSave)) {
-                fos.write(imageBytes);
+            if (upload.size() == 0) {
+                return ResponseEntity.badRequest().body(Collections.singletonMap("error", "图片数据不能为空"));
             }
+            metrics.recordImageSize("exported_upload", upload.size());
 
-            System.out.println("成功保存导出图片，路径: " + fileToSave.getAbsolutePath());
+            // 2. 生成唯一文件名防止覆盖，同时保留原始文件的扩展名
+            String originalFilename = StringUtils.hasText(upload.field("filename")) ? upload.field("filename") : "exported.png";
 
-            // 5. 返回成功的响应，包含文件的相对访问路径
+            // 3. 返回成功的响应，包含文件的相对访问路径
             // 注意：这里的路径是给前端访问用的，需要根据你的静态资源服务器配置来调整
-            String accessiblePath = "/" + dateFolder + "/" + uniqueFileName;
             Map<String, Object> responseBody = new HashMap<>();
             responseBody.put("message", "文件上传成功");
-            responseBody.put("filePath", accessiblePath);
+            responseBody.put("filePath", staged.commit(fileExtension(originalFilename)));
 
             return ResponseEntity.ok(responseBody);
 
+        } catch (JsonProcessingException e) {
+            // 请求体不是 JSON 对象或 Base64 解码失败
+            System.err.println("Base64 解码失败: " + e.getOriginalMessage());
+            return ResponseEntity.badRequest()
+                    .body(Collections.singletonMap("error", "无效的Base64数据"));
         } catch (IOException e) {
             System.err.println("文件写入时发生IO异常: " + e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Collections.singletonMap("error", "文件保存失败，服务器IO错误"));
-        } catch (IllegalArgumentException e) {
-            // Base64 解码失败时会抛出这个异常
-            System.err.println("Base64 解码失败: " + e.getMessage());
-            return ResponseEntity.badRequest()
-                    .body(Collections.singletonMap("error", "无效的Base64数据"));
         }
     }
 
+    /**
+     * 【全新接口】uploadExportedImage 的二进制版本，返回内容与 JSON 版本相同。
+     * multipart/form-data 请求的图片放在 file 部分 (可选的 filename 字段须位于 file 之前，否则使用文件部分自带的文件名)；
+     * application/octet-stream 或 image/* 请求体直接是图片字节，文件名放在查询参数 filename 中。
+     * 图片边接收边写入文件，不在内存中缓存。
+     */
+    @PostMapping(value = "/uploadExportedImage",
+            consumes = {MediaType.MULTIPART_FORM_DATA_VALUE, MediaType.APPLICATION_OCTET_STREAM_VALUE, "image/*"})
+    public ResponseEntity<Object> uploadExportedImageBinary(HttpServletRequest request) {
+        try {
+            BinaryUpload upload = openBinaryUpload(request, "file");
+            if (upload == null) {
+                return ResponseEntity.badRequest().body(Collections.singletonMap("error", "图片数据不能为空"));
+            }
+
+            try (AssetStorage.Staged staged = assetStorage.stage(Area.EXPORT)) {
+                long size = writeUpload(upload, staged);
+                if (size == 0) {
+                    return ResponseEntity.badRequest().body(Collections.singletonMap("error", "图片数据不能为空"));
+                }
+                metrics.recordImageSize("exported_upload", size);
+
+                // 中文备注：与 JSON 版本相同，生成唯一文件名并保留原始文件的扩展名
+                String originalFilename = StringUtils.hasText(upload.filename) ? upload.filename : "exported.png";
+                Map<String, Object> responseBody = new HashMap<>();
+                responseBody.put("message", "文件上传成功");
+                responseBody.put("filePath", staged.commit(fileExtension(originalFilename)));
+                return ResponseEntity.ok(responseBody);
+            }
+
+        } catch (FileUploadException | IOException e) {
+            FileUploadException sizeExceeded = sizeLimitExceeded(e);
+            if (sizeExceeded != null) {
+                return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                        .body(Collections.singletonMap("error", "上传文件超过大小限制: " + sizeExceeded.getMessage()));
+            }
+            System.err.println("文件写入时发生IO异常: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Collections.singletonMap("error", "文件保存失败，服务器IO错误"));
+        }
+    }
 
     /**
      * 【新增接口】
@@ -226,114 +408,454 @@ public class TranslationController {
      * @return 包含处理后新图片Base64的响应体
      */
     @PostMapping("/iopaint")
-    public ResponseEntity<Object> performInpainting(@RequestBody IopaintRequest request) {
-        try {
-            // 1. 生成一个唯一的文件名，避免冲突
-            String uniqueImageName = UUID.randomUUID().toString();
-
-            // 3. 生成文件名和路径
-            // 为了避免文件名冲突和更好地组织文件，我们创建一个按日期分类的子目录
-            String dateFolder = new SimpleDateFormat("yyyy-MM-dd").format(new Date());
-            Path directoryPath = Paths.get(uploadDir+"/iopaint", dateFolder);
-
-            // 确保目录存在，如果不存在则创建
-            if (!Files.exists(directoryPath)) {
-                Files.createDirectories(directoryPath);
+    public CompletableFuture<ResponseEntity<Object>> performInpainting(@RequestBody IopaintRequest request) {
+        return async(Bulkhead.INPAINT, () -> {
+            try {
+                // 1. 调用擦除服务，修复结果保留在内存中；启用保存时按日期分类的文件在后台写入，不在请求路径上
+                byte[] imageBytes = translationService.iopaintToBytes(
+                        request.getImage(),
+                        request.getMask()
+                );
+
+                // 2. 将图片内容编码为 Base64 字符串返回给前端
+                //    使用 Collections.singletonMap() 创建一个只包含一个键值对的 Map
+                String newImageBase64 = Base64.getEncoder().encodeToString(imageBytes);
+                return ResponseEntity.ok(Collections.singletonMap("newImageBase64", newImageBase64));
+
+            } catch (Exception e) {
+                // 记录详细错误日志
+                // log.error("Inpainting process failed", e);
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                        .body(Collections.singletonMap("error", "图像擦除处理失败: " + e.getMessage()));
             }
+        });
+    }
 
-            // 2. 调用您现有的 Facade 逻辑来处理擦除，并将结果保存为文件
-            // 注意：这里的 task 参数我们传入 null，如果您的业务需要，请创建或获取一个真实的 PctcBusinessTask
-            String newImageNameWithExt = translationService.iopaint(
-                    request.getImage(),
-                    request.getMask(),
-                    directoryPath.toString(),
-                    uniqueImageName
-            );
-
-            // 3. 读取刚刚保存的新图片文件
-            Path imagePath = directoryPath.resolve(newImageNameWithExt);
-            if (!Files.exists(imagePath)) {
-                throw new RuntimeException("处理后的图片文件未找到: " + imagePath);
+    /**
+     * 接口2 (二进制): multipart/form-data 请求，原图和蒙版分别放在 image 和 mask 文件部分，响应与 /iopaint 相同。
+     * 两张图片以原始字节接收，在写上游请求体时才编码为 Base64，不经过 Base64 JSON 的解析和解码。
+     */
+    @PostMapping(value = "/iopaint", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public CompletableFuture<ResponseEntity<Object>> performInpaintingMultipart(HttpServletRequest request) {
+        Map<String, ImageSource> images;
+        try {
+            images = readInpaintingParts(request);
+        } catch (FileUploadException | IOException e) {
+            return CompletableFuture.completedFuture(streamingUploadError(e));
+        }
+        if (images == null) {
+            return CompletableFuture.completedFuture(
+                    ResponseEntity.badRequest().body(Collections.singletonMap("error", "image 和 mask 不能为空")));
+        }
+        return async(Bulkhead.INPAINT, () -> {
+            try {
+                byte[] imageBytes = translationService.iopaintToBytes(images.get("image"), images.get("mask"));
+                return ResponseEntity.ok(Collections.singletonMap("newImageBase64", Base64.getEncoder().encodeToString(imageBytes)));
+            } catch (Exception e) {
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                        .body(Collections.singletonMap("error", "图像擦除处理失败: " + e.getMessage()));
             }
-            byte[] imageBytes = Files.readAllBytes(imagePath);
-
-            // 4. 将图片文件内容编码为 Base64 字符串
-            String newImageBase64 = Base64.getEncoder().encodeToString(imageBytes);
+        });
+    }
 
-            // 5. 将新的 Base64 字符串返回给前端
-            //    使用 Collections.singletonMap() 创建一个只包含一个键值对的 Map
-            return ResponseEntity.ok(Collections.singletonMap("newImageBase64", newImageBase64));
+    /**
+     * 接口2 (流式): 与 /iopaint 参数相同，上游返回的修复结果边接收边写回浏览器，不在内存中缓存整张图片；
+     * 启用 pictech.api.iopaint.persist 时同时写入 iopaint/日期/ 目录。
+     * format=png (默认) 时响应体为 image/png 二进制；format=base64 时响应体与 /iopaint 相同，
+     * Base64 在写出时逐块编码，不生成中间字符串。
+     */
+    @PostMapping("/iopaint/stream")
+    public DeferredResult<ResponseEntity<StreamingResponseBody>> performInpaintingStream(
+            @RequestBody IopaintRequest request,
+            @RequestParam(value = "format", defaultValue = "png") String format) {
+        return inpaintingStream(format, () -> translationService.openIopaintStream(request.getImage(), request.getMask()));
+    }
 
-        } catch (Exception e) {
-            // 记录详细错误日志
-            // log.error("Inpainting process failed", e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(Collections.singletonMap("error", "图像擦除处理失败: " + e.getMessage()));
+    /**
+     * 接口2 (流式、二进制): 请求与 /iopaint 的 multipart/form-data 版本相同，响应与 /iopaint/stream 相同，
+     * 请求和响应中的图片都不经过 Base64。
+     */
+    @PostMapping(value = "/iopaint/stream", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public DeferredResult<ResponseEntity<StreamingResponseBody>> performInpaintingStreamMultipart(HttpServletRequest request) {
+        // 中文备注：只从查询字符串中取 format，request.getParameter 会触发容器的 multipart 解析并读走请求体
+        String format = ServletUriComponentsBuilder.fromRequest(request).build().getQueryParams().getFirst("format");
+        Map<String, ImageSource> images;
+        try {
+            images = readInpaintingParts(request);
+        } catch (FileUploadException | IOException e) {
+            return completed(sizeLimitExceeded(e) != null
+                    ? streamingError(HttpStatus.PAYLOAD_TOO_LARGE, "上传文件超过大小限制: " + e.getMessage())
+                    : streamingError(HttpStatus.INTERNAL_SERVER_ERROR, e.getMessage()));
         }
+        if (images == null) {
+            return completed(streamingError(HttpStatus.BAD_REQUEST, "image 和 mask 不能为空"));
+        }
+        return inpaintingStream(format != null ? format : "png",
+                () -> translationService.openIopaintStream(images.get("image"), images.get("mask")));
     }
 
-
     /**
      * 【重构接口】接收 Inpaint 后的 Base64 图片，保存到项目静态资源目录并返回可访问 URL
+     * 请求体为 {"imageData": "..."}，与 uploadExportedImage 一样流式解析，Base64 边读边解码写入暂存文件。
+     * 返回的 URL 立即可以访问：后台写盘完成前由暂存文件应答。
      *
-     * @param request 包含 Base64 图片数据的请求对象
+     * @param request 包含 Base64 图片数据的请求
      * @return 包含完整 URL 的标准响应体
      */
     @PostMapping("/uploadIoInpaintImage") // 【修改】接口名称已更改
-    public ResponseEntity<Object> uploadIoInpaintImage(@RequestBody Map<String, String> request) {
-        // 1. 参数校验
-        String imageBase64 = request.get("imageData");
-        if (!StringUtils.hasText(imageBase64)) {
-            return ResponseEntity.badRequest().body(createErrorResponse("图片数据(imageData)不能为空"));
+    public ResponseEntity<Object> uploadIoInpaintImage(HttpServletRequest request) {
+        // 1. 解析请求并校验参数，图片解码后写入 iopaint_front/日期/ 目录下的暂存文件
+        try (AssetStorage.Staged staged = assetStorage.stage(Area.IOPAINT_FRONT)) {
+            StreamingJsonImageUpload upload;
+            try (OutputStream image = staged.openOutputStream()) {
+                upload = StreamingJsonImageUpload.read(request.getInputStream(), "imageData", image);
+            }
+            if (upload.size() == 0) {
+                return ResponseEntity.badRequest().body(createErrorResponse("图片数据(imageData)不能为空"));
+            }
+            metrics.recordImageSize("inpaint_upload", upload.size());
+
+            // 2. 返回标准格式的成功响应
+            return ResponseEntity.ok(createSuccessResponse(staged.commit(".png")));
+
+        } catch (JsonProcessingException e) {
+            System.err.println("Base64 解码失败: " + e.getOriginalMessage());
+            return ResponseEntity.badRequest()
+                    .body(createErrorResponse("无效的Base64数据"));
+        } catch (IOException e) {
+            System.err.println("文件写入或路径查找时发生IO异常: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(createErrorResponse("文件保存失败，服务器IO错误"));
         }
+    }
 
+    /**
+     * 【重构接口】uploadIoInpaintImage 的二进制版本，返回内容与 JSON 版本相同。
+     * multipart/form-data 请求的图片放在 file 部分；application/octet-stream 或 image/* 请求体直接是图片字节。
+     * 图片边接收边写入文件，不在内存中缓存。
+     */
+    @PostMapping(value = "/uploadIoInpaintImage",
+            consumes = {MediaType.MULTIPART_FORM_DATA_VALUE, MediaType.APPLICATION_OCTET_STREAM_VALUE, "image/*"})
+    public ResponseEntity<Object> uploadIoInpaintImageBinary(HttpServletRequest request) {
         try {
-            // 2. 解码 Base64
-            byte[] imageBytes = Base64.getDecoder().decode(imageBase64);
-
-            String savePath = "iopaint_front";
-
-            // 3. 【核心改造】确定保存在项目内的静态资源路径
-            // 我们将在 src/main/resources/static 目录下创建一个 'inpainted-images' 文件夹来存放这些图片
-            // 3. 生成文件名和路径
-            // 为了避免文件名冲突和更好地组织文件，我们创建一个按日期分类的子目录
-            String dateFolder = new SimpleDateFormat("yyyy-MM-dd").format(new Date());
-            // 【保持不变】文件物理存储路径，使用 Paths 确保跨平台兼容性
-            Path directoryPath = Paths.get(uploadDir, savePath, dateFolder);
-
-            // 确保目录存在，如果不存在则创建
-            if (!Files.exists(directoryPath)) {
-                Files.createDirectories(directoryPath);
+            BinaryUpload upload = openBinaryUpload(request, "file");
+            if (upload == null) {
+                return ResponseEntity.badRequest().body(createErrorResponse("图片数据(file)不能为空"));
+            }
+
+            try (AssetStorage.Staged staged = assetStorage.stage(Area.IOPAINT_FRONT)) {
+                long size = writeUpload(upload, staged);
+                if (size == 0) {
+                    return ResponseEntity.badRequest().body(createErrorResponse("图片数据(file)不能为空"));
+                }
+                metrics.recordImageSize("inpaint_upload", size);
+                return ResponseEntity.ok(createSuccessResponse(staged.commit(".png")));
             }
 
-            String uniqueFileName = UUID.randomUUID().toString() + ".png";
-            Path physicalFilePath = directoryPath.resolve(uniqueFileName);
-            File fileToSave = physicalFilePath.toFile();
+        } catch (FileUploadException | IOException e) {
+            FileUploadException sizeExceeded = sizeLimitExceeded(e);
+            if (sizeExceeded != null) {
+                return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                        .body(createErrorResponse("上传文件超过大小限制: " + sizeExceeded.getMessage()));
+            }
+            System.err.println("文件写入或路径查找时发生IO异常: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(createErrorResponse("文件保存失败，服务器IO错误"));
+        }
+    }
+
+    // --- 辅助方法，用于创建标准响应体 ---
 
-            // 4. 写入文件
-            try (FileOutputStream fos = new FileOutputStream(fileToSave)) {
-                fos.write(imageBytes);
+    /**
+     * 在上游请求线程池中执行接口逻辑，释放 Servlet 线程；线程池过载时立即返回 503，客户端稍后重试。
+     */
+    private CompletableFuture<ResponseEntity<Object>> async(Bulkhead bulkhead, Callable<ResponseEntity<Object>> handler) {
+        return upstreamExecutor.submit(bulkhead, handler).exceptionally(TranslationController::asyncError);
+    }
+
+    /**
+     * 异步接口的异常响应：因过载被拒绝时返回 503 和 Retry-After，其余返回 500
+     */
+    private static ResponseEntity<Object> asyncError(Throwable error) {
+        if (UpstreamRequestExecutor.isRejected(error)) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header("Retry-After", "1")
+                    .body(Collections.singletonMap("error", "服务繁忙，请稍后重试"));
+        }
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Collections.singletonMap("error", cause.getMessage()));
+    }
+
+    /**
+     * 取原始文件名的扩展名 (包含 .)，没有扩展名时返回空字符串
+     */
+    private static String fileExtension(String originalFilename) {
+        int dotIndex = originalFilename.lastIndexOf('.');
+        return dotIndex > 0 ? originalFilename.substring(dotIndex) : "";
+    }
+
+    /**
+     * 在图片修复线程池中执行 inpaint，并按 format 把修复结果写回：png 为二进制，base64 为与 /iopaint 相同的 JSON
+     */
+    private DeferredResult<ResponseEntity<StreamingResponseBody>> inpaintingStream(String format, Callable<ImageStream> inpaint) {
+        boolean base64 = "base64".equalsIgnoreCase(format);
+        if (!base64 && !"png".equalsIgnoreCase(format)) {
+            return completed(streamingError(HttpStatus.BAD_REQUEST, "format 只能是 png 或 base64"));
+        }
+        DeferredResult<ResponseEntity<StreamingResponseBody>> deferred = new DeferredResult<>();
+        upstreamExecutor.submit(Bulkhead.INPAINT, inpaint).whenComplete((stream, error) -> {
+            if (error != null) {
+                if (UpstreamRequestExecutor.isRejected(error)) {
+                    deferred.setResult(streamingError(HttpStatus.SERVICE_UNAVAILABLE, "服务繁忙，请稍后重试"));
+                    return;
+                }
+                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                deferred.setResult(streamingError(HttpStatus.INTERNAL_SERVER_ERROR, "图像擦除处理失败: " + cause.getMessage()));
+                return;
+            }
+            // 中文备注：请求已超时或客户端已断开时响应体不会再被写出，需要在这里关闭上游连接
+            if (!deferred.setResult(inpaintingResponse(stream, base64))) {
+                IOUtils.closeQuietly(stream);
+            }
+        });
+        return deferred;
+    }
+
+    /**
+     * 以上游的响应头构建响应，响应体在写出时从上游边读边转发
+     */
+    private ResponseEntity<StreamingResponseBody> inpaintingResponse(ImageStream stream, boolean base64) {
+        long length = stream.getContentLength();
+        if (length == 0) {
+            IOUtils.closeQuietly(stream);
+            return streamingError(HttpStatus.INTERNAL_SERVER_ERROR, "图像擦除处理失败: 未返回有效的图片数据");
+        }
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .contentType(base64 ? MediaType.APPLICATION_JSON : MediaType.IMAGE_PNG);
+        if (length > 0) {
+            builder.contentLength(base64
+                    ? BASE64_JSON_PREFIX.length + 4L * ((length + 2) / 3) + BASE64_JSON_SUFFIX.length
+                    : length);
+        }
+        return builder.body(out -> {
+            try (ImageStream result = stream) {
+                long size = base64 ? writeBase64Json(out, result.getInputStream())
+                        : translationService.transferIopaintResult(result.getInputStream(), out);
+                metrics.recordImageSize("inpaint_result", size);
             }
+        });
+    }
 
-            String finalUrl = "/" + String.join("/", savePath, dateFolder, uniqueFileName);
+    private long writeBase64Json(OutputStream out, InputStream image) throws IOException {
+        out.write(BASE64_JSON_PREFIX);
+        long size;
+        // 中文备注：关闭编码流会写出末尾的填充，但不能关闭响应流本身
+        try (OutputStream encoder = Base64.getEncoder().wrap(CloseShieldOutputStream.wrap(out))) {
+            size = translationService.transferIopaintResult(image, encoder);
+        }
+        out.write(BASE64_JSON_SUFFIX);
+        return size;
+    }
 
-            System.out.println("返回给前端的 URL: " + finalUrl);
+    private static ResponseEntity<StreamingResponseBody> streamingError(HttpStatus status, String message) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(status).contentType(MediaType.APPLICATION_JSON);
+        if (status == HttpStatus.SERVICE_UNAVAILABLE) {
+            builder.header("Retry-After", "1");
+        }
+        return builder.body(out -> JSON.writeValue(out, Collections.singletonMap("error", message)));
+    }
 
-            // 6. 返回标准格式的成功响应
-            return ResponseEntity.ok(createSuccessResponse(finalUrl));
+    /**
+     * 在 Servlet 线程上把上传内容完整接收到临时文件。上游调用在接收完成后才开始：
+     * 慢速客户端的上传时间不会占用上游并发许可，也不计入上游延迟；连接失败后可以从文件重发请求体。
+     */
+    private static Path spoolUpload(InputStream upload) throws IOException {
+        Path file = Files.createTempFile("pictech-upload-", ".tmp");
+        try (InputStream in = upload; OutputStream out = Files.newOutputStream(file)) {
+            IOUtils.copyLarge(in, out);
+            return file;
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+    }
 
+    /**
+     * 以暂存的上传文件在接口线程池中提交翻译任务，结束后删除文件；线程池过载时返回 503，
+     * 请求超时或客户端断开时取消上游调用。
+     */
+    private DeferredResult<ResponseEntity<Object>> submitSpooled(Path file, String contentType,
+                                                                 String sourceLanguage, String targetLanguage) throws IOException {
+        long size = Files.size(file);
+        CompletableFuture<SubmitTaskResponse> submitted = upstreamExecutor.submit(Bulkhead.API,
+                () -> translationService.submitTaskFromStream(file, contentType, sourceLanguage, targetLanguage));
+        // 中文备注：取消时接口线程可能仍打开着文件，Linux 上删除已打开的文件不影响读取
+        submitted.whenComplete((result, error) -> deleteQuietly(file));
+
+        DeferredResult<ResponseEntity<Object>> deferred = new DeferredResult<>();
+        deferred.onTimeout(() -> submitted.cancel(true));
+        deferred.onError(error -> submitted.cancel(true));
+        submitted.whenComplete((result, error) -> {
+            if (submitted.isCancelled()) {
+                // 中文备注：只在超时或断开时取消，响应交给 Spring 的默认处理 (超时返回 503)
+                return;
+            }
+            if (error != null) {
+                deferred.setResult(UpstreamRequestExecutor.isRejected(error) ? asyncError(error) : streamingUploadError(error));
+                return;
+            }
+            metrics.recordImageSize("translation_upload", size);
+            deferred.setResult(ResponseEntity.ok(result));
+        });
+        return deferred;
+    }
+
+    private static <T> DeferredResult<T> completed(T result) {
+        DeferredResult<T> deferred = new DeferredResult<>();
+        deferred.setResult(result);
+        return deferred;
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
         } catch (IOException e) {
-            System.err.println("文件写入或路径查找时发生IO异常: " + e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(createErrorResponse("文件保存失败，服务器IO错误"));
-        } catch (IllegalArgumentException e) {
-            System.err.println("Base64 解码失败: " + e.getMessage());
-            return ResponseEntity.badRequest()
-                    .body(createErrorResponse("无效的Base64数据"));
+            System.err.println("删除上传临时文件失败: " + file + " - " + e.getMessage());
         }
     }
 
-    // --- 辅助方法，用于创建标准响应体 ---
+    /**
+     * 流式上传失败时的响应：超过大小限制返回 413，其他错误返回 500
+     * @param error 解析上传内容或调用上游时的异常
+     * @return 错误响应
+     */
+    private ResponseEntity<Object> streamingUploadError(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        FileUploadException sizeExceeded = sizeLimitExceeded(cause);
+        if (sizeExceeded != null) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                    .body(Collections.singletonMap("error", "上传文件超过大小限制: " + sizeExceeded.getMessage()));
+        }
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Collections.singletonMap("error", cause.getMessage()));
+    }
+
+    /**
+     * @return 异常链中表示上传内容超过大小限制的异常，没有时返回 null
+     */
+    private static FileUploadException sizeLimitExceeded(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t instanceof FileUploadBase.FileSizeLimitExceededException || t instanceof FileUploadBase.SizeLimitExceededException) {
+                return (FileUploadException) t;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 流式解析 multipart 请求，沿用 spring.servlet.multipart 的大小限制
+     */
+    private ServletFileUpload newFileUpload() {
+        ServletFileUpload upload = new ServletFileUpload();
+        upload.setFileSizeMax(maxFileSize.toBytes());
+        upload.setSizeMax(maxRequestSize.toBytes());
+        return upload;
+    }
+
+    /**
+     * 二进制请求体 (application/octet-stream 或 image/*) 的输入流，读取超过 max-file-size 时抛出异常，
+     * 异常链中带有 {@link FileUploadBase.FileSizeLimitExceededException}，与 multipart 上传的超限处理一致。
+     */
+    private InputStream limitedRequestBody(HttpServletRequest request) throws IOException {
+        long maxBytes = maxFileSize.toBytes();
+        if (request.getContentLengthLong() > maxBytes) {
+            throw fileSizeLimitExceeded(request.getContentLengthLong(), maxBytes);
+        }
+        return new LimitedInputStream(request.getInputStream(), maxBytes) {
+            @Override
+            protected void raiseError(long sizeMax, long count) throws IOException {
+                throw fileSizeLimitExceeded(count, sizeMax);
+            }
+        };
+    }
+
+    private static IOException fileSizeLimitExceeded(long actual, long permitted) {
+        return new FileUploadBase.FileUploadIOException(new FileUploadBase.FileSizeLimitExceededException(
+                String.format("请求体大小 %d 超过了允许的最大值 %d", actual, permitted), actual, permitted));
+    }
+
+    /**
+     * 打开二进制上传的图片：multipart/form-data 请求取名为 field 的文件部分，文件名取位于它之前的 filename 字段，
+     * 没有时取文件部分自带的文件名；其他请求取整个请求体，文件名取查询参数 filename。
+     *
+     * @return 图片内容，multipart 请求中没有该文件部分时返回 null
+     */
+    private BinaryUpload openBinaryUpload(HttpServletRequest request, String field) throws FileUploadException, IOException {
+        if (!ServletFileUpload.isMultipartContent(request)) {
+            return new BinaryUpload(limitedRequestBody(request), request.getParameter("filename"));
+        }
+        Map<String, String> fields = new HashMap<>();
+        FileItemIterator items = newFileUpload().getItemIterator(request);
+        while (items.hasNext()) {
+            FileItemStream item = items.next();
+            if (item.isFormField()) {
+                fields.put(item.getFieldName(), Streams.asString(item.openStream(), "UTF-8"));
+            } else if (field.equals(item.getFieldName())) {
+                String filename = fields.containsKey("filename") ? fields.get("filename") : item.getName();
+                return new BinaryUpload(item.openStream(), filename);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 读取图片修复请求中的 image 和 mask 文件部分。两张图片都要在上游请求中使用 (对冲时还会重发)，
+     * 因此以原始字节保存在内存中，比 Base64 字符串小四分之一，也不需要解码。
+     *
+     * @return image 和 mask 对应的图片来源，缺少任意一个时返回 null
+     */
+    private Map<String, ImageSource> readInpaintingParts(HttpServletRequest request) throws FileUploadException, IOException {
+        if (!ServletFileUpload.isMultipartContent(request)) {
+            return null;
+        }
+        Map<String, ImageSource> images = new HashMap<>();
+        FileItemIterator items = newFileUpload().getItemIterator(request);
+        while (items.hasNext()) {
+            FileItemStream item = items.next();
+            if (item.isFormField() || !("image".equals(item.getFieldName()) || "mask".equals(item.getFieldName()))) {
+                continue;
+            }
+            try (InputStream in = item.openStream()) {
+                byte[] bytes = StreamUtils.copyToByteArray(in);
+                if (bytes.length > 0) {
+                    images.put(item.getFieldName(), ImageSource.ofBytes(bytes, item.getContentType()));
+                }
+            }
+        }
+        return images.size() == 2 ? images : null;
+    }
+
+    /**
+     * 把上传的图片边接收边写入暂存文件，失败或内容为空时由暂存文件的 close 删除
+     *
+     * @return 写入的字节数
+     */
+    private static long writeUpload(BinaryUpload upload, AssetStorage.Staged staged) throws IOException {
+        try (InputStream in = upload.in; OutputStream out = staged.openOutputStream()) {
+            return IOUtils.copyLarge(in, out);
+        }
+    }
+
+    /**
+     * 创建批量接口的响应体，Data.Results 为各条目的结果
+     */
+    private Map<String, Object> createBatchResponse(Object results) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("Code", 200);
+        response.put("Message", "success");
+        response.put("Data", Collections.singletonMap("Results", results));
+        return response;
+    }
 
     /**
      * 创建一个标准的成功响应体
@@ -364,4 +886,17 @@ public class TranslationController {
         response.put("Data", null);
         return response;
     }
-}
\ No newline at end of file
+
+    /**
+     * 二进制上传的图片内容和原始文件名 (可能为空)
+     */
+    private static class BinaryUpload {
+        private final InputStream in;
+        private final String filename;
+
+        BinaryUpload(InputStream in, String filename) {
+            this.in = in;
+            this.filename = filename;
+        }
+    }
+}
@@ -4,12 +4,13 @@ import com.alibaba.fastjson2.JSON;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.pictech.client.ImageTranslationApiClient;
+import com.pictech.client.model.SubmitTaskResponse;
+import com.pictech.client.model.TranslationResultResponse;
 
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.util.Base64;
-import java.util.Map;
 
 /**
  * 图片翻译演示类，支持本地图片和 URL 图片的翻译和查询
@@ -23,7 +24,7 @@ public class ClientDemo {
     /**
      * 主入口方法，用于演示本地图片和 URL 图片的翻译和查询
      *
-     * @param args 命令行参数（未使用）
+     * @param args 命令行参数，第一个参数为图片 URL (可选)
      * @throws Exception JSON 处理或线程中断可能抛出异常
      */
     public static void main(String[] args) throws Exception {
@@ -42,7 +43,8 @@ public class ClientDemo {
         String targetLanguage = "en"; // 目标语言：英文
 
         // 【中文备注】第二部分：使用图片 URL 提交翻译任务
-        String url = "https://cbu01.alicdn.com/img/ibank/O1CN01g54Yuw26MNVWiUduP_!!939007647-0-cib.jpg"; // 请替换为真实、可访问的图片 URL
+        String url = args.length > 0 ? args[0] : Constants.setting("pictech.demo.image-url",
+                "https://cbu01.alicdn.com/img/ibank/O1CN01g54Yuw26MNVWiUduP_!!939007647-0-cib.jpg"); // 请替换为真实、可访问的图片 URL
         String requestIdUrl = demo.demonstrateSingleSubmitWithUrl(client, url, sourceLanguage,targetLanguage );
         System.out.println("URL 图片任务 ID: " + requestIdUrl);
         // 【中文备注】如果成功获取 RequestId，则查询翻译结果
@@ -163,13 +165,13 @@ public class ClientDemo {
                 }
 
                 // 【中文备注】调用客户端方法提交任务
-                Map<String, Object> submitResult = client.submitTranslationTaskWithBase64(imageBase64, sourceLanguage, targetLanguage);
+                SubmitTaskResponse submitResult = client.submitTranslationTaskWithBase64(imageBase64, sourceLanguage, targetLanguage);
                 // 【中文备注】打印格式化的响应
                 System.out.println("单任务提交(Base64) 响应: " + prettyJsonMapper.writeValueAsString(submitResult));
 
                 // 【中文备注】从响应中提取 RequestId 用于后续查询
                 if (submitResult != null) {
-                    requestId = (String) submitResult.get("RequestId");
+                    requestId = submitResult.getRequestId();
                 }
 
 
@@ -215,14 +217,14 @@ public class ClientDemo {
         }
 
         // 【中文备注】调用客户端方法提交任务
-        Map<String, Object> submitResult = client.submitTranslationTaskWithUrl(imageUrl, sourceLanguage, targetLanguage);
+        SubmitTaskResponse submitResult = client.submitTranslationTaskWithUrl(imageUrl, sourceLanguage, targetLanguage);
         // 【中文备注】打印格式化的响应
         System.out.println("单任务提交(URL) 响应: " + prettyJsonMapper.writeValueAsString(submitResult));
 
         // 【中文备注】从响应中提取 RequestId 用于后续查询
         String requestId = null;
         if (submitResult != null) {
-            requestId = (String) submitResult.get("RequestId");
+            requestId = submitResult.getRequestId();
         }
         return requestId;
     }
@@ -253,11 +255,10 @@ public class ClientDemo {
         Thread.sleep(5000);
 
         // 【中文备注】调用客户端方法查询结果
-        Map<String, Object> queryResult = client.queryTranslationTaskResult(requestId);
+        TranslationResultResponse queryResult = client.queryTranslationTaskResult(requestId);
 
-        if(queryResult.get("Data")!=null){
-            Map<String, String> dataMap = (Map<String, String>) queryResult.get("Data");
-            String templateJson = dataMap.get("TemplateJson").toString().replace("\\\"", "\"");
+        if(queryResult.getResultData()!=null){
+            String templateJson = queryResult.getResultData().getTemplateJson().replace("\\\"", "\"");
             TemplateJson parsed = JSON.parseObject(templateJson, TemplateJson.class);
             System.out.println(parsed.getObjects().get(2).getFontFamily());
         }
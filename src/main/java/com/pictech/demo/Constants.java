@@ -1,9 +1,24 @@
 package com.pictech.demo;
 
+/**
+ * Demo 使用的 API 配置，依次读取系统属性 (-Dpictech.api.base-url=...) 和环境变量 (PICTECH_API_BASE_URL=...)，
+ * 都未设置时使用下面的默认值。对接本地模拟服务 PicTechApiSimulator 时无需修改代码。
+ */
 public class Constants {
 
 
-    public static final String apiBaseUrl = "http://example.com"; // 例如: http://api.example.com/v1
-    public static final String apiKey = "pic_9DD88A6D";
-    public static final String secretKey = "XXXXXXXXXXXXXXXX";
+    public static final String apiBaseUrl = setting("pictech.api.base-url", "http://example.com"); // 例如: http://api.example.com/v1
+    public static final String apiKey = setting("pictech.api.key", "pic_9DD88A6D");
+    public static final String secretKey = setting("pictech.api.secret", "XXXXXXXXXXXXXXXX");
+
+    /**
+     * 读取 Demo 参数：系统属性优先，其次是对应的环境变量 (大写，"." 和 "-" 换成 "_")。
+     */
+    static String setting(String property, String defaultValue) {
+        String value = System.getProperty(property);
+        if (value == null || value.isEmpty()) {
+            value = System.getenv(property.toUpperCase().replace('.', '_').replace('-', '_'));
+        }
+        return value == null || value.isEmpty() ? defaultValue : value;
+    }
 }
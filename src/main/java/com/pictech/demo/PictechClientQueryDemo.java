@@ -3,12 +3,13 @@ package com.pictech.demo;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.pictech.client.ImageTranslationApiClient;
+import com.pictech.client.model.SubmitTaskResponse;
+import com.pictech.client.model.TranslationResultResponse;
 
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.util.Base64;
-import java.util.Map;
 
 /**
  * 图片翻译演示类，支持本地图片和 URL 图片的翻译和查询
@@ -22,7 +23,7 @@ public class PictechClientQueryDemo {
     /**
      * 主入口方法，用于演示本地图片和 URL 图片的翻译和查询
      *
-     * @param args 命令行参数（未使用）
+     * @param args 命令行参数，第一个参数为要查询的 RequestId (可选)
      * @throws Exception JSON 处理或线程中断可能抛出异常
      */
     public static void main(String[] args) throws Exception {
@@ -34,7 +35,9 @@ public class PictechClientQueryDemo {
                 Constants.secretKey);
 
         // 【中文备注】创建 Demo 实例
-        Map<String, Object> queryResult = client.queryTranslationTaskResult("60dcbb8e-ea8e-4a7c-bd42-cb42f06c4e86");
+        String requestId = args.length > 0 ? args[0]
+                : Constants.setting("pictech.demo.request-id", "60dcbb8e-ea8e-4a7c-bd42-cb42f06c4e86");
+        TranslationResultResponse queryResult = client.queryTranslationTaskResult(requestId);
         // 【中文备注】打印格式化的查询结果
         System.out.println("查询结果: " + prettyJsonMapper.writeValueAsString(queryResult));
 
@@ -150,13 +153,13 @@ public class PictechClientQueryDemo {
                 }
 
                 // 【中文备注】调用客户端方法提交任务
-                Map<String, Object> submitResult = client.submitTranslationTaskWithBase64(imageBase64, sourceLanguage, targetLanguage);
+                SubmitTaskResponse submitResult = client.submitTranslationTaskWithBase64(imageBase64, sourceLanguage, targetLanguage);
                 // 【中文备注】打印格式化的响应
                 System.out.println("单任务提交(Base64) 响应: " + prettyJsonMapper.writeValueAsString(submitResult));
 
                 // 【中文备注】从响应中提取 RequestId 用于后续查询
                 if (submitResult != null) {
-                    requestId = (String) submitResult.get("RequestId");
+                    requestId = submitResult.getRequestId();
                 }
 
 
@@ -202,14 +205,14 @@ public class PictechClientQueryDemo {
         }
 
         // 【中文备注】调用客户端方法提交任务
-        Map<String, Object> submitResult = client.submitTranslationTaskWithUrl(imageUrl, sourceLanguage, targetLanguage);
+        SubmitTaskResponse submitResult = client.submitTranslationTaskWithUrl(imageUrl, sourceLanguage, targetLanguage);
         // 【中文备注】打印格式化的响应
         System.out.println("单任务提交(URL) 响应: " + prettyJsonMapper.writeValueAsString(submitResult));
 
         // 【中文备注】从响应中提取 RequestId 用于后续查询
         String requestId = null;
         if (submitResult != null) {
-            requestId = (String) submitResult.get("RequestId");
+            requestId = submitResult.getRequestId();
         }
         return requestId;
     }
@@ -240,7 +243,7 @@ public class PictechClientQueryDemo {
         Thread.sleep(5000);
 
         // 【中文备注】调用客户端方法查询结果
-        Map<String, Object> queryResult = client.queryTranslationTaskResult(requestId);
+        TranslationResultResponse queryResult = client.queryTranslationTaskResult(requestId);
         // 【中文备注】打印格式化的查询结果
         System.out.println("查询 RequestId [" + requestId + "] 结果: " + prettyJsonMapper.writeValueAsString(queryResult));
     }
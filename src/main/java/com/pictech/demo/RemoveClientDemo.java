@@ -43,8 +43,9 @@ public class RemoveClientDemo {
         System.out.println("\n----------- 开始测试背景移除(抠图)功能 -----------");
         try {
             // 您可以选择使用本地图片路径 或 图片URL
-            String localImagePath = "/Users/liuhongjing/Downloads/微信图片_20250728112557_58.jpg"; // 【请修改】指向您的本地图片
-            String outputDirectory = "/Users/liuhongjing/Downloads/output/"; // 【请修改】指定输出目录
+            // 也可以通过 -Dpictech.demo.image-path / -Dpictech.demo.output-dir / -Dpictech.demo.image-url 指定
+            String localImagePath = Constants.setting("pictech.demo.image-path", "/Users/liuhongjing/Downloads/微信图片_20250728112557_58.jpg"); // 【请修改】指向您的本地图片
+            String outputDirectory = Constants.setting("pictech.demo.output-dir", "/Users/liuhongjing/Downloads/output/"); // 【请修改】指定输出目录
             String outputFilename = "removed_background_result.png";
 
             LOGGER.info("准备执行抠图任务, 输出到: " + Paths.get(outputDirectory, outputFilename));
@@ -58,7 +59,7 @@ public class RemoveClientDemo {
             } else {
                 LOGGER.severe("抠图任务失败！");
             }
-            boolean successUrl = client.removeBackground(null, "http://192.168.3.9:9000/pictech-api/pic_9DD88A6D/2025/07/21/20250721201250_136.png", outputDirectory, "url_"+outputFilename);
+            boolean successUrl = client.removeBackground(null, Constants.setting("pictech.demo.image-url", "http://192.168.3.9:9000/pictech-api/pic_9DD88A6D/2025/07/21/20250721201250_136.png"), outputDirectory, "url_"+outputFilename);
             if (successUrl) {
                 LOGGER.info("抠图任务成功完成！");
             } else {
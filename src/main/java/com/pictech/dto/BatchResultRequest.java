@@ -0,0 +1,16 @@
+package com.pictech.dto;
+
+import java.util.List;
+
+public class BatchResultRequest {
+    private List<String> requestIds;
+
+    public List<String> getRequestIds() {
+        return requestIds;
+    }
+
+    public BatchResultRequest setRequestIds(List<String> requestIds) {
+        this.requestIds = requestIds;
+        return this;
+    }
+}
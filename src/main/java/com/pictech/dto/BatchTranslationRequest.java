@@ -0,0 +1,82 @@
+package com.pictech.dto;
+
+import java.util.List;
+
+public class BatchTranslationRequest {
+    private String sourceLanguage; // 各图片未指定语言时使用的默认值
+    private String targetLanguage;
+    private List<Item> items;
+
+    public String getSourceLanguage() {
+        return sourceLanguage;
+    }
+
+    public BatchTranslationRequest setSourceLanguage(String sourceLanguage) {
+        this.sourceLanguage = sourceLanguage;
+        return this;
+    }
+
+    public String getTargetLanguage() {
+        return targetLanguage;
+    }
+
+    public BatchTranslationRequest setTargetLanguage(String targetLanguage) {
+        this.targetLanguage = targetLanguage;
+        return this;
+    }
+
+    public List<Item> getItems() {
+        return items;
+    }
+
+    public BatchTranslationRequest setItems(List<Item> items) {
+        this.items = items;
+        return this;
+    }
+
+    /**
+     * 批量中的一张图片，imageUrl 和 imageBase64 二选一
+     */
+    public static class Item {
+        private String imageUrl;
+        private String imageBase64; // 包含 data:image/...;base64, 前缀
+        private String sourceLanguage;
+        private String targetLanguage;
+
+        public String getImageUrl() {
+            return imageUrl;
+        }
+
+        public Item setImageUrl(String imageUrl) {
+            this.imageUrl = imageUrl;
+            return this;
+        }
+
+        public String getImageBase64() {
+            return imageBase64;
+        }
+
+        public Item setImageBase64(String imageBase64) {
+            this.imageBase64 = imageBase64;
+            return this;
+        }
+
+        public String getSourceLanguage() {
+            return sourceLanguage;
+        }
+
+        public Item setSourceLanguage(String sourceLanguage) {
+            this.sourceLanguage = sourceLanguage;
+            return this;
+        }
+
+        public String getTargetLanguage() {
+            return targetLanguage;
+        }
+
+        public Item setTargetLanguage(String targetLanguage) {
+            this.targetLanguage = targetLanguage;
+            return this;
+        }
+    }
+}
@@ -0,0 +1,680 @@
+package com.pictech.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * 图片文件的后台写入 (write-behind)，统一负责 ${file.upload-dir} 下按日期分类的文件：
+ * 1. 保存时立即生成文件名并返回访问路径，内容进入有界队列，请求线程不等待磁盘；
+ * 2. 少量写入线程每次取出一批文件，写入同目录下的临时文件，整批 fsync 后原子地重命名，涉及的每个目录只 fsync 一次；
+ * 3. 写盘完成前，同一访问路径由内存中的内容 (或流式上传的暂存文件) 应答，见 {@link #readPending(String)}；
+ * 4. 按日期创建的目录只创建一次，目录被定期清理删除后自动重新创建；
+ * 5. 队列条数或内存中的字节数超过上限时，必须保存的文件在调用线程上同步写入，可选保存的文件直接丢弃并计数；
+ * 6. 按内容寻址的区域 (iopaint_front) 以内容的 SHA-256 作为文件名，相同内容只保存一份，文件一经写入不再改变。
+ * 队列长度、内存中等待写入的字节数和从提交到写盘完成的耗时导出到 /actuator/prometheus 和 /api/stats。
+ */
+@Service
+public class AssetStorage {
+
+    private static final Logger LOGGER = Logger.getLogger(AssetStorage.class.getName());
+    private static final DateTimeFormatter DATE_FOLDER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    // 中文备注：按内容寻址的区域有 256 个散列子目录，加上各区域的日期目录
+    private static final int MAX_CACHED_DIRECTORIES = 1024;
+    private static final String STAGING_FOLDER = ".staging";
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    /**
+     * 存储区域：文件位于 ${file.upload-dir}/&lt;directory&gt;/&lt;日期&gt;/，访问路径为 &lt;urlPrefix&gt;/&lt;日期&gt;/&lt;文件名&gt;，文件名为 UUID；
+     * 按内容寻址的区域以 SHA-256 的前两位十六进制字符代替日期目录，文件名为完整的 SHA-256。
+     */
+    public enum Area {
+        /** 前端导出的最终图片 */
+        EXPORT("export", "", false),
+        /** 前端保存的擦除中间结果，由 /iopaint_front/** 静态资源映射提供访问，按内容寻址 */
+        IOPAINT_FRONT("iopaint_front", "/iopaint_front", true),
+        /** 擦除服务返回的修复结果 */
+        IOPAINT("iopaint", "/iopaint", false);
+
+        private final String directory;
+        private final String urlPrefix;
+        private final boolean contentAddressed;
+
+        Area(String directory, String urlPrefix, boolean contentAddressed) {
+            this.directory = directory;
+            this.urlPrefix = urlPrefix;
+            this.contentAddressed = contentAddressed;
+        }
+
+        public String getUrlPrefix() {
+            return urlPrefix;
+        }
+
+        public boolean isContentAddressed() {
+            return contentAddressed;
+        }
+    }
+
+    private final Path root;
+    private final AssetStorageProperties properties;
+    private final long maxPendingBytes;
+    private final int maxBatchSize;
+    private final BlockingQueue<Write> queue;
+    private final List<Thread> writers = new ArrayList<>();
+    private final ConcurrentMap<String, Write> pending = new ConcurrentHashMap<>();
+    private final Set<Path> directories = ConcurrentHashMap.newKeySet();
+    private final AtomicLong pendingBytes = new AtomicLong();
+    private final Timer flushTimer;
+    private final DistributionSummary batchSizes;
+    private volatile boolean closed;
+
+    // --- 统计 ---
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong writtenInline = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong deduplicated = new AtomicLong();
+    private final AtomicLong deduplicatedBytes = new AtomicLong();
+
+    @Autowired
+    public AssetStorage(AssetStorageProperties properties, MeterRegistry meterRegistry,
+                        @Value("${file.upload-dir}") String uploadDir) {
+        this.root = Paths.get(uploadDir);
+        this.properties = properties;
+        this.maxPendingBytes = properties.getMaxPendingSize().toBytes();
+        this.maxBatchSize = Math.max(1, properties.getMaxBatchSize());
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, properties.getQueueCapacity()));
+
+        Gauge.builder("pictech.storage.queue.depth", queue, Collection::size)
+                .description("等待写盘的文件数").register(meterRegistry);
+        Gauge.builder("pictech.storage.pending.bytes", pendingBytes, AtomicLong::get)
+                .description("内存中等待写盘的字节数").baseUnit("bytes").register(meterRegistry);
+        this.flushTimer = Timer.builder("pictech.storage.flush")
+                .description("文件从提交到写盘完成 (含 fsync) 的耗时")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("pictech.storage.batch.size")
+                .description("每批写盘的文件数").register(meterRegistry);
+        FunctionCounter.builder("pictech.storage.writes", written, AtomicLong::get)
+                .description("保存的文件数").tag("result", "written").register(meterRegistry);
+        FunctionCounter.builder("pictech.storage.writes", failed, AtomicLong::get)
+                .description("保存的文件数").tag("result", "failed").register(meterRegistry);
+        FunctionCounter.builder("pictech.storage.writes", dropped, AtomicLong::get)
+                .description("保存的文件数").tag("result", "dropped").register(meterRegistry);
+        FunctionCounter.builder("pictech.storage.writes", deduplicated, AtomicLong::get)
+                .description("保存的文件数").tag("result", "deduplicated").register(meterRegistry);
+
+        for (int i = 1; i <= Math.max(1, properties.getThreads()); i++) {
+            Thread thread = new Thread(this::runWriter, "pictech-storage-" + i);
+            thread.setDaemon(true);
+            thread.start();
+            writers.add(thread);
+        }
+    }
+
+    /**
+     * 保存内存中的图片，立即返回访问路径，内容在后台写盘；队列已满时在调用线程上同步写入。
+     *
+     * @param area      不按内容寻址的区域
+     * @param extension 文件扩展名 (包含 .)，不需要时传空字符串
+     * @return 访问路径，例如 /iopaint/2024-01-01/&lt;uuid&gt;.png
+     * @throws IOException 同步写入失败
+     */
+    public String store(Area area, String extension, byte[] bytes) throws IOException {
+        Write write = newDatedWrite(area, extension, bytes);
+        if (!enqueue(write)) {
+            writeInline(write);
+        }
+        return write.url;
+    }
+
+    /**
+     * 与 {@link #store} 相同，但队列已满时放弃保存，用于可以丢失的文件。
+     *
+     * @return 访问路径，放弃保存时返回 null
+     */
+    public String tryStore(Area area, String extension, byte[] bytes) {
+        Write write = newDatedWrite(area, extension, bytes);
+        if (enqueue(write)) {
+            return write.url;
+        }
+        dropped.incrementAndGet();
+        LOGGER.warning("写入队列已满，未保存文件: " + write.target);
+        return null;
+    }
+
+    /**
+     * 为流式接收的图片创建暂存文件 (最终目录下的隐藏临时文件；按内容寻址的区域位于 .staging 目录)，
+     * 调用方经 {@link Staged#openOutputStream()} 写完后调用 {@link Staged#commit}。
+     * 内容不经过内存，后台线程只负责 fsync 和重命名。
+     */
+    public Staged stage(Area area) throws IOException {
+        String folder = area.contentAddressed ? STAGING_FOLDER : today();
+        Path file = root.resolve(area.directory).resolve(folder).resolve("." + UUID.randomUUID() + ".tmp");
+        createFile(file).close();
+        return new Staged(area, folder, file);
+    }
+
+    /**
+     * 读取尚未写盘的文件 (read-your-writes)。
+     *
+     * @param url 访问路径，即 store 或 commit 的返回值
+     * @return 文件内容，已经写盘或路径不存在时返回 null
+     */
+    public Resource readPending(String url) {
+        Write write = pending.get(url);
+        if (write == null) {
+            return null;
+        }
+        if (write.bytes != null) {
+            String filename = write.target.getFileName().toString();
+            return new ByteArrayResource(write.bytes) {
+                @Override
+                public String getFilename() {
+                    return filename;
+                }
+
+                @Override
+                public long lastModified() {
+                    return write.createdMillis;
+                }
+            };
+        }
+        // 中文备注：暂存文件重命名后就不存在了，此时由磁盘上的最终文件应答
+        if (!Files.exists(write.staged)) {
+            return null;
+        }
+        return new StagedResource(write.staged, write.target);
+    }
+
+    /**
+     * @return 队列长度、内存中等待写入的字节数、写入次数和写盘耗时等统计信息
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("queued", queue.size());
+        stats.put("queueCapacity", queue.size() + queue.remainingCapacity());
+        stats.put("pendingBytes", pendingBytes.get());
+        stats.put("written", written.get());
+        stats.put("writtenInline", writtenInline.get());
+        stats.put("dropped", dropped.get());
+        stats.put("failed", failed.get());
+        stats.put("deduplicated", deduplicated.get());
+        stats.put("deduplicatedBytes", deduplicatedBytes.get());
+        stats.put("batches", batchSizes.count());
+        stats.put("avgBatchSize", batchSizes.mean());
+        stats.put("flushMeanMillis", flushTimer.mean(TimeUnit.MILLISECONDS));
+        stats.put("flushMaxMillis", flushTimer.max(TimeUnit.MILLISECONDS));
+        return stats;
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException {
+        // 中文备注：写入线程写完队列中剩余的文件后退出，超时后放弃
+        closed = true;
+        long deadline = System.nanoTime() + properties.getShutdownTimeout().toNanos();
+        for (Thread writer : writers) {
+            writer.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+        }
+        // 中文备注：超时后仍有写入线程在写盘时不能在这里补写，否则会与它并发写同一批临时文件和目录；
+        // 剩下的文件由仍在运行的写入线程继续写完
+        if (writers.stream().anyMatch(Thread::isAlive)) {
+            LOGGER.warning("关闭超时，写入线程仍在写盘，队列中还有 " + queue.size() + " 个文件未写完");
+            return;
+        }
+        List<Write> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            flush(remaining);
+        }
+    }
+
+    /**
+     * 流式接收的图片的暂存文件，commit 之前关闭时删除。
+     */
+    public final class Staged implements Closeable {
+        private final Area area;
+        private final String folder;
+        private final Path file;
+        private final MessageDigest digest;
+        private boolean committed;
+
+        private Staged(Area area, String folder, Path file) {
+            this.area = area;
+            this.folder = folder;
+            this.file = file;
+            this.digest = area.contentAddressed ? sha256() : null;
+        }
+
+        /**
+         * 打开暂存文件用于写入 (覆盖原有内容)，按内容寻址的区域在写入的同时计算 SHA-256
+         */
+        public OutputStream openOutputStream() throws IOException {
+            OutputStream out = Channels.newOutputStream(
+                    FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING));
+            if (digest != null) {
+                digest.reset();
+                out = new DigestOutputStream(out, digest);
+            }
+            return new BufferedOutputStream(out, WRITE_BUFFER_SIZE);
+        }
+
+        /**
+         * 提交暂存文件，立即返回访问路径，后台完成 fsync 和重命名；队列已满时在调用线程上同步完成。
+         * 按内容寻址的区域中已有相同内容 (已写盘或正在写盘) 时直接删除暂存文件，返回已有文件的访问路径。
+         *
+         * @param extension 文件扩展名 (包含 .)，不需要时传空字符串
+         */
+        public String commit(String extension) throws IOException {
+            committed = true;
+            if (digest == null) {
+                Write write = new Write(area, folder, UUID.randomUUID() + extension, null, file);
+                if (!enqueue(write)) {
+                    writeInline(write);
+                }
+                return write.url;
+            }
+
+            String hash = toHex(digest.digest());
+            Write write = new Write(area, hash.substring(0, 2), hash + extension, null, file);
+            if (pending.containsKey(write.url) || touch(write.target)) {
+                deduplicated.incrementAndGet();
+                deduplicatedBytes.addAndGet(Files.size(file));
+                Files.delete(file);
+                return write.url;
+            }
+            // 中文备注：并发提交相同内容时两次写入都会进入队列，重命名为同一文件，内容相同，结果不受影响
+            if (!enqueue(write)) {
+                writeInline(write);
+            }
+            return write.url;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!committed) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    // ===================================================================================
+    // =                          私有辅助方法 (Private Helpers)                         =
+    // ===================================================================================
+
+    private boolean enqueue(Write write) {
+        if (closed) {
+            return false;
+        }
+        long size = write.memorySize();
+        if (size > 0 && pendingBytes.addAndGet(size) > maxPendingBytes) {
+            pendingBytes.addAndGet(-size);
+            return false;
+        }
+        // 中文备注：先登记再入队，写入线程完成后才会移除，返回访问路径后立即可以读取
+        pending.put(write.url, write);
+        if (queue.offer(write)) {
+            return true;
+        }
+        pending.remove(write.url, write);
+        pendingBytes.addAndGet(-size);
+        return false;
+    }
+
+    private void writeInline(Write write) throws IOException {
+        writtenInline.incrementAndGet();
+        flush(Collections.singletonList(write));
+        if (write.error != null) {
+            throw write.error;
+        }
+    }
+
+    private void runWriter() {
+        List<Write> batch = new ArrayList<>(maxBatchSize);
+        while (!closed || !queue.isEmpty()) {
+            try {
+                Write first = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatchSize - 1);
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.SEVERE, "写盘线程异常", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * 写入一批文件：全部写入临时文件后统一 fsync，再逐个原子地重命名，最后每个目录 fsync 一次使重命名持久化。
+     */
+    private void flush(List<Write> batch) {
+        batchSizes.record(batch.size());
+        Map<Write, FileChannel> channels = new IdentityHashMap<>();
+        try {
+            for (Write write : batch) {
+                try {
+                    channels.put(write, open(write));
+                } catch (IOException e) {
+                    write.error = e;
+                }
+            }
+            if (properties.isFsync()) {
+                for (Map.Entry<Write, FileChannel> entry : channels.entrySet()) {
+                    try {
+                        entry.getValue().force(false);
+                    } catch (IOException e) {
+                        entry.getKey().error = e;
+                    }
+                }
+            }
+        } finally {
+            channels.values().forEach(AssetStorage::closeQuietly);
+        }
+
+        Set<Path> directoriesToSync = new LinkedHashSet<>();
+        for (Write write : batch) {
+            if (write.error != null) {
+                continue;
+            }
+            try {
+                moveIntoPlace(write.temp, write.target);
+                directoriesToSync.add(write.target.getParent());
+            } catch (IOException e) {
+                write.error = e;
+            }
+        }
+        if (properties.isFsync()) {
+            directoriesToSync.forEach(AssetStorage::syncDirectory);
+        }
+
+        long now = System.nanoTime();
+        for (Write write : batch) {
+            if (pending.remove(write.url, write)) {
+                pendingBytes.addAndGet(-write.memorySize());
+            }
+            if (write.error == null) {
+                written.incrementAndGet();
+                flushTimer.record(now - write.enqueuedNanos, TimeUnit.NANOSECONDS);
+            } else {
+                failed.incrementAndGet();
+                deleteQuietly(write.temp);
+                LOGGER.log(Level.WARNING, "保存文件失败: " + write.target, write.error);
+            }
+        }
+    }
+
+    /**
+     * 打开待 fsync 的临时文件：内存中的内容先写入目标目录下的临时文件，流式上传的内容已经在暂存文件中
+     */
+    private FileChannel open(Write write) throws IOException {
+        if (write.bytes == null) {
+            write.temp = write.staged;
+            return FileChannel.open(write.staged, StandardOpenOption.WRITE);
+        }
+        write.temp = write.target.resolveSibling("." + write.target.getFileName() + ".tmp");
+        FileChannel channel = createFile(write.temp);
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(write.bytes);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            return channel;
+        } catch (IOException e) {
+            closeQuietly(channel);
+            throw e;
+        }
+    }
+
+    /**
+     * 创建新文件，所在目录按需创建；目录已创建过时不再检查，被删除后重新创建
+     */
+    private FileChannel createFile(Path file) throws IOException {
+        Path directory = file.getParent();
+        ensureDirectory(directory);
+        try {
+            return FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        } catch (NoSuchFileException e) {
+            // 中文备注：目录可能已被定期清理删除，重新创建后再试一次
+            directories.remove(directory);
+            ensureDirectory(directory);
+            return FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        }
+    }
+
+    /**
+     * 原子地重命名为最终文件；按内容寻址的区域中暂存文件与最终文件不在同一目录，目标目录按需创建
+     */
+    private void moveIntoPlace(Path temp, Path target) throws IOException {
+        Path directory = target.getParent();
+        ensureDirectory(directory);
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (NoSuchFileException e) {
+            if (!Files.exists(temp)) {
+                throw e;
+            }
+            directories.remove(directory);
+            ensureDirectory(directory);
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+
+    private void ensureDirectory(Path directory) throws IOException {
+        if (directories.contains(directory)) {
+            return;
+        }
+        Files.createDirectories(directory);
+        // 中文备注：目录数量有限，超过上限时整体清空即可
+        if (directories.size() >= MAX_CACHED_DIRECTORIES) {
+            directories.clear();
+        }
+        directories.add(directory);
+    }
+
+    /**
+     * 已写盘的文件更新修改时间，按修改时间定期清理时不会删除刚被再次引用的文件
+     *
+     * @return 文件存在时返回 true
+     */
+    private static boolean touch(Path target) throws IOException {
+        try {
+            Files.setLastModifiedTime(target, FileTime.fromMillis(System.currentTimeMillis()));
+            return true;
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+    }
+
+    private Write newDatedWrite(Area area, String extension, byte[] bytes) {
+        if (area.contentAddressed) {
+            throw new IllegalArgumentException("按内容寻址的区域只能通过 stage 保存: " + area);
+        }
+        return new Write(area, today(), UUID.randomUUID() + extension, bytes, null);
+    }
+
+    private static String today() {
+        return LocalDate.now().format(DATE_FOLDER);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // 中文备注：所有 Java 平台都必须支持 SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[i * 2] = HEX[(bytes[i] >> 4) & 0xf];
+            chars[i * 2 + 1] = HEX[bytes[i] & 0xf];
+        }
+        return new String(chars);
+    }
+
+    private static void syncDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // 中文备注：部分平台 (例如 Windows) 不支持打开目录，此时只能依赖文件系统自身的持久化
+            LOGGER.fine("目录 fsync 失败: " + directory + ", " + e.getMessage());
+        }
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // 中文备注：关闭失败不影响已经 fsync 的内容
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+            // 中文备注：临时文件删除失败不影响结果
+        }
+    }
+
+    /**
+     * 尚未重命名的暂存文件，读取期间被后台线程重命名时改为读取最终文件 (两者内容相同)
+     */
+    private static final class StagedResource extends AbstractResource {
+        private final Path staged;
+        private final Path target;
+
+        StagedResource(Path staged, Path target) {
+            this.staged = staged;
+            this.target = target;
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            try {
+                return Files.newInputStream(staged);
+            } catch (NoSuchFileException e) {
+                return Files.newInputStream(target);
+            }
+        }
+
+        @Override
+        public long contentLength() throws IOException {
+            try {
+                return Files.size(staged);
+            } catch (NoSuchFileException e) {
+                return Files.size(target);
+            }
+        }
+
+        @Override
+        public long lastModified() throws IOException {
+            try {
+                return Files.getLastModifiedTime(staged).toMillis();
+            } catch (NoSuchFileException e) {
+                return Files.getLastModifiedTime(target).toMillis();
+            }
+        }
+
+        @Override
+        public boolean exists() {
+            return true;
+        }
+
+        @Override
+        public String getFilename() {
+            return target.getFileName().toString();
+        }
+
+        @Override
+        public String getDescription() {
+            return "staged file [" + target + "]";
+        }
+    }
+
+    /**
+     * 一次写入：内存中的内容 (bytes) 或流式上传的暂存文件 (staged)
+     */
+    private final class Write {
+        private final String url;
+        private final Path target;
+        private final byte[] bytes;
+        private final Path staged;
+        private final long enqueuedNanos = System.nanoTime();
+        private final long createdMillis = System.currentTimeMillis();
+        private Path temp;
+        private IOException error;
+
+        Write(Area area, String folder, String filename, byte[] bytes, Path staged) {
+            this.url = area.urlPrefix + "/" + folder + "/" + filename;
+            this.target = root.resolve(area.directory).resolve(folder).resolve(filename);
+            this.bytes = bytes;
+            this.staged = staged;
+        }
+
+        long memorySize() {
+            return bytes != null ? bytes.length : 0;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.pictech.service;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * 图片文件后台写入的配置，对应 application.properties 中的 pictech.storage.* 配置项。
+ * 写入请求先进入有界队列，由 threads 个写入线程成批写盘；队列条数或内存中等待写入的字节数超过上限时，
+ * 必须保存的文件改为在请求线程上同步写入，可选保存的文件 (例如擦除结果) 直接丢弃。
+ */
+@ConfigurationProperties(prefix = "pictech.storage")
+public class AssetStorageProperties {
+
+    /** 写入线程数 */
+    private int threads = 2;
+
+    /** 等待写入的队列长度 */
+    private int queueCapacity = 256;
+
+    /** 内存中等待写入的内容合计的上限 */
+    private DataSize maxPendingSize = DataSize.ofMegabytes(256);
+
+    /** 每批最多写入的文件数，同一批文件写完后统一 fsync，每个目录只 fsync 一次 */
+    private int maxBatchSize = 32;
+
+    /** 是否 fsync 文件和目录，关闭后只保证写入操作系统缓存 */
+    private boolean fsync = true;
+
+    /** 关闭应用时等待队列写完的最长时间 */
+    private Duration shutdownTimeout = Duration.ofSeconds(10);
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public DataSize getMaxPendingSize() {
+        return maxPendingSize;
+    }
+
+    public void setMaxPendingSize(DataSize maxPendingSize) {
+        this.maxPendingSize = maxPendingSize;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public void setMaxBatchSize(int maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public boolean isFsync() {
+        return fsync;
+    }
+
+    public void setFsync(boolean fsync) {
+        this.fsync = fsync;
+    }
+
+    public Duration getShutdownTimeout() {
+        return shutdownTimeout;
+    }
+
+    public void setShutdownTimeout(Duration shutdownTimeout) {
+        this.shutdownTimeout = shutdownTimeout;
+    }
+}
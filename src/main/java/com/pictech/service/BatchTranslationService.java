@@ -0,0 +1,294 @@
+package com.pictech.service;
+
+import com.pictech.client.model.PicTechResponse;
+import com.pictech.client.model.TranslationResultResponse;
+import com.pictech.dto.BatchTranslationRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 批量提交和批量查询：
+ * 1. 一次请求提交多张图片 (URL 或 Base64)，每张图片仍经过 {@link TranslationService} 的去重、预处理和轮询跟踪；
+ * 2. 一次请求查询多个任务，已缓存的终态结果直接在本地应答，其余的才访问上游；
+ * 3. 上游调用在一个固定大小的线程池中执行，所有批量请求合计的并发数不超过 pictech.api.batch.parallelism，
+ *    批量接口返回 CompletableFuture，等待期间不占用 Servlet 线程；
+ * 4. 排队的条目不超过 pictech.api.batch.queue-capacity：开始执行前先按线程池的剩余容量整体准入，放不下时整个批量
+ *    以 {@link RejectedExecutionException} 结束 (由控制器转换为 503)，一个条目都不执行，客户端整体重试不会重复提交。
+ * 单个条目失败不影响其他条目，失败条目以 Code 不为 200 的响应体返回。
+ */
+@Service
+public class BatchTranslationService {
+
+    private final TranslationService translationService;
+    private final TaskResultQueryService resultQueryService;
+    private final ThreadPoolExecutor executor;
+    private final int parallelism;
+    private final int queueCapacity;
+    private final int maxItems;
+
+    // --- 统计 ---
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong submittedItems = new AtomicLong();
+    private final AtomicLong failedItems = new AtomicLong();
+    private final AtomicLong queriedIds = new AtomicLong();
+    private final AtomicLong answeredLocally = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    @Autowired
+    public BatchTranslationService(TranslationService translationService,
+                                   TaskResultQueryService resultQueryService,
+                                   @Value("${pictech.api.batch.parallelism:8}") int parallelism,
+                                   @Value("${pictech.api.batch.max-items:100}") int maxItems,
+                                   @Value("${pictech.api.batch.queue-capacity:200}") int queueCapacity) {
+        this.translationService = translationService;
+        this.resultQueryService = resultQueryService;
+        this.parallelism = Math.max(1, parallelism);
+        this.maxItems = maxItems;
+        this.queueCapacity = Math.max(1, queueCapacity);
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(this.parallelism, this.parallelism, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(this.queueCapacity), runnable -> {
+            Thread thread = new Thread(runnable, "pictech-batch-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * 批量提交翻译任务。
+     *
+     * @param request 批量请求，条目未指定语言时使用请求级别的默认语言
+     * @return 完成时为与 items 顺序一一对应的提交结果；线程池排满时以 {@link RejectedExecutionException} 异常完成
+     * @throws IllegalArgumentException 条目为空或超过 pictech.api.batch.max-items
+     */
+    public CompletableFuture<List<PicTechResponse>> submitBatch(BatchTranslationRequest request) {
+        List<BatchTranslationRequest.Item> items = request.getItems();
+        checkSize(items == null ? 0 : items.size());
+        batches.incrementAndGet();
+
+        // 中文备注：immediate 与 calls 按下标一一对应，calls 为 null 的条目直接以 immediate 应答
+        List<PicTechResponse> immediate = new ArrayList<>(items.size());
+        List<BlockingCall<? extends PicTechResponse>> calls = new ArrayList<>(items.size());
+        for (BatchTranslationRequest.Item item : items) {
+            if (item == null) {
+                failedItems.incrementAndGet();
+                immediate.add(error(400, "条目不能为空", null));
+                calls.add(null);
+                continue;
+            }
+            String sourceLanguage = StringUtils.hasText(item.getSourceLanguage()) ? item.getSourceLanguage() : request.getSourceLanguage();
+            String targetLanguage = StringUtils.hasText(item.getTargetLanguage()) ? item.getTargetLanguage() : request.getTargetLanguage();
+            String invalid = validate(item, sourceLanguage, targetLanguage);
+            if (invalid != null) {
+                failedItems.incrementAndGet();
+                immediate.add(error(400, invalid, null));
+                calls.add(null);
+                continue;
+            }
+            immediate.add(null);
+            calls.add(() -> StringUtils.hasText(item.getImageUrl())
+                    ? translationService.submitTaskFromUrl(item.getImageUrl(), sourceLanguage, targetLanguage)
+                    : translationService.submitTaskFromBase64(item.getImageBase64(), sourceLanguage, targetLanguage));
+        }
+        return schedule(immediate, calls, null).thenApply(results -> {
+            for (int i = 0; i < results.size(); i++) {
+                if (calls.get(i) == null) {
+                    continue;
+                }
+                submittedItems.incrementAndGet();
+                PicTechResponse response = results.get(i);
+                if (response == null || !response.isSuccess()) {
+                    failedItems.incrementAndGet();
+                }
+            }
+            return results;
+        });
+    }
+
+    /**
+     * 批量查询翻译任务结果，重复的 RequestId 只查询一次。
+     *
+     * @param requestIds 任务 ID 列表
+     * @return 完成时为按请求顺序排列的 RequestId 到查询结果的映射；线程池排满时以 {@link RejectedExecutionException} 异常完成
+     * @throws IllegalArgumentException 列表为空或超过 pictech.api.batch.max-items
+     */
+    public CompletableFuture<Map<String, PicTechResponse>> queryResults(List<String> requestIds) {
+        checkSize(requestIds == null ? 0 : requestIds.size());
+        List<String> ids = new ArrayList<>(new LinkedHashSet<>(requestIds));
+        List<PicTechResponse> immediate = new ArrayList<>(ids.size());
+        List<BlockingCall<? extends PicTechResponse>> calls = new ArrayList<>(ids.size());
+        for (String requestId : ids) {
+            queriedIds.incrementAndGet();
+            if (!StringUtils.hasText(requestId)) {
+                immediate.add(error(400, "RequestId 不能为空", requestId));
+                calls.add(null);
+                continue;
+            }
+            // 中文备注：已结束任务的结果在本地缓存中，直接应答，不占用批量线程池
+            TranslationResultResponse cached = resultQueryService.getCachedResult(requestId);
+            if (cached != null) {
+                answeredLocally.incrementAndGet();
+                immediate.add(cached);
+                calls.add(null);
+            } else {
+                immediate.add(null);
+                calls.add(() -> translationService.queryTaskResult(requestId));
+            }
+        }
+        return schedule(immediate, calls, ids).thenApply(results -> {
+            Map<String, PicTechResponse> byId = new LinkedHashMap<>();
+            for (int i = 0; i < ids.size(); i++) {
+                byId.put(ids.get(i), results.get(i));
+            }
+            return byId;
+        });
+    }
+
+    /**
+     * @return 批量请求数、条目数和本地应答的查询数等统计信息
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("parallelism", parallelism);
+        stats.put("queued", executor.getQueue().size());
+        stats.put("queueCapacity", queueCapacity);
+        stats.put("batches", batches.get());
+        stats.put("submittedItems", submittedItems.get());
+        stats.put("failedItems", failedItems.get());
+        stats.put("queriedIds", queriedIds.get());
+        stats.put("answeredLocally", answeredLocally.get());
+        stats.put("rejected", rejected.get());
+        return stats;
+    }
+
+    @PreDestroy
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    // ===================================================================================
+    // =                          私有辅助方法 (Private Helpers)                         =
+    // ===================================================================================
+
+    private void checkSize(int size) {
+        if (size == 0) {
+            throw new IllegalArgumentException("批量请求不能为空");
+        }
+        if (size > maxItems) {
+            throw new IllegalArgumentException("批量请求最多包含 " + maxItems + " 项，实际为 " + size);
+        }
+    }
+
+    private static String validate(BatchTranslationRequest.Item item, String sourceLanguage, String targetLanguage) {
+        if (StringUtils.hasText(item.getImageUrl()) == StringUtils.hasText(item.getImageBase64())) {
+            return "imageUrl 和 imageBase64 必须且只能指定一个";
+        }
+        if (!StringUtils.hasText(sourceLanguage) || !StringUtils.hasText(targetLanguage)) {
+            return "sourceLanguage 和 targetLanguage 不能为空";
+        }
+        return null;
+    }
+
+    /**
+     * 执行批量中需要调用上游的条目 (calls 中不为 null 的项)，其余条目以 immediate 中的响应应答。
+     * 先检查线程池能否容纳全部条目，放不下时整个批量以 {@link RejectedExecutionException} 结束，一个条目都不执行；
+     * 与其他批量并发准入导致个别条目仍被拒绝时，这些条目以 Code 503 的响应体返回，已执行条目的结果照常返回。
+     *
+     * @param requestIds 与 calls 对应的 RequestId，用于错误响应体，可以为 null
+     */
+    private CompletableFuture<List<PicTechResponse>> schedule(List<PicTechResponse> immediate,
+                                                              List<BlockingCall<? extends PicTechResponse>> calls,
+                                                              List<String> requestIds) {
+        long needed = calls.stream().filter(Objects::nonNull).count();
+        if (needed > availableCapacity()) {
+            rejected.incrementAndGet();
+            CompletableFuture<List<PicTechResponse>> failed = new CompletableFuture<>();
+            failed.completeExceptionally(new RejectedExecutionException("批量线程池剩余容量不足以容纳 " + needed + " 个条目"));
+            return failed;
+        }
+        List<CompletableFuture<PicTechResponse>> futures = new ArrayList<>(calls.size());
+        for (int i = 0; i < calls.size(); i++) {
+            BlockingCall<? extends PicTechResponse> call = calls.get(i);
+            String requestId = requestIds == null ? null : requestIds.get(i);
+            if (call == null) {
+                futures.add(CompletableFuture.completedFuture(immediate.get(i)));
+                continue;
+            }
+            try {
+                futures.add(supply(call, requestId));
+            } catch (RejectedExecutionException e) {
+                rejected.incrementAndGet();
+                futures.add(CompletableFuture.completedFuture(error(503, "服务繁忙，请稍后重试", requestId)));
+            }
+        }
+        return collect(futures);
+    }
+
+    /**
+     * @return 线程池还能接收的调用数：空闲线程数加上队列的剩余容量
+     */
+    private int availableCapacity() {
+        return Math.max(0, parallelism - executor.getActiveCount()) + executor.getQueue().remainingCapacity();
+    }
+
+    /**
+     * 在批量线程池中执行一次阻塞调用，异常转换为 Code 500 的响应体，不会使整个批量失败。
+     *
+     * @throws RejectedExecutionException 线程池的队列已满
+     */
+    private CompletableFuture<PicTechResponse> supply(BlockingCall<? extends PicTechResponse> call, String requestId) {
+        return CompletableFuture.<PicTechResponse>supplyAsync(() -> {
+            try {
+                return call.call();
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, executor).exceptionally(e -> {
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            return error(500, cause.getMessage(), requestId);
+        });
+    }
+
+    private static CompletableFuture<List<PicTechResponse>> collect(List<CompletableFuture<PicTechResponse>> futures) {
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).thenApply(ignored -> {
+            List<PicTechResponse> results = new ArrayList<>(futures.size());
+            for (CompletableFuture<PicTechResponse> future : futures) {
+                results.add(future.join());
+            }
+            return results;
+        });
+    }
+
+    private static PicTechResponse error(int code, String message, String requestId) {
+        return new PicTechResponse().setCode(code).setMessage(message).setRequestId(requestId);
+    }
+
+    /**
+     * TranslationService 的方法统一声明了 throws Exception，这里用于把它们包装进 CompletableFuture。
+     */
+    @FunctionalInterface
+    private interface BlockingCall<T> {
+        T call() throws Exception;
+    }
+}
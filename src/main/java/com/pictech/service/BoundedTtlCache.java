@@ -0,0 +1,109 @@
+package com.pictech.service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+
+/**
+ * 按容量 (估算字节数) 和条目数双重限制的 LRU 缓存，条目在写入 ttl 时间后过期。
+ * 所有操作在同一把锁下完成，适合读多写少、条目数在万级以内的场景。
+ */
+public class BoundedTtlCache<K, V> {
+
+    private final long maxWeight;
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final ToLongFunction<V> weigher;
+
+    // 中文备注：accessOrder = true，迭代顺序即最近最少使用顺序，头部是最先被淘汰的条目
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalWeight;
+    private long evictions;
+
+    /**
+     * @param maxWeight  所有条目权重之和的上限
+     * @param maxEntries 条目数上限
+     * @param ttlMillis  条目写入后的存活时间 (毫秒)
+     * @param weigher    计算单个值的权重 (例如估算的字节数)
+     */
+    public BoundedTtlCache(long maxWeight, int maxEntries, long ttlMillis, ToLongFunction<V> weigher) {
+        this.maxWeight = maxWeight;
+        this.maxEntries = maxEntries;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.weigher = weigher;
+    }
+
+    /**
+     * @return 未过期的缓存值，不存在时返回 null
+     */
+    public synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (System.nanoTime() - entry.writtenAtNanos > ttlNanos) {
+            remove(key);
+            return null;
+        }
+        return entry.value;
+    }
+
+    /**
+     * 写入缓存，超出容量时按 LRU 顺序淘汰旧条目。单个值的权重超过总容量时不缓存。
+     */
+    public synchronized void put(K key, V value) {
+        long weight = weigher.applyAsLong(value);
+        if (weight > maxWeight) {
+            return;
+        }
+        Entry<V> previous = entries.put(key, new Entry<>(value, weight, System.nanoTime()));
+        if (previous != null) {
+            totalWeight -= previous.weight;
+        }
+        totalWeight += weight;
+
+        Iterator<Map.Entry<K, Entry<V>>> iterator = entries.entrySet().iterator();
+        while ((totalWeight > maxWeight || entries.size() > maxEntries) && iterator.hasNext()) {
+            Map.Entry<K, Entry<V>> eldest = iterator.next();
+            if (eldest.getKey().equals(key)) {
+                continue;
+            }
+            totalWeight -= eldest.getValue().weight;
+            iterator.remove();
+            evictions++;
+        }
+    }
+
+    public synchronized void remove(K key) {
+        Entry<V> removed = entries.remove(key);
+        if (removed != null) {
+            totalWeight -= removed.weight;
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getTotalWeight() {
+        return totalWeight;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    private static class Entry<V> {
+        private final V value;
+        private final long weight;
+        private final long writtenAtNanos;
+
+        Entry(V value, long weight, long writtenAtNanos) {
+            this.value = value;
+            this.weight = weight;
+            this.writtenAtNanos = writtenAtNanos;
+        }
+    }
+}
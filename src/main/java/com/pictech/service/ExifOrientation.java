@@ -0,0 +1,100 @@
+package com.pictech.service;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 读取 JPEG 文件 EXIF 中的 Orientation (0x0112) 标签，只解析文件头部的 APP1 段，不解码图片。
+ * 取值 1~8，含义与 EXIF 规范一致：1 为正常方向，6 表示需要顺时针旋转 90° 才能正确显示，依此类推。
+ */
+final class ExifOrientation {
+
+    static final int NORMAL = 1;
+
+    private static final int TAG_ORIENTATION = 0x0112;
+
+    private ExifOrientation() {
+    }
+
+    /**
+     * @param in 图片输入流 (调用方负责关闭)
+     * @return Orientation 取值；不是 JPEG、没有 EXIF 或解析失败时返回 {@link #NORMAL}
+     */
+    static int read(InputStream in) {
+        try {
+            DataInputStream data = new DataInputStream(in);
+            if (data.readUnsignedShort() != 0xFFD8) {
+                return NORMAL;
+            }
+            while (true) {
+                int marker = data.readUnsignedShort();
+                if ((marker & 0xFF00) != 0xFF00 || marker == 0xFFDA || marker == 0xFFD9) {
+                    // 中文备注：到达图像数据 (SOS) 仍未找到 EXIF
+                    return NORMAL;
+                }
+                int length = data.readUnsignedShort() - 2;
+                if (length < 0) {
+                    return NORMAL;
+                }
+                if (marker == 0xFFE1) {
+                    byte[] segment = new byte[length];
+                    data.readFully(segment);
+                    int orientation = parseExif(segment);
+                    if (orientation != 0) {
+                        return orientation;
+                    }
+                } else {
+                    skipFully(data, length);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            return NORMAL;
+        }
+    }
+
+    /**
+     * @return APP1 段中的 Orientation，不是 EXIF 段或没有该标签时返回 0
+     */
+    private static int parseExif(byte[] segment) {
+        // 中文备注：APP1 以 "Exif\0\0" 开头，之后是 TIFF 头，偏移量都相对于 TIFF 头
+        if (segment.length < 14 || segment[0] != 'E' || segment[1] != 'x' || segment[2] != 'i' || segment[3] != 'f') {
+            return 0;
+        }
+        int tiff = 6;
+        boolean littleEndian = segment[tiff] == 'I' && segment[tiff + 1] == 'I';
+        int ifd = tiff + readInt(segment, tiff + 4, littleEndian);
+        int entries = readShort(segment, ifd, littleEndian);
+        for (int i = 0; i < entries; i++) {
+            int entry = ifd + 2 + i * 12;
+            if (readShort(segment, entry, littleEndian) == TAG_ORIENTATION) {
+                int value = readShort(segment, entry + 8, littleEndian);
+                return value >= 1 && value <= 8 ? value : NORMAL;
+            }
+        }
+        return 0;
+    }
+
+    private static int readShort(byte[] b, int offset, boolean littleEndian) {
+        int b0 = b[offset] & 0xFF;
+        int b1 = b[offset + 1] & 0xFF;
+        return littleEndian ? (b1 << 8) | b0 : (b0 << 8) | b1;
+    }
+
+    private static int readInt(byte[] b, int offset, boolean littleEndian) {
+        int high = readShort(b, littleEndian ? offset + 2 : offset, littleEndian);
+        int low = readShort(b, littleEndian ? offset : offset + 2, littleEndian);
+        return (high << 16) | low;
+    }
+
+    private static void skipFully(DataInputStream in, int n) throws IOException {
+        while (n > 0) {
+            int skipped = in.skipBytes(n);
+            if (skipped <= 0) {
+                throw new EOFException();
+            }
+            n -= skipped;
+        }
+    }
+}
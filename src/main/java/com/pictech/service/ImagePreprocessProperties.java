@@ -0,0 +1,78 @@
+package com.pictech.service;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * 提交前图片预处理的配置，对应 application.properties 中的 pictech.preprocess.* 配置项。
+ * 长边超过 maxLongEdge 的图片按比例缩小，带 EXIF 方向的 JPEG 转正，重新编码时去掉所有元数据。
+ */
+@ConfigurationProperties(prefix = "pictech.preprocess")
+public class ImagePreprocessProperties {
+
+    /** 是否启用预处理 */
+    private boolean enabled = true;
+
+    /** 图片长边的最大像素数，超过时按比例缩小 */
+    private int maxLongEdge = 2048;
+
+    /** JPEG 重新编码的质量 (0~1)，PNG 为无损编码不受影响 */
+    private float jpegQuality = 0.85f;
+
+    /** 尺寸和方向都无需调整的 JPEG，小于该大小时原样上传，不再尝试重新压缩 */
+    private DataSize minRecompressSize = DataSize.ofKilobytes(512);
+
+    /** 预处理线程数，默认与 CPU 核数相同 */
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    /** 等待预处理的队列长度，队列已满时跳过预处理直接上传原图 */
+    private int queueCapacity = 32;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxLongEdge() {
+        return maxLongEdge;
+    }
+
+    public void setMaxLongEdge(int maxLongEdge) {
+        this.maxLongEdge = maxLongEdge;
+    }
+
+    public float getJpegQuality() {
+        return jpegQuality;
+    }
+
+    public void setJpegQuality(float jpegQuality) {
+        this.jpegQuality = jpegQuality;
+    }
+
+    public DataSize getMinRecompressSize() {
+        return minRecompressSize;
+    }
+
+    public void setMinRecompressSize(DataSize minRecompressSize) {
+        this.minRecompressSize = minRecompressSize;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+}
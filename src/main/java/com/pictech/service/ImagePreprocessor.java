@@ -0,0 +1,356 @@
+package com.pictech.service;
+
+import com.pictech.client.ImageSource;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * 提交前的图片预处理，在上传到 PicTech API 之前缩小并重新压缩过大的图片：
+ * 1. 长边超过 pictech.preprocess.max-long-edge 时按比例缩小 (解码时先做整数倍下采样，再用双线性插值缩放到目标尺寸)；
+ * 2. 按 EXIF Orientation 把 JPEG 转正，重新编码后不再携带 EXIF 等元数据；
+ * 3. JPEG 按配置的质量重新编码，其他格式编码为 PNG；尺寸和方向都不需要调整且结果没有变小时保留原图。
+ * 解码和编码在独立的有界线程池中执行，队列已满、格式无法识别或处理失败时都直接使用原图，不影响提交。
+ */
+@Service
+public class ImagePreprocessor {
+
+    private static final Logger LOGGER = Logger.getLogger(ImagePreprocessor.class.getName());
+
+    private final ImagePreprocessProperties properties;
+    private final ThreadPoolExecutor executor;
+    private final DistributionSummary savedSummary;
+    private final Timer timer;
+
+    // --- 统计 ---
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong unchanged = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong bytesIn = new AtomicLong();
+    private final AtomicLong bytesOut = new AtomicLong();
+
+    @Autowired
+    public ImagePreprocessor(ImagePreprocessProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        int threads = Math.max(1, properties.getThreads());
+        AtomicInteger sequence = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, properties.getQueueCapacity())), r -> {
+            Thread thread = new Thread(r, "pictech-preprocess-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor.allowCoreThreadTimeOut(true);
+        this.savedSummary = DistributionSummary.builder("pictech.preprocess.bytes.saved")
+                .description("预处理为每张图片节省的上传字节数").baseUnit("bytes").register(meterRegistry);
+        this.timer = Timer.builder("pictech.preprocess")
+                .description("图片预处理 (解码、缩放、编码) 耗时").register(meterRegistry);
+        registerMeters(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * 预处理一张图片，在预处理线程池中执行，调用线程等待结果。
+     * 任何情况下都不会抛出异常：无法处理时返回 {@link Result#isChanged()} 为 false 的结果，调用方继续使用原图。
+     *
+     * @param image         图片来源，会被打开两次 (读取 EXIF、解码)
+     * @param originalBytes 原图字节数
+     * @return 预处理结果
+     */
+    public Result process(ImageSource image, long originalBytes) {
+        if (!properties.isEnabled()) {
+            return Result.unchanged(image.mimeType(), originalBytes);
+        }
+        Future<Result> future;
+        try {
+            future = executor.submit(() -> transform(image, originalBytes));
+        } catch (RejectedExecutionException e) {
+            // 中文备注：线程池和队列都已满，说明 CPU 已是瓶颈，跳过预处理比排队等待更快
+            rejected.incrementAndGet();
+            return Result.unchanged(image.mimeType(), originalBytes);
+        }
+        try {
+            Result result = future.get();
+            if (result.isChanged()) {
+                processed.incrementAndGet();
+                savedSummary.record(result.getBytesSaved());
+                LOGGER.info("图片预处理: " + result.describe());
+            } else {
+                unchanged.incrementAndGet();
+            }
+            bytesIn.addAndGet(originalBytes);
+            bytesOut.addAndGet(result.getOutputBytes());
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            return Result.unchanged(image.mimeType(), originalBytes);
+        } catch (ExecutionException e) {
+            failed.incrementAndGet();
+            LOGGER.warning("图片预处理失败，使用原图提交: " + e.getCause());
+            return Result.unchanged(image.mimeType(), originalBytes);
+        }
+    }
+
+    /**
+     * @return 预处理次数、节省字节数等统计信息
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", properties.isEnabled());
+        stats.put("maxLongEdge", properties.getMaxLongEdge());
+        stats.put("processed", processed.get());
+        stats.put("unchanged", unchanged.get());
+        stats.put("rejected", rejected.get());
+        stats.put("failed", failed.get());
+        stats.put("bytesIn", bytesIn.get());
+        stats.put("bytesOut", bytesOut.get());
+        stats.put("bytesSaved", bytesIn.get() - bytesOut.get());
+        stats.put("active", executor.getActiveCount());
+        stats.put("queued", executor.getQueue().size());
+        return stats;
+    }
+
+    @PreDestroy
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 单张图片的预处理结果。
+     */
+    public static class Result {
+        private final byte[] bytes;
+        private final String mimeType;
+        private final long originalBytes;
+        private final String detail;
+
+        private Result(byte[] bytes, String mimeType, long originalBytes, String detail) {
+            this.bytes = bytes;
+            this.mimeType = mimeType;
+            this.originalBytes = originalBytes;
+            this.detail = detail;
+        }
+
+        static Result unchanged(String mimeType, long originalBytes) {
+            return new Result(null, mimeType, originalBytes, null);
+        }
+
+        /**
+         * @return 是否生成了新图片；为 false 时应继续使用原图
+         */
+        public boolean isChanged() {
+            return bytes != null;
+        }
+
+        /**
+         * @return 新图片的字节，未改变时为 null
+         */
+        public byte[] getBytes() {
+            return bytes;
+        }
+
+        public String getMimeType() {
+            return mimeType;
+        }
+
+        public long getOutputBytes() {
+            return bytes == null ? originalBytes : bytes.length;
+        }
+
+        public long getBytesSaved() {
+            return originalBytes - getOutputBytes();
+        }
+
+        String describe() {
+            return detail + String.format(Locale.ROOT, "，%d -> %d 字节，节省 %.1f%%", originalBytes, getOutputBytes(),
+                    originalBytes == 0 ? 0.0 : 100.0 * getBytesSaved() / originalBytes);
+        }
+    }
+
+    // ===================================================================================
+    // =                          私有辅助方法 (Private Helpers)                         =
+    // ===================================================================================
+
+    private void registerMeters(MeterRegistry registry) {
+        FunctionCounter.builder("pictech.preprocess.images", unchanged, AtomicLong::get)
+                .description("预处理的图片数").tag("result", "unchanged").register(registry);
+        FunctionCounter.builder("pictech.preprocess.images", processed, AtomicLong::get)
+                .description("预处理的图片数").tag("result", "processed").register(registry);
+        FunctionCounter.builder("pictech.preprocess.images", rejected, AtomicLong::get)
+                .description("预处理的图片数").tag("result", "rejected").register(registry);
+        FunctionCounter.builder("pictech.preprocess.images", failed, AtomicLong::get)
+                .description("预处理的图片数").tag("result", "failed").register(registry);
+    }
+
+    private Result transform(ImageSource image, long originalBytes) throws IOException {
+        long start = System.nanoTime();
+        try {
+            return doTransform(image, originalBytes);
+        } finally {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Result doTransform(ImageSource image, long originalBytes) throws IOException {
+        int orientation;
+        try (InputStream in = image.openStream()) {
+            orientation = ExifOrientation.read(in);
+        }
+        try (InputStream in = image.openStream();
+             ImageInputStream iis = new MemoryCacheImageInputStream(in)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(iis);
+            if (!readers.hasNext()) {
+                return Result.unchanged(image.mimeType(), originalBytes);
+            }
+            ImageReader reader = readers.next();
+            try {
+                // 中文备注：ignoreMetadata = true，跳过 EXIF/ICC 等元数据的解析，重新编码的图片也不会带上它们
+                reader.setInput(iis, true, true);
+                boolean jpeg = "jpeg".equalsIgnoreCase(reader.getFormatName()) || "jpg".equalsIgnoreCase(reader.getFormatName());
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                int longEdge = Math.max(width, height);
+                int maxLongEdge = properties.getMaxLongEdge();
+                boolean resize = maxLongEdge > 0 && longEdge > maxLongEdge;
+                boolean rotate = jpeg && orientation != ExifOrientation.NORMAL;
+                if (!resize && !rotate && (!jpeg || originalBytes < properties.getMinRecompressSize().toBytes())) {
+                    return Result.unchanged(image.mimeType(), originalBytes);
+                }
+
+                // 中文备注：整数倍下采样在解码时完成，只保留目标尺寸 2 倍以上的像素，显著减少超大图的解码内存和耗时
+                ImageReadParam param = reader.getDefaultReadParam();
+                int subsampling = resize ? Math.max(1, longEdge / (2 * maxLongEdge)) : 1;
+                if (subsampling > 1) {
+                    param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                }
+                BufferedImage decoded = reader.read(0, param);
+                double scale = resize ? (double) maxLongEdge / Math.max(decoded.getWidth(), decoded.getHeight()) : 1.0;
+                BufferedImage output = render(decoded, orientation, scale, jpeg);
+
+                byte[] bytes = jpeg ? encodeJpeg(output) : encodePng(output);
+                if (!resize && !rotate && bytes.length >= originalBytes) {
+                    return Result.unchanged(image.mimeType(), originalBytes);
+                }
+                String detail = String.format(Locale.ROOT, "%dx%d -> %dx%d%s", width, height,
+                        output.getWidth(), output.getHeight(), rotate ? " (EXIF 方向 " + orientation + ")" : "");
+                return new Result(bytes, jpeg ? "image/jpeg" : "image/png", originalBytes, detail);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * 缩放并按 EXIF 方向转正。缩小倍数超过 2 倍时先逐次减半，避免双线性插值一次缩小过多产生锯齿。
+     */
+    private static BufferedImage render(BufferedImage source, int orientation, double scale, boolean opaque) {
+        int type = opaque || !source.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB;
+        BufferedImage current = source;
+        while (scale < 0.5) {
+            current = draw(current, current.getWidth() / 2, current.getHeight() / 2, new AffineTransform(), type);
+            scale *= 2;
+        }
+        int sw = Math.max(1, (int) Math.round(current.getWidth() * scale));
+        int sh = Math.max(1, (int) Math.round(current.getHeight() * scale));
+        // 中文备注：先缩放到 sw x sh，再应用 EXIF 方向对应的变换；方向 5~8 会交换宽高
+        AffineTransform transform = orientationTransform(orientation, sw, sh);
+        transform.concatenate(AffineTransform.getScaleInstance((double) sw / current.getWidth(), (double) sh / current.getHeight()));
+        boolean swap = orientation >= 5 && orientation <= 8;
+        return draw(current, swap ? sh : sw, swap ? sw : sh, transform, type);
+    }
+
+    private static AffineTransform orientationTransform(int orientation, int sw, int sh) {
+        switch (orientation) {
+            case 2: return new AffineTransform(-1, 0, 0, 1, sw, 0);
+            case 3: return new AffineTransform(-1, 0, 0, -1, sw, sh);
+            case 4: return new AffineTransform(1, 0, 0, -1, 0, sh);
+            case 5: return new AffineTransform(0, 1, 1, 0, 0, 0);
+            case 6: return new AffineTransform(0, 1, -1, 0, sh, 0);
+            case 7: return new AffineTransform(0, -1, -1, 0, sh, sw);
+            case 8: return new AffineTransform(0, -1, 1, 0, 0, sw);
+            default: return new AffineTransform();
+        }
+    }
+
+    private static BufferedImage draw(BufferedImage source, int width, int height, AffineTransform transform, int type) {
+        BufferedImage target = new BufferedImage(Math.max(1, width), Math.max(1, height), type);
+        Graphics2D g = target.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            if (type == BufferedImage.TYPE_INT_RGB) {
+                // 中文备注：透明像素转为 JPEG 时以白色作为背景
+                g.setColor(Color.WHITE);
+                g.fillRect(0, 0, target.getWidth(), target.getHeight());
+            }
+            g.drawImage(source, transform, null);
+        } finally {
+            g.dispose();
+        }
+        return target;
+    }
+
+    private byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream ios = new MemoryCacheImageOutputStream(out)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(properties.getJpegQuality());
+            writer.setOutput(ios);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] encodePng(BufferedImage image) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream ios = new MemoryCacheImageOutputStream(out)) {
+            ImageIO.write(image, "png", ios);
+        }
+        return out.toByteArray();
+    }
+}
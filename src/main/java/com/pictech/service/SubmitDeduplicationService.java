@@ -0,0 +1,555 @@
+package com.pictech.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.pictech.client.TaskCompletionListener;
+import com.pictech.client.TaskCompletionPoller;
+import com.pictech.client.TaskType;
+import com.pictech.client.model.PicTechResponse;
+import com.pictech.client.model.SubmitTaskResponse;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * 翻译任务提交去重层，位于 {@link TranslationService} 的上传类提交 (Base64、文件) 之前：
+ * 1. 以解码后图片字节的 SHA-256 加上源语言、目标语言作为 key，已经提交成功的相同内容直接返回原来的 RequestId，
+ *    之后的结果查询由 {@link TaskResultQueryService} 的终态缓存应答；
+ * 2. 同一 key 的并发提交只发起一次上游调用，其余请求共享同一个结果 (single-flight)；
+ * 3. 索引由后台线程批量追加写入本地文件 (每行一条 JSON)，不在提交路径上等待磁盘；文件中失效的行
+ *    (被删除或覆盖的条目) 累积到一定数量时在后台压缩，重启后重新加载，加载时丢弃过期条目并压缩文件；
+ * 4. 任务最终失败时删除对应条目，下一次提交会重新调用上游。
+ */
+@Service
+public class SubmitDeduplicationService implements TaskCompletionListener {
+
+    private static final Logger LOGGER = Logger.getLogger(SubmitDeduplicationService.class.getName());
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final int MAX_PENDING_LINES = 10000;
+    private static final int COMPACT_MIN_LINES = 1000;
+
+    private final boolean enabled;
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final Path indexFile;
+
+    // 中文备注：accessOrder = true，头部是最久未使用的条目；byRequestId 用于任务失败时反查 key
+    private final LinkedHashMap<String, IndexEntry> index = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, String> byRequestId = new HashMap<>();
+    private final ConcurrentMap<String, CompletableFuture<SubmitTaskResponse>> inFlight = new ConcurrentHashMap<>();
+    private final BlockingQueue<String> pendingLines = new ArrayBlockingQueue<>(MAX_PENDING_LINES);
+    private Thread indexWriterThread;
+    private volatile boolean closed;
+    private volatile boolean compactRequested;
+    // 中文备注：indexWriter 和 fileLines 只由写入线程 (启动时由 loadIndex) 访问
+    private BufferedWriter indexWriter;
+    private long fileLines;
+
+    // --- 统计 ---
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong bytesSaved = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    @Autowired
+    public SubmitDeduplicationService(TaskCompletionPoller completionPoller,
+                                      MeterRegistry meterRegistry,
+                                      @Value("${pictech.api.dedup.enabled:true}") boolean enabled,
+                                      @Value("${pictech.api.dedup.max-entries:100000}") int maxEntries,
+                                      @Value("${pictech.api.dedup.ttl:24h}") Duration ttl,
+                                      @Value("${pictech.api.dedup.index-file:${file.upload-dir}/submit-dedup-index.jsonl}") String indexFile) {
+        this.enabled = enabled;
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttl.toMillis();
+        this.indexFile = Paths.get(indexFile);
+        if (enabled) {
+            loadIndex();
+            if (indexWriter != null) {
+                indexWriterThread = new Thread(this::runIndexWriter, "pictech-dedup-index");
+                indexWriterThread.setDaemon(true);
+                indexWriterThread.start();
+            }
+            completionPoller.addListener(this);
+        }
+        registerMeters(meterRegistry);
+    }
+
+    /**
+     * 按图片内容去重后提交翻译任务。
+     *
+     * @param digest         计算图片内容摘要，见 {@link #digest(InputStream)} 和 {@link #digestBase64(String)}；
+     *                       去重关闭时不会调用，省去读取和解码整张图片
+     * @param sourceLanguage 源语言
+     * @param targetLanguage 目标语言
+     * @param upstream       实际的上游提交，未命中时调用
+     * @return 命中时为复用的提交结果 (RequestId 与第一次提交相同)，否则为上游的响应
+     */
+    public SubmitTaskResponse submit(Callable<ImageDigest> digest, String sourceLanguage, String targetLanguage,
+                                     Callable<SubmitTaskResponse> upstream) throws Exception {
+        if (!enabled) {
+            return upstream.call();
+        }
+        ImageDigest image = digest.call();
+        String key = key(image, sourceLanguage, targetLanguage);
+        SubmitTaskResponse cached = lookup(key);
+        if (cached != null) {
+            hits.incrementAndGet();
+            bytesSaved.addAndGet(image.getBytes());
+            return cached;
+        }
+
+        CompletableFuture<SubmitTaskResponse> leader = new CompletableFuture<>();
+        CompletableFuture<SubmitTaskResponse> existing = inFlight.putIfAbsent(key, leader);
+        if (existing != null) {
+            coalesced.incrementAndGet();
+            bytesSaved.addAndGet(image.getBytes());
+            return await(existing);
+        }
+
+        misses.incrementAndGet();
+        try {
+            SubmitTaskResponse response = upstream.call();
+            if (response != null && response.isSuccess() && response.getRequestId() != null) {
+                record(key, response);
+            }
+            leader.complete(response);
+            return response;
+        } catch (Exception e) {
+            leader.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, leader);
+        }
+    }
+
+    /**
+     * 查询到任务失败 (Code 既不是 200 也不是 202) 时删除对应条目。
+     */
+    public void onResult(String requestId, PicTechResponse result) {
+        if (enabled && result != null && !result.isSuccess() && !result.isProcessing()) {
+            invalidate(requestId);
+        }
+    }
+
+    @Override
+    public void onCompleted(TaskType type, String requestId, PicTechResponse result) {
+        if (type == TaskType.TRANSLATION) {
+            onResult(requestId, result);
+        }
+    }
+
+    /**
+     * @return 命中率、节省的上传字节数等统计信息
+     */
+    public Map<String, Object> getStats() {
+        long hitCount = hits.get() + coalesced.get();
+        long total = hitCount + misses.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("hits", hits.get());
+        stats.put("coalesced", coalesced.get());
+        stats.put("misses", misses.get());
+        stats.put("hitRate", total == 0 ? 0.0 : (double) hitCount / total);
+        stats.put("bytesSaved", bytesSaved.get());
+        stats.put("invalidations", invalidations.get());
+        synchronized (this) {
+            stats.put("entries", index.size());
+        }
+        stats.put("inFlight", inFlight.size());
+        return stats;
+    }
+
+    /**
+     * 流式计算图片字节的摘要，不在内存中保留图片内容。
+     */
+    public static ImageDigest digest(InputStream in) throws IOException {
+        MessageDigest sha256 = sha256();
+        byte[] buffer = new byte[8192];
+        long total = 0;
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+            sha256.update(buffer, 0, n);
+            total += n;
+        }
+        return new ImageDigest(sha256.digest(), total);
+    }
+
+    /**
+     * 计算 Base64 图片 (可以带 data: 前缀) 解码后字节的摘要，按块解码，不生成完整的 byte[]。
+     * 内容不是标准 Base64 (例如含换行) 时退回到整体解码。
+     */
+    public static ImageDigest digestBase64(String imageBase64) {
+        int start = imageBase64.indexOf(',') + 1;
+        MessageDigest sha256 = sha256();
+        Base64.Decoder decoder = Base64.getDecoder();
+        byte[] chunk = new byte[8192];
+        byte[] decoded = new byte[6144];
+        long total = 0;
+        try {
+            // 中文备注：块大小是 4 的倍数，每块可以独立解码，只有最后一块可能带 "=" 填充
+            for (int offset = start; offset < imageBase64.length(); offset += chunk.length) {
+                int length = Math.min(chunk.length, imageBase64.length() - offset);
+                byte[] src = length == chunk.length ? chunk : new byte[length];
+                for (int i = 0; i < length; i++) {
+                    src[i] = (byte) imageBase64.charAt(offset + i);
+                }
+                int written = decoder.decode(src, decoded);
+                sha256.update(decoded, 0, written);
+                total += written;
+            }
+        } catch (IllegalArgumentException e) {
+            byte[] bytes = Base64.getMimeDecoder().decode(imageBase64.substring(start));
+            return new ImageDigest(sha256().digest(bytes), bytes.length);
+        }
+        return new ImageDigest(sha256.digest(), total);
+    }
+
+    /**
+     * 写入线程写完排队中的索引行后关闭索引文件
+     */
+    @PreDestroy
+    public void close() throws InterruptedException {
+        closed = true;
+        if (indexWriterThread != null) {
+            indexWriterThread.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    // ===================================================================================
+    // =                          私有辅助方法 (Private Helpers)                         =
+    // ===================================================================================
+
+    /**
+     * 导出到 /actuator/prometheus：pictech.dedup.lookups (按 result 区分) 和 pictech.dedup.bytes.saved。
+     */
+    private void registerMeters(MeterRegistry registry) {
+        FunctionCounter.builder("pictech.dedup.lookups", hits, AtomicLong::get)
+                .description("提交去重的查找次数").tag("result", "hit").register(registry);
+        FunctionCounter.builder("pictech.dedup.lookups", coalesced, AtomicLong::get)
+                .description("提交去重的查找次数").tag("result", "coalesced").register(registry);
+        FunctionCounter.builder("pictech.dedup.lookups", misses, AtomicLong::get)
+                .description("提交去重的查找次数").tag("result", "miss").register(registry);
+        FunctionCounter.builder("pictech.dedup.bytes.saved", bytesSaved, AtomicLong::get)
+                .description("因复用已有任务而未上传的图片字节数").baseUnit("bytes").register(registry);
+    }
+
+    private static String key(ImageDigest image, String sourceLanguage, String targetLanguage) {
+        return image.getSha256() + '|' + sourceLanguage + '|' + targetLanguage;
+    }
+
+    private synchronized SubmitTaskResponse lookup(String key) {
+        IndexEntry entry = index.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (isExpired(entry, System.currentTimeMillis())) {
+            removeEntry(key);
+            return null;
+        }
+        SubmitTaskResponse response = new SubmitTaskResponse().setData(entry.data);
+        response.setCode(PicTechResponse.CODE_SUCCESS).setMessage(entry.message).setRequestId(entry.requestId);
+        return response;
+    }
+
+    private synchronized void record(String key, SubmitTaskResponse response) {
+        IndexEntry entry = new IndexEntry(response.getRequestId(), response.getMessage(), response.getData(),
+                System.currentTimeMillis());
+        putEntry(key, entry);
+        append(key, entry);
+    }
+
+    private synchronized void invalidate(String requestId) {
+        String key = byRequestId.get(requestId);
+        if (key != null) {
+            removeEntry(key);
+            invalidations.incrementAndGet();
+        }
+    }
+
+    private void putEntry(String key, IndexEntry entry) {
+        IndexEntry previous = index.put(key, entry);
+        if (previous != null) {
+            byRequestId.remove(previous.requestId);
+        }
+        byRequestId.put(entry.requestId, key);
+        Iterator<Map.Entry<String, IndexEntry>> iterator = index.entrySet().iterator();
+        while (index.size() > maxEntries && iterator.hasNext()) {
+            Map.Entry<String, IndexEntry> eldest = iterator.next();
+            byRequestId.remove(eldest.getValue().requestId);
+            iterator.remove();
+            appendRemoval(eldest.getKey());
+        }
+    }
+
+    private void removeEntry(String key) {
+        IndexEntry removed = index.remove(key);
+        if (removed != null) {
+            byRequestId.remove(removed.requestId);
+            appendRemoval(key);
+        }
+    }
+
+    private boolean isExpired(IndexEntry entry, long now) {
+        return now - entry.createdAtMillis > ttlMillis;
+    }
+
+    /**
+     * 读取索引文件 (后写入的行覆盖先写入的行)，丢弃过期条目后重写为压缩后的文件，再以追加方式打开。
+     */
+    private synchronized void loadIndex() {
+        try {
+            if (indexFile.getParent() != null) {
+                Files.createDirectories(indexFile.getParent());
+            }
+            long now = System.currentTimeMillis();
+            if (Files.exists(indexFile)) {
+                try (BufferedReader reader = Files.newBufferedReader(indexFile, StandardCharsets.UTF_8)) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        loadLine(line, now);
+                    }
+                }
+            }
+            compact();
+            LOGGER.info("已加载提交去重索引: " + index.size() + " 条 (" + indexFile + ")");
+        } catch (IOException e) {
+            // 中文备注：索引文件不可用时只在内存中去重，不影响提交
+            LOGGER.warning("加载提交去重索引失败，本次运行只在内存中去重: " + e.getMessage());
+        }
+    }
+
+    private void loadLine(String line, long now) {
+        try {
+            ObjectNode node = (ObjectNode) MAPPER.readTree(line);
+            String key = node.path("key").asText();
+            if (node.path("removed").asBoolean(false)) {
+                IndexEntry removed = index.remove(key);
+                if (removed != null) {
+                    byRequestId.remove(removed.requestId);
+                }
+                return;
+            }
+            IndexEntry entry = new IndexEntry(node.path("requestId").asText(), textOrNull(node, "message"),
+                    textOrNull(node, "data"), node.path("createdAt").asLong());
+            if (!isExpired(entry, now)) {
+                putEntry(key, entry);
+            }
+        } catch (IOException | RuntimeException e) {
+            // 中文备注：进程异常退出可能留下不完整的最后一行，跳过即可
+            LOGGER.warning("跳过无法解析的去重索引行: " + e.getMessage());
+        }
+    }
+
+    private void append(String key, IndexEntry entry) {
+        writeLine(toJson(key, entry));
+    }
+
+    private void appendRemoval(String key) {
+        ObjectNode node = MAPPER.createObjectNode();
+        node.put("key", key);
+        node.put("removed", true);
+        writeLine(node.toString());
+    }
+
+    /**
+     * 索引行交给写入线程，不在持有锁的提交路径上写盘；队列已满时丢弃该行，由下一次压缩从内存重写整个文件
+     */
+    private void writeLine(String line) {
+        if (indexWriterThread != null && !pendingLines.offer(line)) {
+            compactRequested = true;
+        }
+    }
+
+    private void runIndexWriter() {
+        List<String> batch = new ArrayList<>();
+        while (!closed || !pendingLines.isEmpty()) {
+            try {
+                String first = pendingLines.poll(200, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    pendingLines.drainTo(batch);
+                    writeLines(batch);
+                }
+                // 中文备注：文件行数超过存活条目数的两倍时说明大部分是失效的行，重写为只包含存活条目的文件
+                if (compactRequested || fileLines > 2L * entryCount() + COMPACT_MIN_LINES) {
+                    compact();
+                }
+            } catch (IOException e) {
+                LOGGER.warning("压缩提交去重索引失败: " + e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                batch.clear();
+            }
+        }
+        closeIndexWriter();
+    }
+
+    /**
+     * 一批索引行写入后只 flush 一次
+     */
+    private void writeLines(List<String> lines) {
+        if (indexWriter == null) {
+            return;
+        }
+        try {
+            for (String line : lines) {
+                indexWriter.write(line);
+                indexWriter.newLine();
+            }
+            indexWriter.flush();
+            fileLines += lines.size();
+        } catch (IOException e) {
+            LOGGER.warning("写入提交去重索引失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 把内存中的存活条目重写为新的索引文件，再以追加方式打开。
+     * 快照之后仍在队列中的行会追加在新文件之后，重放它们得到的结果与快照相同。
+     */
+    private void compact() throws IOException {
+        compactRequested = false;
+        List<String> lines;
+        synchronized (this) {
+            lines = new ArrayList<>(index.size());
+            for (Map.Entry<String, IndexEntry> entry : index.entrySet()) {
+                lines.add(toJson(entry.getKey(), entry.getValue()));
+            }
+        }
+        Path compacted = indexFile.resolveSibling(indexFile.getFileName() + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(compacted, StandardCharsets.UTF_8)) {
+            for (String line : lines) {
+                writer.write(line);
+                writer.newLine();
+            }
+        }
+        closeIndexWriter();
+        Files.move(compacted, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        indexWriter = Files.newBufferedWriter(indexFile, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        fileLines = lines.size();
+    }
+
+    private void closeIndexWriter() {
+        if (indexWriter != null) {
+            try {
+                indexWriter.close();
+            } catch (IOException e) {
+                LOGGER.warning("关闭去重索引文件失败: " + e.getMessage());
+            }
+            indexWriter = null;
+        }
+    }
+
+    private synchronized int entryCount() {
+        return index.size();
+    }
+
+    private static String toJson(String key, IndexEntry entry) {
+        ObjectNode node = MAPPER.createObjectNode();
+        node.put("key", key);
+        node.put("requestId", entry.requestId);
+        node.put("message", entry.message);
+        node.put("data", entry.data);
+        node.put("createdAt", entry.createdAtMillis);
+        return node.toString();
+    }
+
+    private static String textOrNull(ObjectNode node, String field) {
+        return node.hasNonNull(field) ? node.get(field).asText() : null;
+    }
+
+    private static SubmitTaskResponse await(CompletableFuture<SubmitTaskResponse> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("当前 JVM 不支持 SHA-256", e);
+        }
+    }
+
+    /**
+     * 图片内容摘要：解码后字节的 SHA-256 (十六进制) 和字节数。
+     */
+    public static class ImageDigest {
+        private final String sha256;
+        private final long bytes;
+
+        public ImageDigest(byte[] sha256, long bytes) {
+            StringBuilder hex = new StringBuilder(sha256.length * 2);
+            for (byte b : sha256) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            this.sha256 = hex.toString();
+            this.bytes = bytes;
+        }
+
+        public String getSha256() {
+            return sha256;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+    }
+
+    private static class IndexEntry {
+        private final String requestId;
+        private final String message;
+        private final String data;
+        private final long createdAtMillis;
+
+        IndexEntry(String requestId, String message, String data, long createdAtMillis) {
+            this.requestId = requestId;
+            this.message = message;
+            this.data = data;
+            this.createdAtMillis = createdAtMillis;
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package com.pictech.service;
+
+import com.pictech.client.TaskCompletionListener;
+import com.pictech.client.TaskCompletionPoller;
+import com.pictech.client.TaskType;
+import com.pictech.client.model.PicTechResponse;
+import com.pictech.client.model.TranslationResultResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 翻译任务状态的 Server-Sent Events 推送：
+ * 1. 前端订阅某个 RequestId 后，任务交给共享轮询器 {@link TaskCompletionPoller} 跟踪，同一任务的所有订阅者共用一次轮询；
+ * 2. 任务状态 (Code / Message) 变化时推送 status 事件，进入终态时推送 result 事件并关闭连接，停止跟踪时推送 error 事件；
+ * 3. 已结束并缓存了结果的任务，订阅时直接推送 result 事件；
+ * 4. 连接基于 Servlet 异步请求，等待期间不占用线程，事件在单独的推送线程上发送，并定期发送注释行保持连接。
+ */
+@Service
+public class TaskEventService implements TaskCompletionListener {
+
+    private final TaskCompletionPoller completionPoller;
+    private final TaskResultQueryService resultQueryService;
+    private final long timeoutMillis;
+    private final int maxSubscribers;
+
+    private final ConcurrentMap<String, Subscription> subscriptions = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final ScheduledExecutorService pushExecutor;
+
+    // --- 统计 ---
+    private final AtomicLong subscribed = new AtomicLong();
+    private final AtomicLong eventsSent = new AtomicLong();
+    private final AtomicLong answeredFromCache = new AtomicLong();
+
+    @Autowired
+    public TaskEventService(TaskCompletionPoller completionPoller,
+                            TaskResultQueryService resultQueryService,
+                            @Value("${pictech.api.events.timeout:10m}") Duration timeout,
+                            @Value("${pictech.api.events.heartbeat:15s}") Duration heartbeat,
+                            @Value("${pictech.api.events.max-subscribers:10000}") int maxSubscribers) {
+        this.completionPoller = completionPoller;
+        this.resultQueryService = resultQueryService;
+        this.timeoutMillis = timeout.toMillis();
+        this.maxSubscribers = maxSubscribers;
+        this.pushExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "pictech-sse");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.pushExecutor.scheduleWithFixedDelay(this::sendHeartbeats,
+                heartbeat.toMillis(), heartbeat.toMillis(), TimeUnit.MILLISECONDS);
+        completionPoller.addListener(this);
+    }
+
+    /**
+     * 订阅一个翻译任务的状态变化。
+     *
+     * @param requestId 任务 ID
+     * @return 事件流，任务结束后由服务端关闭
+     * @throws IllegalStateException 订阅数已达到 pictech.api.events.max-subscribers
+     */
+    public SseEmitter subscribe(String requestId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        TranslationResultResponse cached = resultQueryService.getCachedResult(requestId);
+        if (cached != null) {
+            answeredFromCache.incrementAndGet();
+            pushExecutor.execute(() -> {
+                send(emitter, "result", cached);
+                emitter.complete();
+            });
+            return emitter;
+        }
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new IllegalStateException("订阅数已达到上限 " + maxSubscribers);
+        }
+        subscribed.incrementAndGet();
+
+        Subscription subscription;
+        do {
+            // 中文备注：任务恰好结束时取到的订阅可能已关闭，重新取一个新的
+            subscription = subscriptions.computeIfAbsent(requestId, Subscription::new);
+        } while (!subscription.add(emitter));
+        Subscription joined = subscription;
+        Runnable remove = () -> unsubscribe(requestId, joined, emitter);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(error -> remove.run());
+
+        pushExecutor.execute(() -> send(emitter, "status", joined.lastStatus));
+        completionPoller.track(TaskType.TRANSLATION, requestId);
+
+        // 中文备注：注册订阅前任务可能刚好结束，此时轮询器不会再通知，重新检查一次缓存
+        TranslationResultResponse completedMeanwhile = resultQueryService.getCachedResult(requestId);
+        if (completedMeanwhile != null) {
+            onCompleted(TaskType.TRANSLATION, requestId, completedMeanwhile);
+        }
+        return emitter;
+    }
+
+    @Override
+    public void onProgress(TaskType type, String requestId, PicTechResponse result, int attempt) {
+        Subscription subscription = type == TaskType.TRANSLATION ? subscriptions.get(requestId) : null;
+        if (subscription == null) {
+            return;
+        }
+        Map<String, Object> status = status(requestId, result.getCode(), result.getMessage());
+        // 中文备注：只推送状态变化，处理中的重复查询结果不再推送
+        if (!status.equals(subscription.lastStatus)) {
+            subscription.lastStatus = status;
+            pushExecutor.execute(() -> broadcast(subscription, "status", status));
+        }
+    }
+
+    @Override
+    public void onCompleted(TaskType type, String requestId, PicTechResponse result) {
+        Subscription subscription = type == TaskType.TRANSLATION ? subscriptions.remove(requestId) : null;
+        if (subscription != null) {
+            subscription.close();
+            pushExecutor.execute(() -> closeAll(subscription, "result", result));
+        }
+    }
+
+    @Override
+    public void onFailed(TaskType type, String requestId, Throwable error) {
+        Subscription subscription = type == TaskType.TRANSLATION ? subscriptions.remove(requestId) : null;
+        if (subscription != null) {
+            subscription.close();
+            Map<String, Object> payload = new LinkedHashMap<>();
+            payload.put("RequestId", requestId);
+            payload.put("Message", error.getMessage());
+            pushExecutor.execute(() -> closeAll(subscription, "error", payload));
+        }
+    }
+
+    /**
+     * @return 当前订阅数、推送的事件数等统计信息
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("subscribers", subscriberCount.get());
+        stats.put("tasks", subscriptions.size());
+        stats.put("subscribed", subscribed.get());
+        stats.put("answeredFromCache", answeredFromCache.get());
+        stats.put("eventsSent", eventsSent.get());
+        return stats;
+    }
+
+    @PreDestroy
+    public void close() {
+        completionPoller.removeListener(this);
+        pushExecutor.shutdownNow();
+        for (Subscription subscription : subscriptions.values()) {
+            subscription.emitters.forEach(SseEmitter::complete);
+        }
+        subscriptions.clear();
+    }
+
+    // ===================================================================================
+    // =                          私有辅助方法 (Private Helpers)                         =
+    // ===================================================================================
+
+    private void unsubscribe(String requestId, Subscription subscription, SseEmitter emitter) {
+        if (subscription.remove(emitter)) {
+            subscriberCount.decrementAndGet();
+        }
+        if (subscription.closeIfEmpty()) {
+            subscriptions.remove(requestId, subscription);
+        }
+    }
+
+    private void broadcast(Subscription subscription, String event, Object data) {
+        for (SseEmitter emitter : subscription.emitters) {
+            send(emitter, event, data);
+        }
+    }
+
+    private void closeAll(Subscription subscription, String event, Object data) {
+        for (SseEmitter emitter : subscription.emitters) {
+            send(emitter, event, data);
+            emitter.complete();
+        }
+    }
+
+    private void sendHeartbeats() {
+        for (Subscription subscription : subscriptions.values()) {
+            for (SseEmitter emitter : subscription.emitters) {
+                try {
+                    emitter.send(SseEmitter.event().comment("heartbeat"));
+                } catch (IOException | IllegalStateException e) {
+                    emitter.completeWithError(e);
+                }
+            }
+        }
+    }
+
+    private void send(SseEmitter emitter, String event, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(event).data(data, MediaType.APPLICATION_JSON));
+            eventsSent.incrementAndGet();
+        } catch (IOException | IllegalStateException e) {
+            // 中文备注：客户端已断开，onError 回调会移除订阅
+            emitter.completeWithError(e);
+        }
+    }
+
+    private static Map<String, Object> status(String requestId, int code, String message) {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("RequestId", requestId);
+        status.put("Code", code);
+        status.put("Message", message);
+        return status;
+    }
+
+    /**
+     * 同一任务的所有订阅者，以及最近一次推送的状态 (新订阅者连接后首先收到它)。
+     */
+    private static class Subscription {
+        private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+        private volatile Map<String, Object> lastStatus;
+        private boolean closed;
+
+        Subscription(String requestId) {
+            this.lastStatus = status(requestId, PicTechResponse.CODE_PROCESSING, "任务处理中");
+        }
+
+        /**
+         * @return 订阅已关闭 (任务已结束或已没有订阅者) 时返回 false
+         */
+        synchronized boolean add(SseEmitter emitter) {
+            return !closed && emitters.add(emitter);
+        }
+
+        synchronized boolean remove(SseEmitter emitter) {
+            return emitters.remove(emitter);
+        }
+
+        synchronized void close() {
+            closed = true;
+        }
+
+        synchronized boolean closeIfEmpty() {
+            if (emitters.isEmpty()) {
+                closed = true;
+            }
+            return closed;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.pictech.service;
+
+import com.pictech.client.ImageTranslationApiClient;
+import com.pictech.client.TaskCompletionListener;
+import com.pictech.client.TaskCompletionPoller;
+import com.pictech.client.TaskType;
+import com.pictech.client.model.PicTechResponse;
+import com.pictech.client.model.TranslationResultResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 翻译结果查询层，位于 {@link ImageTranslationApiClient#queryTranslationTaskResult} 之前：
+ * 1. 同一 RequestId 的并发查询只发起一次上游调用，其余请求共享同一个结果 (single-flight)；
+ * 2. 已结束的任务 (Code 不为 202) 的结果写入有容量上限和过期时间的缓存，之后的查询直接返回缓存；
+ * 3. 共享轮询器发现任务结束时也会把结果写入缓存，前端再来查询时无需访问上游。
+ */
+@Service
+public class TaskResultQueryService implements TaskCompletionListener {
+
+    private final ImageTranslationApiClient apiClient;
+    private final BoundedTtlCache<String, TranslationResultResponse> terminalResults;
+    private final ConcurrentMap<String, CompletableFuture<TranslationResultResponse>> inFlight = new ConcurrentHashMap<>();
+
+    // --- 统计 ---
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong upstreamCalls = new AtomicLong();
+
+    @Autowired
+    public TaskResultQueryService(ImageTranslationApiClient apiClient,
+                                  TaskCompletionPoller completionPoller,
+                                  @Value("${pictech.api.query-cache.max-size:64MB}") DataSize maxSize,
+                                  @Value("${pictech.api.query-cache.max-entries:10000}") int maxEntries,
+                                  @Value("${pictech.api.query-cache.ttl:30m}") Duration ttl) {
+        this.apiClient = apiClient;
+        this.terminalResults = new BoundedTtlCache<>(maxSize.toBytes(), maxEntries, ttl.toMillis(),
+                TaskResultQueryService::estimateSize);
+        completionPoller.addListener(this);
+    }
+
+    /**
+     * 查询翻译任务结果：优先返回缓存的终态结果，否则与其他相同的并发查询共享一次上游调用。
+     *
+     * @param requestId 任务 ID
+     * @return 查询结果
+     */
+    public TranslationResultResponse queryTranslationResult(String requestId) throws Exception {
+        TranslationResultResponse cached = terminalResults.get(requestId);
+        if (cached != null) {
+            hits.incrementAndGet();
+            return cached;
+        }
+        misses.incrementAndGet();
+
+        CompletableFuture<TranslationResultResponse> leader = new CompletableFuture<>();
+        CompletableFuture<TranslationResultResponse> existing = inFlight.putIfAbsent(requestId, leader);
+        if (existing != null) {
+            coalesced.incrementAndGet();
+            return await(existing);
+        }
+
+        try {
+            upstreamCalls.incrementAndGet();
+            TranslationResultResponse result = apiClient.queryTranslationTaskResult(requestId);
+            if (isTerminal(result)) {
+                terminalResults.put(requestId, result);
+            }
+            leader.complete(result);
+            return result;
+        } catch (Exception e) {
+            leader.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(requestId, leader);
+        }
+    }
+
+    /**
+     * @return 缓存中的终态结果，不存在时返回 null，不会访问上游
+     */
+    public TranslationResultResponse getCachedResult(String requestId) {
+        return terminalResults.get(requestId);
+    }
+
+    @Override
+    public void onCompleted(TaskType type, String requestId, PicTechResponse result) {
+        if (result instanceof TranslationResultResponse) {
+            terminalResults.put(requestId, (TranslationResultResponse) result);
+        }
+    }
+
+    /**
+     * @return 缓存命中、合并和上游调用次数等统计信息
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        stats.put("coalesced", coalesced.get());
+        stats.put("upstreamCalls", upstreamCalls.get());
+        stats.put("upstreamCallsSaved", hits.get() + coalesced.get());
+        stats.put("entries", terminalResults.size());
+        stats.put("estimatedBytes", terminalResults.getTotalWeight());
+        stats.put("evictions", terminalResults.getEvictions());
+        stats.put("inFlight", inFlight.size());
+        return stats;
+    }
+
+    // ===================================================================================
+    // =                          私有辅助方法 (Private Helpers)                         =
+    // ===================================================================================
+
+    private static TranslationResultResponse await(CompletableFuture<TranslationResultResponse> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static boolean isTerminal(TranslationResultResponse result) {
+        return result != null && !result.isProcessing();
+    }
+
+    /**
+     * 粗略估算响应体在堆上占用的字节数，用于缓存容量控制。Data 以原始 JSON 文本保存，按字符数估算即可。
+     */
+    private static long estimateSize(TranslationResultResponse value) {
+        return 96 + estimateSize(value.getMessage()) + estimateSize(value.getRequestId())
+                + estimateSize(value.getErrorCode()) + estimateSize(value.getData());
+    }
+
+    private static long estimateSize(String value) {
+        return value == null ? 0 : 40 + 2L * value.length();
+    }
+}
@@ -1,14 +1,26 @@
 package com.pictech.service;
+import com.pictech.client.ImageSource;
 import com.pictech.client.ImageTranslationApiClient;
+import com.pictech.client.PicTechPollProperties;
+import com.pictech.client.TaskCompletionPoller;
+import com.pictech.client.TaskType;
+import com.pictech.client.model.SubmitTaskResponse;
+import com.pictech.client.model.TranslationResultResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.File;
-import java.io.FileOutputStream;
+import java.io.Closeable;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Base64;
-import java.util.Map;
+import java.util.logging.Logger;
 
 /**
  * 封装图片翻译的核心业务逻辑
@@ -16,11 +28,35 @@ import java.util.Map;
 @Service
 public class TranslationService {
 
+    private static final Logger LOGGER = Logger.getLogger(TranslationService.class.getName());
+    private static final int TRANSFER_BUFFER_SIZE = 64 * 1024;
+
     private final ImageTranslationApiClient apiClient;
+    private final TaskCompletionPoller completionPoller;
+    private final PicTechPollProperties pollProperties;
+    private final TaskResultQueryService resultQueryService;
+    private final SubmitDeduplicationService deduplication;
+    private final ImagePreprocessor preprocessor;
+    private final AssetStorage assetStorage;
+    private final boolean persistIopaintResults;
 
     @Autowired
-    public TranslationService(ImageTranslationApiClient apiClient) {
+    public TranslationService(ImageTranslationApiClient apiClient,
+                              TaskCompletionPoller completionPoller,
+                              PicTechPollProperties pollProperties,
+                              TaskResultQueryService resultQueryService,
+                              SubmitDeduplicationService deduplication,
+                              ImagePreprocessor preprocessor,
+                              AssetStorage assetStorage,
+                              @Value("${pictech.api.iopaint.persist:true}") boolean persistIopaintResults) {
         this.apiClient = apiClient;
+        this.completionPoller = completionPoller;
+        this.pollProperties = pollProperties;
+        this.resultQueryService = resultQueryService;
+        this.deduplication = deduplication;
+        this.preprocessor = preprocessor;
+        this.assetStorage = assetStorage;
+        this.persistIopaintResults = persistIopaintResults;
     }
 
     /**
@@ -31,105 +67,241 @@ public class TranslationService {
      * @return API 响应结果
      * @throws Exception
      */
-    public Map<String, Object> submitTaskFromUrl(String imageUrl, String sourceLanguage, String targetLanguage) throws Exception {
-        return apiClient.submitTranslationTaskWithUrl(imageUrl, sourceLanguage, targetLanguage);
+    public SubmitTaskResponse submitTaskFromUrl(String imageUrl, String sourceLanguage, String targetLanguage) throws Exception {
+        return trackSubmitted(apiClient.submitTranslationTaskWithUrl(imageUrl, sourceLanguage, targetLanguage));
     }
 
     /**
-     * 提交基于 Base64 的翻译任务
+     * 提交基于 Base64 的翻译任务 (相同图片和语言对已提交过时复用原来的 RequestId，过大的图片先缩小再上传)
      * @param imageBase64 Base64 编码的图片字符串
      * @param sourceLanguage 源语言
      * @param targetLanguage 目标语言
      * @return API 响应结果
      * @throws Exception
      */
-    public Map<String, Object> submitTaskFromBase64(String imageBase64, String sourceLanguage, String targetLanguage) throws Exception {
-        return apiClient.submitTranslationTaskWithBase64(imageBase64, sourceLanguage, targetLanguage);
+    public SubmitTaskResponse submitTaskFromBase64(String imageBase64, String sourceLanguage, String targetLanguage) throws Exception {
+        return deduplication.submit(() -> SubmitDeduplicationService.digestBase64(imageBase64), sourceLanguage, targetLanguage,
+                () -> trackSubmitted(apiClient.submitTranslationTaskWithBase64(preprocessBase64(imageBase64), sourceLanguage, targetLanguage)));
     }
 
     /**
-     * 提交通过文件上传的翻译任务
+     * 提交通过文件上传的翻译任务 (相同图片和语言对已提交过时复用原来的 RequestId，过大的图片先缩小再上传)
      * @param file 上传的图片文件
      * @param sourceLanguage 源语言
      * @param targetLanguage 目标语言
      * @return API 响应结果
      * @throws Exception
      */
-    public Map<String, Object> submitTaskFromFile(MultipartFile file, String sourceLanguage, String targetLanguage) throws Exception {
-        // 将 MultipartFile 转换为 Base64 字符串
-        String imageBase64 = convertFileToBase64(file);
-        return apiClient.submitTranslationTaskWithBase64(imageBase64, sourceLanguage, targetLanguage);
+    public SubmitTaskResponse submitTaskFromFile(MultipartFile file, String sourceLanguage, String targetLanguage) throws Exception {
+        // 中文备注：直接以上传文件的输入流作为图片来源，写请求体时边读边编码，不再 getBytes() 整体读入内存
+        ImageSource original = ImageSource.of(file, file.getContentType());
+        // 中文备注：去重按原图内容计算，预处理只在真正需要上传时执行
+        return deduplication.submit(() -> {
+            try (InputStream in = file.getInputStream()) {
+                return SubmitDeduplicationService.digest(in);
+            }
+        }, sourceLanguage, targetLanguage, () -> {
+            ImageSource image = preprocess(original, file.getSize());
+            return trackSubmitted(apiClient.submitTranslationTaskWithImage(image, sourceLanguage, targetLanguage));
+        });
+    }
+
+    /**
+     * 提交已接收完整的上传图片 (相同图片和语言对已提交过时复用原来的 RequestId，过大的图片先缩小再上传)，
+     * 图片边读边编码写入上游请求。
+     * 在接口线程池中执行，线程被中断时上游调用随之中止。
+     * @param file 暂存在本地的上传文件
+     * @param contentType 上传时声明的图片类型
+     * @param sourceLanguage 源语言
+     * @param targetLanguage 目标语言
+     * @return API 响应结果
+     * @throws Exception
+     */
+    public SubmitTaskResponse submitTaskFromStream(Path file, String contentType, String sourceLanguage, String targetLanguage) throws Exception {
+        // 中文备注：文件已完整接收到本地，与文件上传一样按原图内容去重，预处理只在真正需要上传时执行
+        return deduplication.submit(() -> {
+            try (InputStream in = Files.newInputStream(file)) {
+                return SubmitDeduplicationService.digest(in);
+            }
+        }, sourceLanguage, targetLanguage, () -> {
+            ImageSource image = preprocess(ImageSource.of(new FileSystemResource(file), contentType), Files.size(file));
+            return trackSubmitted(apiClient.submitTranslationTaskWithImage(image, sourceLanguage, targetLanguage));
+        });
     }
 
     /**
-     * 查询翻译任务的结果
+     * 查询翻译任务的结果 (已结束的任务直接返回缓存，并发的相同查询只访问一次上游)
      * @param requestId 任务 ID
      * @return 查询结果
      * @throws Exception
      */
-    public Map<String, Object> queryTaskResult(String requestId) throws Exception {
-        return apiClient.queryTranslationTaskResult(requestId);
+    public TranslationResultResponse queryTaskResult(String requestId) throws Exception {
+        TranslationResultResponse result = resultQueryService.queryTranslationResult(requestId);
+        deduplication.onResult(requestId, result);
+        return result;
     }
 
     /**
-     * 将 MultipartFile 转换为带前缀的 Base64 字符串
-     * @param file 文件
-     * @return Base64 字符串
-     * @throws IOException
+     * 预处理上传的图片，无需处理或处理失败时返回原图。
      */
-    private String convertFileToBase64(MultipartFile file) throws IOException {
-        String mimeType = file.getContentType();
-        if (mimeType == null || !mimeType.startsWith("image")) {
-            // 提供一个默认值或抛出异常
-            mimeType = "image/jpeg";
+    private ImageSource preprocess(ImageSource original, long size) {
+        ImagePreprocessor.Result result = preprocessor.process(original, size);
+        return result.isChanged() ? ImageSource.of(new ByteArrayResource(result.getBytes()), result.getMimeType()) : original;
+    }
+
+    /**
+     * 预处理 Base64 图片，未启用预处理时不解码；结果保留原来的 data: 前缀形式。
+     */
+    private String preprocessBase64(String imageBase64) {
+        if (!preprocessor.isEnabled()) {
+            return imageBase64;
+        }
+        int comma = imageBase64.indexOf(',');
+        byte[] bytes;
+        try {
+            bytes = Base64.getMimeDecoder().decode(imageBase64.substring(comma + 1));
+        } catch (IllegalArgumentException e) {
+            return imageBase64;
+        }
+        ImagePreprocessor.Result result = preprocessor.process(
+                ImageSource.of(new ByteArrayResource(bytes), null), bytes.length);
+        if (!result.isChanged()) {
+            return imageBase64;
         }
-        byte[] fileContent = file.getBytes();
-        String encodedString = Base64.getEncoder().encodeToString(fileContent);
-        return "data:" + mimeType + ";base64," + encodedString;
+        String encoded = Base64.getEncoder().encodeToString(result.getBytes());
+        return comma >= 0 ? "data:" + result.getMimeType() + ";base64," + encoded : encoded;
     }
 
+    /**
+     * 提交成功后把任务交给共享轮询器跟踪，直到任务结束
+     * @param submitResponse 提交接口的响应
+     * @return 原样返回提交接口的响应
+     */
+    private SubmitTaskResponse trackSubmitted(SubmitTaskResponse submitResponse) {
+        if (pollProperties.isTrackTranslations() && submitResponse != null
+                && submitResponse.isSuccess() && submitResponse.getRequestId() != null) {
+            completionPoller.track(TaskType.TRANSLATION, submitResponse.getRequestId());
+        }
+        return submitResponse;
+    }
 
     /**
-     * 【对外暴露的核心方法】
-     * 此方法处理擦除逻辑，包括保存调试文件，并调用业务类执行AI服务。
-     * TranslationController 会直接调用这个方法。
+     * 执行擦除并在内存中返回修复结果，不经过磁盘；启用 pictech.api.iopaint.persist 时结果由 {@link AssetStorage}
+     * 在后台写入 iopaint/日期/ 目录，写入队列已满时不保存。
      *
      * @param sourceImageBase64 来源图片的 Base64
      * @param maskImageBase64   遮罩图片的 Base64
-     * @return 经过处理后的图片字节数组
+     * @return 修复后的图片字节 (PNG)
      */
-    public String iopaint(String sourceImageBase64, String maskImageBase64, String savePath, String imageName) {
+    public byte[] iopaintToBytes(String sourceImageBase64, String maskImageBase64) throws Exception {
+        byte[] imageBytes = apiClient.inpaintImageSync(sourceImageBase64, maskImageBase64);
+        if (imageBytes == null) {
+            throw new RuntimeException("iopaint 处理失败: 未返回有效的图片数据");
+        }
+        return persistIopaintResult(imageBytes);
+    }
 
-        try {
-            byte[] response = apiClient.
-                    inpaintImageSync(sourceImageBase64, maskImageBase64);
+    /**
+     * 与 {@link #iopaintToBytes(String, String)} 相同，原图和蒙版为二进制上传的原始字节，
+     * 在写上游请求体时才编码为 Base64。
+     *
+     * @param sourceImage 来源图片
+     * @param maskImage   遮罩图片
+     * @return 修复后的图片字节 (PNG)
+     */
+    public byte[] iopaintToBytes(ImageSource sourceImage, ImageSource maskImage) throws Exception {
+        return persistIopaintResult(apiClient.inpaintImageSync(sourceImage, maskImage));
+    }
 
-            String fileExt = "png";
+    /**
+     * 执行擦除并返回仍然连接着上游的修复结果，由调用方经 {@link #transferIopaintResult} 边读边转发，读完后必须关闭。
+     *
+     * @param sourceImageBase64 来源图片的 Base64
+     * @param maskImageBase64   遮罩图片的 Base64
+     */
+    public ImageTranslationApiClient.ImageStream openIopaintStream(String sourceImageBase64, String maskImageBase64) throws Exception {
+        return apiClient.openInpaintStream(sourceImageBase64, maskImageBase64);
+    }
 
-            String newImageName = imageName + "." + fileExt;
+    /**
+     * 与 {@link #openIopaintStream(String, String)} 相同，原图和蒙版为二进制上传的原始字节。
+     */
+    public ImageTranslationApiClient.ImageStream openIopaintStream(ImageSource sourceImage, ImageSource maskImage) throws Exception {
+        return apiClient.openInpaintStream(sourceImage, maskImage);
+    }
 
-            // 3. 建立儲存目錄（如果不存在）
-            File directory = new File(savePath);
-            if (!directory.exists()) {
-                if (directory.mkdirs()) {
-                } else {
-                    throw new IOException("无法创建存储目录：" + savePath);
+    /**
+     * 把修复结果写入 target；启用 pictech.api.iopaint.persist 时经过的内容同时写入 {@link AssetStorage} 的暂存文件，
+     * 完整读完后提交到 iopaint/日期/ 目录。保存失败只放弃保存，不影响写入 target。
+     *
+     * @param result 上游返回的修复结果
+     * @param target 写入目标 (例如浏览器的响应流)，不会被关闭
+     * @return 修复结果的字节数
+     */
+    public long transferIopaintResult(InputStream result, OutputStream target) throws IOException {
+        AssetStorage.Staged staged = null;
+        OutputStream copy = null;
+        if (persistIopaintResults) {
+            try {
+                staged = assetStorage.stage(AssetStorage.Area.IOPAINT);
+                copy = staged.openOutputStream();
+            } catch (IOException e) {
+                LOGGER.warning("创建修复结果的暂存文件失败，不保存: " + e.getMessage());
+                closeQuietly(staged);
+                staged = null;
+            }
+        }
+        try {
+            byte[] buffer = new byte[TRANSFER_BUFFER_SIZE];
+            long total = 0;
+            int read;
+            while ((read = result.read(buffer)) != -1) {
+                target.write(buffer, 0, read);
+                total += read;
+                if (copy != null) {
+                    try {
+                        copy.write(buffer, 0, read);
+                    } catch (IOException e) {
+                        LOGGER.warning("写入修复结果的暂存文件失败，不保存: " + e.getMessage());
+                        closeQuietly(copy);
+                        closeQuietly(staged);
+                        copy = null;
+                    }
                 }
             }
-
-            String finalFilePath = savePath + File.separator + newImageName;
-            File file = new File(finalFilePath);
-
-            try (FileOutputStream fos = new FileOutputStream(file)) {
-                fos.write(response);
+            if (copy != null && total > 0) {
+                // 中文备注：关闭时写出缓冲区，之后提交由后台线程完成 fsync 和重命名
+                try {
+                    copy.close();
+                    copy = null;
+                    staged.commit(".png");
+                } catch (IOException e) {
+                    LOGGER.warning("保存修复结果失败: " + e.getMessage());
+                }
             }
-            return newImageName;
+            return total;
+        } finally {
+            closeQuietly(copy);
+            closeQuietly(staged);
+        }
+    }
 
-        } catch (Exception e) {
-            System.err.println("[ImageInpainter]  处理过程中发生错误。");
-            e.printStackTrace(System.err);
-            throw new RuntimeException("iopaint 处理失败: " + e.getMessage(), e);
+    private byte[] persistIopaintResult(byte[] imageBytes) {
+        if (persistIopaintResults) {
+            // 中文备注：修复结果的保存是可选的，写入队列已满时丢弃并计数，不阻塞请求
+            assetStorage.tryStore(AssetStorage.Area.IOPAINT, ".png", imageBytes);
         }
+        return imageBytes;
+    }
 
+    private static void closeQuietly(Closeable closeable) {
+        if (closeable == null) {
+            return;
+        }
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            LOGGER.warning("关闭修复结果的暂存文件失败: " + e.getMessage());
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,168 @@
+package com.pictech.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 执行需要调用上游的接口请求，使 Servlet 线程在上游调用期间得到释放 (接口返回 CompletableFuture)。
+ * 按接口类别划分为互相隔离的有界线程池 (舱壁)，耗时的同步图片修复不会占满查询、提交接口的线程：
+ * 1. 线程和等待队列都已满时立即拒绝；
+ * 2. 在队列中等待超过 max-queue-wait 的请求不再执行 (客户端多半已经超时)，同样按拒绝处理；
+ * 被拒绝的请求以 {@link RejectedExecutionException} 结束，由控制器转换为 503，而不是无限排队。
+ */
+@Service
+public class UpstreamRequestExecutor {
+
+    /**
+     * 接口类别
+     */
+    public enum Bulkhead {
+        /** 提交任务、查询结果等 */
+        API,
+        /** 同步图片修复 */
+        INPAINT
+    }
+
+    private final Map<Bulkhead, Pool> pools = new EnumMap<>(Bulkhead.class);
+    private final long maxQueueWaitNanos;
+
+    @Autowired
+    public UpstreamRequestExecutor(MeterRegistry meterRegistry,
+                                   @Value("${pictech.api.web-executor.api-threads:32}") int apiThreads,
+                                   @Value("${pictech.api.web-executor.api-queue-capacity:200}") int apiQueueCapacity,
+                                   @Value("${pictech.api.web-executor.inpaint-threads:16}") int inpaintThreads,
+                                   @Value("${pictech.api.web-executor.inpaint-queue-capacity:64}") int inpaintQueueCapacity,
+                                   @Value("${pictech.api.web-executor.max-queue-wait:10s}") Duration maxQueueWait) {
+        this.maxQueueWaitNanos = maxQueueWait.toNanos();
+        pools.put(Bulkhead.API, new Pool(Bulkhead.API, apiThreads, apiQueueCapacity));
+        pools.put(Bulkhead.INPAINT, new Pool(Bulkhead.INPAINT, inpaintThreads, inpaintQueueCapacity));
+        pools.values().forEach(pool -> pool.registerMeters(meterRegistry));
+    }
+
+    /**
+     * 在指定类别的线程池中执行一次请求处理。
+     *
+     * @return 处理完成时完成；被拒绝时以 {@link RejectedExecutionException} 异常完成。
+     *         取消返回的 future 时中断执行中的线程，正在读写套接字的上游调用随之中止
+     */
+    public <T> CompletableFuture<T> submit(Bulkhead bulkhead, Callable<T> handler) {
+        Pool pool = pools.get(bulkhead);
+        CompletableFuture<T> future = new CompletableFuture<>();
+        long queuedAt = System.nanoTime();
+        try {
+            Future<?> task = pool.executor.submit(() -> {
+                if (System.nanoTime() - queuedAt > maxQueueWaitNanos) {
+                    pool.expired.incrementAndGet();
+                    future.completeExceptionally(new RejectedExecutionException("请求排队超时"));
+                    return;
+                }
+                try {
+                    future.complete(handler.call());
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            });
+            future.whenComplete((result, error) -> {
+                if (future.isCancelled()) {
+                    task.cancel(true);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pool.rejected.incrementAndGet();
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * 判断异常是否表示请求因过载被拒绝
+     */
+    public static boolean isRejected(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        return cause instanceof RejectedExecutionException;
+    }
+
+    /**
+     * @return 各类别的线程数、排队数和拒绝次数
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        for (Pool pool : pools.values()) {
+            Map<String, Object> poolStats = new LinkedHashMap<>();
+            poolStats.put("threads", pool.executor.getMaximumPoolSize());
+            poolStats.put("active", pool.executor.getActiveCount());
+            poolStats.put("queued", pool.executor.getQueue().size());
+            poolStats.put("queueCapacity", pool.queueCapacity);
+            poolStats.put("completed", pool.executor.getCompletedTaskCount());
+            poolStats.put("rejected", pool.rejected.get());
+            poolStats.put("expired", pool.expired.get());
+            stats.put(pool.name, poolStats);
+        }
+        return stats;
+    }
+
+    @PreDestroy
+    public void close() {
+        pools.values().forEach(pool -> pool.executor.shutdownNow());
+    }
+
+    // ===================================================================================
+    // =                          私有辅助方法 (Private Helpers)                         =
+    // ===================================================================================
+
+    private static class Pool {
+        private final String name;
+        private final int queueCapacity;
+        private final ThreadPoolExecutor executor;
+        private final AtomicLong rejected = new AtomicLong();
+        private final AtomicLong expired = new AtomicLong();
+
+        Pool(Bulkhead bulkhead, int threads, int queueCapacity) {
+            this.name = bulkhead.name().toLowerCase(Locale.ROOT);
+            this.queueCapacity = Math.max(1, queueCapacity);
+            AtomicInteger counter = new AtomicInteger();
+            this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(this.queueCapacity), runnable -> {
+                Thread thread = new Thread(runnable, "pictech-web-" + name + "-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.executor.allowCoreThreadTimeOut(true);
+        }
+
+        /**
+         * 导出到 /actuator/prometheus：pictech.web.executor.queued / active 和 pictech.web.executor.rejected (按 bulkhead 区分)。
+         */
+        void registerMeters(MeterRegistry registry) {
+            Gauge.builder("pictech.web.executor.queued", executor, e -> e.getQueue().size())
+                    .description("等待执行的接口请求数").tag("bulkhead", name).register(registry);
+            Gauge.builder("pictech.web.executor.active", executor, ThreadPoolExecutor::getActiveCount)
+                    .description("正在执行的接口请求数").tag("bulkhead", name).register(registry);
+            FunctionCounter.builder("pictech.web.executor.rejected", rejected, AtomicLong::get)
+                    .description("因过载被拒绝的接口请求数").tag("bulkhead", name).tag("reason", "full").register(registry);
+            FunctionCounter.builder("pictech.web.executor.rejected", expired, AtomicLong::get)
+                    .description("因过载被拒绝的接口请求数").tag("bulkhead", name).tag("reason", "queue_timeout").register(registry);
+        }
+    }
+}